@@ -0,0 +1,47 @@
+#!/usr/bin/env bash
+# Builds target/hazard-chess-linux (mvn -Plinux-image package):
+# - jlink image: javafx.controls (Linux jars from target/jfx-mods), jdk.jfr, jdk.incubator.vector (the
+#   launcher resolves it, so BoardBatch takes its vector path) and what they require
+# - app/hazard-chess.jar on the class path, bin/hazard-chess launcher
+# - lib/hazard-chess.jsa: static AppCDS archive from the class lists of training runs of the
+#   headless modes (uci, tournament, loadgen with its embedded server) and of BoardUI when a display is there
+# usage: build-image.sh <java.home> <target dir> <app jar>
+set -euo pipefail
+JDK=$1
+TARGET=$2
+JAR=$3
+IMAGE=$TARGET/hazard-chess-linux
+TRAIN=$TARGET/cds-training
+HERE=$(cd "$(dirname "$0")" && pwd)
+
+rm -rf "$IMAGE" "$TRAIN"
+"$JDK/bin/jlink" --module-path "$TARGET/jfx-mods" \
+    --add-modules javafx.controls,jdk.jfr,jdk.incubator.vector,jdk.unsupported \
+    --strip-debug --no-header-files --no-man-pages --compress=zip-6 \
+    --output "$IMAGE"
+mkdir -p "$IMAGE/app" "$TRAIN"
+cp "$JAR" "$IMAGE/app/hazard-chess.jar"
+cp "$HERE/hazard-chess" "$IMAGE/bin/hazard-chess"
+chmod +x "$IMAGE/bin/hazard-chess"
+
+train() {
+    local name=$1
+    shift
+    HAZARD_CHESS_OPTS="-Xshare:off -XX:DumpLoadedClassList=$TRAIN/$name.classlist ${TRAIN_OPTS:-}" \
+        "$IMAGE/bin/hazard-chess" "$@" > "$TRAIN/$name.log" 2>&1
+}
+(printf 'uci\nisready\nposition seed 1 moves e2e4 e7e5 f:d5\nstate\ngo depth 4\n'; sleep 2; printf 'quit\n') | train uci uci
+train tournament tournament search:2:20 search:1:20 4 2
+train loadgen loadgen 64 4 20 50
+if [ -n "${DISPLAY:-}${WAYLAND_DISPLAY:-}" ]; then
+    TRAIN_OPTS=-Dhazardchess.exitAfterFirstFrame=true train ui ui
+else
+    echo "build-image: no display, BoardUI left out of the CDS training"
+fi
+
+# ids are per run: drop them before merging the lists (only built-in loader classes are listed)
+# same module options as the launcher, or the archive does not match at run time
+sed -E 's/ id: [0-9]+$//' "$TRAIN"/*.classlist | awk '!seen[$0]++' > "$TRAIN/all.classlist"
+"$IMAGE/bin/java" --add-modules jdk.incubator.vector -Xshare:dump -XX:SharedClassListFile="$TRAIN/all.classlist" \
+    -XX:SharedArchiveFile="$IMAGE/lib/hazard-chess.jsa" -cp "$IMAGE/app/hazard-chess.jar" > "$TRAIN/dump.log" 2>&1
+echo "build-image: $IMAGE ($(du -sh "$IMAGE" | cut -f1)), $(wc -l < "$TRAIN/all.classlist") classes in the CDS training list"
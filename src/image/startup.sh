@@ -0,0 +1,49 @@
+#!/usr/bin/env bash
+# Startup times, median of RUNS runs (mvn -Plinux-image verify, or by hand):
+#   baseline  full JDK + fat jar, default CDS
+#   image     runtime image without CDS (-Xshare:off)
+#   image+cds runtime image with lib/hazard-chess.jsa
+# Headless: wall time of "uci, go depth 1, quit" through the UCI engine (JVM start to exit).
+# UI (only with a display): time to first frame as printed by BoardUI -Dhazardchess.exitAfterFirstFrame=true.
+# usage: startup.sh <image dir> <java.home> <fat jar> [runs]
+set -euo pipefail
+IMAGE=$1
+JDK=$2
+FATJAR=$3
+RUNS=${4:-10}
+
+median() {
+    sort -n | awk '{ v[NR] = $1 } END { print v[int((NR + 1) / 2)] }'
+}
+
+# prints the wall time in ms of "$@" fed with the UCI script
+uci_ms() {
+    local start end
+    start=$(date +%s%N)
+    printf 'uci\nposition seed 1\ngo depth 1\nisready\nquit\n' | "$@" > /dev/null
+    end=$(date +%s%N)
+    echo $(( (end - start) / 1000000 ))
+}
+
+ui_ms() {
+    "$@" 2> /dev/null | awk '/^first frame/ { print $3 }'
+}
+
+row() {
+    local label=$1 kind=$2
+    shift 2
+    local i
+    for ((i = 0; i < RUNS; i++)); do "${kind}_ms" "$@"; done | median | xargs printf '%-10s %-9s %6s ms\n' "$label" "$kind"
+}
+
+echo "startup, median of $RUNS runs"
+row baseline uci "$JDK/bin/java" -cp "$FATJAR" com.hazardchess.uci.UciEngine
+HAZARD_CHESS_OPTS=-Xshare:off row image uci "$IMAGE/bin/hazard-chess" uci
+row image+cds uci "$IMAGE/bin/hazard-chess" uci
+if [ -n "${DISPLAY:-}${WAYLAND_DISPLAY:-}" ]; then
+    row baseline ui "$JDK/bin/java" -Dhazardchess.exitAfterFirstFrame=true -cp "$FATJAR" com.hazardchess.ui.BoardUI
+    HAZARD_CHESS_OPTS="-Xshare:off -Dhazardchess.exitAfterFirstFrame=true" row image ui "$IMAGE/bin/hazard-chess" ui
+    HAZARD_CHESS_OPTS=-Dhazardchess.exitAfterFirstFrame=true row image+cds ui "$IMAGE/bin/hazard-chess" ui
+else
+    echo "no display: time to first frame not measured"
+fi
@@ -0,0 +1,96 @@
+package com.hazardchess.bench;
+
+import com.hazardchess.ai.BoardBatch;
+import com.hazardchess.ai.SelfPlay;
+import com.hazardchess.game.Board;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hazard-layer kernels over BOARDS boards per call (time per call).
+ * - perCell: Board.countAdjacentHazards for every cell of every board, the current one-cell-at-a-time path
+ * - scalar*: BoardBatch with the scalar loops, vector*: the same batch with the Vector API kernels
+ * - reveal* first copies the batch back to its start (same copy in both), then reveals one square on all boards
+ * Boards are mid-game self-play positions of height 8 from a fixed seed.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"--add-modules", "jdk.incubator.vector"})
+@State(Scope.Thread)
+public class BoardBatchBench {
+    private static final int BOARDS = 1024;
+    private static final int HEIGHT = 8;
+
+    private final Board[] boards = new Board[BOARDS];
+    private BoardBatch scalar, vector, start;
+    private final boolean[] over = new boolean[BOARDS];
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        if (!BoardBatch.VECTOR_AVAILABLE) throw new IllegalStateException("jdk.incubator.vector is not available");
+        Random moves = new Random(7);
+        start = new BoardBatch(HEIGHT, BOARDS);
+        scalar = new BoardBatch(HEIGHT, BOARDS, false);
+        vector = new BoardBatch(HEIGHT, BOARDS, true);
+        for (int b = 0; b < BOARDS; b++) {
+            boards[b] = new Board(HEIGHT, 2, b);
+            int plies = 4 + moves.nextInt(16);
+            for (int i = 0; i < plies && !boards[b].isGameOver(); i++) SelfPlay.playRandomMove(boards[b], moves);
+            start.set(b, boards[b]);
+        }
+        scalar.copyFrom(start);
+        vector.copyFrom(start);
+    }
+
+    @Benchmark
+    public int countsPerCell() {
+        int sum = 0;
+        for (Board board : boards)
+            for (int r = 0; r < HEIGHT; r++)
+                for (int c = 0; c < BoardBatch.WIDTH; c++) sum += board.countAdjacentHazards(r, c);
+        return sum;
+    }
+
+    @Benchmark
+    public int countsScalar() {
+        scalar.computeCounts();
+        return scalar.count(BOARDS - 1, next++ & 63);
+    }
+
+    @Benchmark
+    public int countsVector() {
+        vector.computeCounts();
+        return vector.count(BOARDS - 1, next++ & 63);
+    }
+
+    @Benchmark
+    public boolean revealScalar() {
+        scalar.copyFrom(start);
+        scalar.reveal(next++ & 63);
+        return scalar.isRevealed(BOARDS - 1, 0);
+    }
+
+    @Benchmark
+    public boolean revealVector() {
+        vector.copyFrom(start);
+        vector.reveal(next++ & 63);
+        return vector.isRevealed(BOARDS - 1, 0);
+    }
+
+    @Benchmark
+    public boolean[] terminalScalar() {
+        scalar.terminal(over);
+        return over;
+    }
+
+    @Benchmark
+    public boolean[] terminalVector() {
+        vector.terminal(over);
+        return over;
+    }
+}
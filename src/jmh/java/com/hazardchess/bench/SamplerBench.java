@@ -0,0 +1,67 @@
+package com.hazardchess.bench;
+
+import com.hazardchess.ai.BacktrackingSampler;
+import com.hazardchess.ai.FrontierSampler;
+import com.hazardchess.ai.Position;
+import com.hazardchess.ai.SelfPlay;
+import com.hazardchess.game.Board;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hazard layouts per second (ops/s = samples/s, per thread).
+ * - frontierSameRoot: one position sampled over and over, as ISMCTS does (cached analysis)
+ * - frontierNewRoot: a different position every call (analysis + sample)
+ * - backtracking: the simple sampler on the same positions
+ * Positions are mid-game boards of seeded hazard layouts, reached by random moves from a fixed seed.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SamplerBench {
+    private static final int POSITIONS = 32;
+
+    private final List<Position> positions = new ArrayList<>();
+    private final FrontierSampler frontier = new FrontierSampler();
+    private final BacktrackingSampler backtracking = new BacktrackingSampler();
+    private final SplittableRandom rnd = new SplittableRandom(42);
+    private boolean[] layout;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        Random moves = new Random(7);
+        for (long seed = 1; positions.size() < POSITIONS; seed++) {
+            Board board = new Board(8, 2, seed);
+            int plies = 8 + moves.nextInt(24);
+            for (int i = 0; i < plies && !board.isGameOver(); i++) SelfPlay.playRandomMove(board, moves);
+            if (!board.isGameOver()) positions.add(Position.fromBoard(board, null));
+        }
+        layout = new boolean[positions.get(0).size()];
+    }
+
+    @Benchmark
+    public boolean frontierSameRoot() {
+        return frontier.sample(positions.get(0), layout, rnd);
+    }
+
+    @Benchmark
+    public boolean frontierNewRoot() {
+        next = (next + 1) % POSITIONS;
+        return frontier.sample(positions.get(next), layout, rnd);
+    }
+
+    @Benchmark
+    public boolean backtracking() {
+        next = (next + 1) % POSITIONS;
+        return backtracking.sample(positions.get(next), layout, rnd);
+    }
+}
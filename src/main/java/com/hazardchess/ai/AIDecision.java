@@ -0,0 +1,34 @@
+package com.hazardchess.ai;
+
+/**
+ * Result of one AI decision: what to play + the statistics collected while deciding.
+ * - MOVE: coords = {fromR, fromC, toR, toC}
+ * - QUICK_REVEAL: coords = {row, col} of the number cell to chord
+ * - NONE: nothing to play
+ */
+public class AIDecision {
+    public enum Kind { MOVE, QUICK_REVEAL, NONE }
+
+    private final Kind kind;
+    private final int[] coords;
+    private final SearchStats stats;
+
+    private AIDecision(Kind kind, int[] coords, SearchStats stats) {
+        this.kind = kind;
+        this.coords = coords;
+        this.stats = stats;
+    }
+
+    public static AIDecision move(int[] move, SearchStats stats) { return new AIDecision(Kind.MOVE, move, stats); }
+    public static AIDecision quickReveal(int[] cell, SearchStats stats) { return new AIDecision(Kind.QUICK_REVEAL, cell, stats); }
+    public static AIDecision none(SearchStats stats) { return new AIDecision(Kind.NONE, null, stats); }
+
+    public Kind getKind() { return kind; }
+    public SearchStats getStats() { return stats; }
+
+    /** {fromR, fromC, toR, toC} or null if this is not a move. */
+    public int[] getMove() { return kind == Kind.MOVE ? coords : null; }
+
+    /** {row, col} of the chorded number cell or null if this is not a quick reveal. */
+    public int[] getQuickRevealCell() { return kind == Kind.QUICK_REVEAL ? coords : null; }
+}
@@ -0,0 +1,40 @@
+package com.hazardchess.ai;
+
+/**
+ * Difficulty profiles selectable in the UI; createEngine builds a new Engine, which then serves any number
+ * of decisions on one thread (the UI builds one per decision, the server's AIPool one per worker).
+ * - EASY / NORMAL / HARD: alpha-beta Search at growing depth and time budget
+ * - ISMCTS: information-set MCTS on all cores (samples hazard layouts instead of averaging risk), or on
+ *   the given number of threads
+ */
+public enum AIProfile {
+    EASY("Easy"),
+    NORMAL("Normal"),
+    HARD("Hard"),
+    ISMCTS("ISMCTS");
+
+    private final String label;
+
+    AIProfile(String label) {
+        this.label = label;
+    }
+
+    public Engine createEngine() {
+        return createEngine(Runtime.getRuntime().availableProcessors());
+    }
+
+    /** threads bounds the threads of one decision (the calling one included); only ISMCTS uses more than one. */
+    public Engine createEngine(int threads) {
+        return switch (this) {
+            case EASY -> new Search(1, 100_000_000L);
+            case NORMAL -> new Search(4, 300_000_000L);
+            case HARD -> new Search(8, 1_000_000_000L);
+            case ISMCTS -> new Ismcts(threads, 1_000_000_000L);
+        };
+    }
+
+    @Override
+    public String toString() {
+        return label;
+    }
+}
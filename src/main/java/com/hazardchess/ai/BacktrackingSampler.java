@@ -0,0 +1,151 @@
+package com.hazardchess.ai;
+
+import java.util.Arrays;
+import java.util.random.RandomGenerator;
+
+/**
+ * Simple HazardSampler: randomised backtracking over the frontier (hidden cells next to a
+ * revealed number), then the remaining hazards spread uniformly over the other hidden cells.
+ * Layouts are always consistent but not exactly uniform over all consistent layouts.
+ */
+public final class BacktrackingSampler implements HazardSampler {
+    private static final int MAX_STEPS = 20_000;
+
+    private int[] frontier = new int[0];
+    private int[] other = new int[0];
+    private int[] need = new int[0];      // hazards still missing around each number cell
+    private int[] open = new int[0];      // unassigned frontier neighbours of each number cell
+    private int steps;
+
+    @Override
+    public boolean sample(Position pos, boolean[] layout, RandomGenerator rnd) {
+        int size = pos.size(), w = pos.getWidth(), h = pos.getHeight();
+        if (need.length < size) {
+            need = new int[size];
+            open = new int[size];
+            frontier = new int[size];
+            other = new int[size];
+        }
+        Arrays.fill(layout, 0, size, false);
+        Arrays.fill(need, 0, size, 0);
+        Arrays.fill(open, 0, size, 0);
+
+        int known = 0, nf = 0, no = 0;
+        for (int sq = 0; sq < size; sq++) {
+            int st = pos.stateAt(sq);
+            if ((st & Position.EXPLODED) != 0) {
+                layout[sq] = true;
+                known++;
+            }
+        }
+        for (int sq = 0; sq < size; sq++) {
+            int st = pos.stateAt(sq);
+            if ((st & Position.REVEALED) != 0) {
+                if ((st & Position.EXPLODED) == 0) need[sq] = pos.numberAt(sq) - explodedAround(pos, sq, w, h);
+                continue;
+            }
+            if (isConstrained(pos, sq, w, h)) frontier[nf++] = sq;
+            else other[no++] = sq;
+        }
+        for (int i = 0; i < nf; i++) forEachNumber(pos, frontier[i], w, h, +1);
+        int remaining = pos.getHazardTotal() - known;
+        if (remaining < 0) return false;
+
+        shuffle(frontier, nf, rnd);
+        steps = 0;
+        if (!assign(pos, layout, 0, nf, remaining, no, rnd)) return false;
+        return true;
+    }
+
+    // assigns frontier[i..nf), then places what is left on the unconstrained cells
+    private boolean assign(Position pos, boolean[] layout, int i, int nf, int remaining, int no, RandomGenerator rnd) {
+        if (++steps > MAX_STEPS || remaining < 0) return false;
+        if (i == nf) {
+            if (remaining > no) return false;
+            shuffle(other, no, rnd);
+            for (int k = 0; k < remaining; k++) layout[other[k]] = true;
+            return true;
+        }
+        int sq = frontier[i];
+        int w = pos.getWidth(), h = pos.getHeight();
+        boolean first = rnd.nextBoolean();
+        for (int attempt = 0; attempt < 2; attempt++) {
+            boolean hazard = attempt == 0 ? first : !first;
+            if (fits(pos, sq, w, h, hazard)) {
+                apply(pos, sq, w, h, hazard, -1);
+                layout[sq] = hazard;
+                if (assign(pos, layout, i + 1, nf, remaining - (hazard ? 1 : 0), no, rnd)) return true;
+                layout[sq] = false;
+                apply(pos, sq, w, h, hazard, +1);
+            }
+        }
+        return false;
+    }
+
+    // every number cell around sq can still be satisfied after this choice
+    private boolean fits(Position pos, int sq, int w, int h, boolean hazard) {
+        int r = sq / w, c = sq % w;
+        for (int dr = -1; dr <= 1; dr++) for (int dc = -1; dc <= 1; dc++) {
+            int nr = r + dr, nc = c + dc;
+            if ((dr == 0 && dc == 0) || nr < 0 || nr >= h || nc < 0 || nc >= w) continue;
+            int n = nr * w + nc;
+            if (!isNumber(pos, n)) continue;
+            int left = need[n] - (hazard ? 1 : 0);
+            if (left < 0 || left > open[n] - 1) return false;
+        }
+        return true;
+    }
+
+    private void apply(Position pos, int sq, int w, int h, boolean hazard, int sign) {
+        int r = sq / w, c = sq % w;
+        for (int dr = -1; dr <= 1; dr++) for (int dc = -1; dc <= 1; dc++) {
+            int nr = r + dr, nc = c + dc;
+            if ((dr == 0 && dc == 0) || nr < 0 || nr >= h || nc < 0 || nc >= w) continue;
+            int n = nr * w + nc;
+            if (!isNumber(pos, n)) continue;
+            open[n] += sign;
+            if (hazard) need[n] += sign;
+        }
+    }
+
+    private void forEachNumber(Position pos, int sq, int w, int h, int delta) {
+        int r = sq / w, c = sq % w;
+        for (int dr = -1; dr <= 1; dr++) for (int dc = -1; dc <= 1; dc++) {
+            int nr = r + dr, nc = c + dc;
+            if ((dr == 0 && dc == 0) || nr < 0 || nr >= h || nc < 0 || nc >= w) continue;
+            int n = nr * w + nc;
+            if (isNumber(pos, n)) open[n] += delta;
+        }
+    }
+
+    private static boolean isNumber(Position pos, int sq) {
+        return (pos.stateAt(sq) & (Position.REVEALED | Position.EXPLODED)) == Position.REVEALED;
+    }
+
+    private static boolean isConstrained(Position pos, int sq, int w, int h) {
+        int r = sq / w, c = sq % w;
+        for (int dr = -1; dr <= 1; dr++) for (int dc = -1; dc <= 1; dc++) {
+            int nr = r + dr, nc = c + dc;
+            if ((dr == 0 && dc == 0) || nr < 0 || nr >= h || nc < 0 || nc >= w) continue;
+            if (isNumber(pos, nr * w + nc)) return true;
+        }
+        return false;
+    }
+
+    private static int explodedAround(Position pos, int sq, int w, int h) {
+        int r = sq / w, c = sq % w, n = 0;
+        for (int dr = -1; dr <= 1; dr++) for (int dc = -1; dc <= 1; dc++) {
+            int nr = r + dr, nc = c + dc;
+            if ((dr == 0 && dc == 0) || nr < 0 || nr >= h || nc < 0 || nc >= w) continue;
+            if ((pos.stateAt(nr * w + nc) & Position.EXPLODED) != 0) n++;
+        }
+        return n;
+    }
+
+    private static void shuffle(int[] a, int n, RandomGenerator rnd) {
+        for (int i = n - 1; i > 0; i--) {
+            int j = rnd.nextInt(i + 1);
+            int t = a[i]; a[i] = a[j]; a[j] = t;
+        }
+    }
+}
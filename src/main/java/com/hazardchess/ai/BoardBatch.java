@@ -0,0 +1,206 @@
+package com.hazardchess.ai;
+
+import com.hazardchess.game.Board;
+import com.hazardchess.game.Cell;
+
+/**
+ * The hazard layer of many boards of one height, as struct-of-arrays bitboards, for self-play and sampling.
+ * - board b, square sq = row * 8 + col: bit (sq & 63) of array[sq >>> 6][b]; two words cover the 16 rows
+ *   of the tallest board
+ * - kernels work on all boards at once: adjacency counts, reveal (with flood fill) of one square, terminal check
+ * - with jdk.incubator.vector in the boot layer (--add-modules jdk.incubator.vector, not disabled by
+ *   -Dhazardchess.vector=false) the kernels run in BoardBatchVector, else in the scalar loops here;
+ *   both give the same results
+ * - the number of boards is padded to PAD so vector loops have no tail; padding slots stay empty
+ */
+public final class BoardBatch {
+    public static final int WIDTH = 8;
+    static final int WORDS = 2;
+    static final int PAD = 8;
+    static final long FILE_A = 0x0101010101010101L, FILE_H = FILE_A << 7;
+
+    /** Whether the vector kernels can be used in this JVM. */
+    public static final boolean VECTOR_AVAILABLE =
+            ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent()
+            && Boolean.parseBoolean(System.getProperty("hazardchess.vector", "true"));
+
+    final int height, size, boards, stride;
+    final long[] valid = new long[WORDS];
+    final long[][] neighbours;                                   // [word][sq]: the up to 8 squares around sq
+    final long[][] hazard, revealed, flagged, whiteKing, blackKing;   // [word][board]
+    final int[] counts;                                          // [sq * stride + board]
+    private final boolean vector;
+
+    public BoardBatch(int height, int boards) {
+        this(height, boards, true);
+    }
+
+    /** vector = false forces the scalar kernels (comparisons, benchmarks). */
+    public BoardBatch(int height, int boards, boolean vector) {
+        if (height < 1 || height * WIDTH > WORDS * 64) throw new IllegalArgumentException("height " + height);
+        this.height = height;
+        this.size = height * WIDTH;
+        this.boards = boards;
+        this.stride = (boards + PAD - 1) / PAD * PAD;
+        this.vector = vector && VECTOR_AVAILABLE;
+        for (int sq = 0; sq < size; sq++) valid[sq >>> 6] |= 1L << sq;
+        neighbours = new long[WORDS][size];
+        for (int sq = 0; sq < size; sq++) {
+            int r = sq / WIDTH, c = sq % WIDTH;
+            for (int dr = -1; dr <= 1; dr++)
+                for (int dc = -1; dc <= 1; dc++) {
+                    int nr = r + dr, nc = c + dc;
+                    if ((dr == 0 && dc == 0) || nr < 0 || nr >= height || nc < 0 || nc >= WIDTH) continue;
+                    int n = nr * WIDTH + nc;
+                    neighbours[n >>> 6][sq] |= 1L << n;
+                }
+        }
+        hazard = new long[WORDS][stride];
+        revealed = new long[WORDS][stride];
+        flagged = new long[WORDS][stride];
+        whiteKing = new long[WORDS][stride];
+        blackKing = new long[WORDS][stride];
+        counts = new int[size * stride];
+    }
+
+    public int getHeight() { return height; }
+    public int getBoards() { return boards; }
+    public boolean isVectorized() { return vector; }
+
+    /** Copies the hazard layer of board into slot b, hazards included (a self-play board, not a player's view). */
+    public void set(int b, Board board) {
+        clear(b);
+        for (int r = 0; r < height; r++) {
+            for (int c = 0; c < WIDTH; c++) {
+                Cell cell = board.getCell(r, c);
+                int sq = r * WIDTH + c, w = sq >>> 6;
+                long bit = 1L << sq;
+                if (cell.hasHazard()) hazard[w][b] |= bit;
+                if (cell.isRevealed()) revealed[w][b] |= bit;
+                if (cell.isFlagged()) flagged[w][b] |= bit;
+                if (cell.getPiece() != null && "King".equals(cell.getPiece().getName())) {
+                    if (cell.getPiece().isWhite()) whiteKing[w][b] |= bit;
+                    else blackKing[w][b] |= bit;
+                }
+            }
+        }
+    }
+
+    /** Slot b = what pos shows, with layout (as drawn by a HazardSampler) as its hazards. */
+    public void set(int b, Position pos, boolean[] layout) {
+        clear(b);
+        for (int sq = 0; sq < size; sq++) {
+            int w = sq >>> 6, st = pos.stateAt(sq), p = pos.pieceAt(sq);
+            long bit = 1L << sq;
+            if (layout[sq]) hazard[w][b] |= bit;
+            if ((st & Position.REVEALED) != 0) revealed[w][b] |= bit;
+            if ((st & Position.FLAGGED) != 0) flagged[w][b] |= bit;
+            if (Position.type(p) == Position.KING) {
+                if (Position.isWhite(p)) whiteKing[w][b] |= bit;
+                else blackKing[w][b] |= bit;
+            }
+        }
+    }
+
+    /** Copies all boards of src (same height and board count), e.g. to undo reveals. */
+    public void copyFrom(BoardBatch src) {
+        if (src.height != height || src.boards != boards) throw new IllegalArgumentException("batch shape differs");
+        for (int w = 0; w < WORDS; w++) {
+            System.arraycopy(src.hazard[w], 0, hazard[w], 0, stride);
+            System.arraycopy(src.revealed[w], 0, revealed[w], 0, stride);
+            System.arraycopy(src.flagged[w], 0, flagged[w], 0, stride);
+            System.arraycopy(src.whiteKing[w], 0, whiteKing[w], 0, stride);
+            System.arraycopy(src.blackKing[w], 0, blackKing[w], 0, stride);
+        }
+    }
+
+    private void clear(int b) {
+        for (int w = 0; w < WORDS; w++) {
+            hazard[w][b] = revealed[w][b] = flagged[w][b] = whiteKing[w][b] = blackKing[w][b] = 0;
+        }
+    }
+
+    public boolean isHazard(int b, int sq) { return (hazard[sq >>> 6][b] & (1L << sq)) != 0; }
+    public boolean isRevealed(int b, int sq) { return (revealed[sq >>> 6][b] & (1L << sq)) != 0; }
+
+    /** Number of hazards around sq on board b, as of the last computeCounts(). */
+    public int count(int b, int sq) { return counts[sq * stride + b]; }
+
+    /** Adjacency counts of every square of every board. */
+    public void computeCounts() {
+        if (vector) {
+            BoardBatchVector.computeCounts(this);
+            return;
+        }
+        for (int sq = 0; sq < size; sq++) {
+            long n0 = neighbours[0][sq], n1 = neighbours[1][sq];
+            long[] h0 = hazard[0], h1 = hazard[1];
+            int base = sq * stride;
+            for (int b = 0; b < boards; b++) counts[base + b] = Long.bitCount(h0[b] & n0) + Long.bitCount(h1[b] & n1);
+        }
+    }
+
+    /**
+     * Reveals sq on every board where it is hidden and not flagged, like Board.revealCell: a hazard just
+     * explodes (stays revealed), a cell without hazards around opens its unflagged neighbours, recursively.
+     */
+    public void reveal(int sq) {
+        if (vector) {
+            BoardBatchVector.reveal(this, sq);
+            return;
+        }
+        int w = sq >>> 6;
+        long bit = 1L << sq;
+        for (int b = 0; b < boards; b++) {
+            if (((revealed[w][b] | flagged[w][b]) & bit) != 0) continue;
+            revealed[w][b] |= bit;
+            flood(b, w == 0 ? bit : 0, w == 1 ? bit : 0);
+        }
+    }
+
+    // opens board b outwards from the newly revealed cells f: each one with no hazard around it (and
+    // none on it) reveals its hidden unflagged neighbours, which become the next f
+    void flood(int b, long f0, long f1) {
+        long hr0 = rowNeighbours(hazard[0][b]), hr1 = rowNeighbours(hazard[1][b]);
+        long z0 = ~spread0(hr0, hr1) & valid[0], z1 = ~spread1(hr0, hr1) & valid[1];
+        while ((f0 | f1) != 0) {
+            long s0 = rowNeighbours(f0 & z0), s1 = rowNeighbours(f1 & z1);
+            long g0 = spread0(s0, s1) & valid[0] & ~(revealed[0][b] | flagged[0][b]);
+            long g1 = spread1(s0, s1) & valid[1] & ~(revealed[1][b] | flagged[1][b]);
+            revealed[0][b] |= g0;
+            revealed[1][b] |= g1;
+            f0 = g0;
+            f1 = g1;
+        }
+    }
+
+    /**
+     * out[b] = board b is over: a king is missing or stands on an exploded (revealed hazard) cell.
+     * out needs getBoards() entries.
+     */
+    public void terminal(boolean[] out) {
+        if (vector) {
+            BoardBatchVector.terminal(this, out);
+            return;
+        }
+        for (int b = 0; b < boards; b++) {
+            long wk0 = whiteKing[0][b], wk1 = whiteKing[1][b], bk0 = blackKing[0][b], bk1 = blackKing[1][b];
+            long blown = ((wk0 | bk0) & revealed[0][b] & hazard[0][b]) | ((wk1 | bk1) & revealed[1][b] & hazard[1][b]);
+            out[b] = (wk0 | wk1) == 0 || (bk0 | bk1) == 0 || blown != 0;
+        }
+    }
+
+    // dilation by the 8 neighbours of a two-word bitboard x: h = rowNeighbours(x) per word, then
+    // spread0 / spread1 give words 0 / 1 (bits past the last row are not masked)
+    static long rowNeighbours(long x) {
+        return x | ((x << 1) & ~FILE_A) | ((x >>> 1) & ~FILE_H);
+    }
+
+    static long spread0(long h0, long h1) {
+        return h0 | (h0 << 8) | (h0 >>> 8) | (h1 << 56);
+    }
+
+    static long spread1(long h0, long h1) {
+        return h1 | (h1 << 8) | (h1 >>> 8) | (h0 >>> 56);
+    }
+}
@@ -0,0 +1,112 @@
+package com.hazardchess.ai;
+
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorShape;
+import jdk.incubator.vector.VectorSpecies;
+
+import static com.hazardchess.ai.BoardBatch.FILE_A;
+import static com.hazardchess.ai.BoardBatch.FILE_H;
+
+/**
+ * Vector API versions of the BoardBatch kernels: one lane per board, so every long operation of the
+ * scalar loop handles LONGS.length() boards (8 with AVX-512).
+ * Only loaded when BoardBatch.VECTOR_AVAILABLE; BoardBatch.PAD is a multiple of any lane count.
+ */
+final class BoardBatchVector {
+    private static final VectorSpecies<Long> LONGS = LongVector.SPECIES_PREFERRED;
+    // same lane count as LONGS, for storing the counts
+    private static final VectorSpecies<Integer> INTS =
+            VectorSpecies.of(int.class, VectorShape.forBitSize(LONGS.vectorBitSize() / 2));
+
+    private BoardBatchVector() {}
+
+    static void computeCounts(BoardBatch batch) {
+        long[] h0 = batch.hazard[0], h1 = batch.hazard[1];
+        for (int sq = 0; sq < batch.size; sq++) {
+            long n0 = batch.neighbours[0][sq], n1 = batch.neighbours[1][sq];
+            int base = sq * batch.stride;
+            for (int b = 0; b < batch.stride; b += LONGS.length()) {
+                LongVector c = LongVector.fromArray(LONGS, h0, b).and(n0).lanewise(VectorOperators.BIT_COUNT)
+                        .add(LongVector.fromArray(LONGS, h1, b).and(n1).lanewise(VectorOperators.BIT_COUNT));
+                ((IntVector) c.convertShape(VectorOperators.L2I, INTS, 0)).intoArray(batch.counts, base + b);
+            }
+        }
+    }
+
+    // the seed and the first ring for all lanes; most reveals stop there (a number or a hazard), so the
+    // few lanes still flooding finish in the scalar BoardBatch.flood instead of holding up their group
+    static void reveal(BoardBatch batch, int sq) {
+        int w = sq >>> 6;
+        long bit = 1L << sq;
+        LongVector valid0 = LongVector.broadcast(LONGS, batch.valid[0]), valid1 = LongVector.broadcast(LONGS, batch.valid[1]);
+        LongVector zero = LongVector.zero(LONGS);
+        long[] next0 = new long[LONGS.length()], next1 = new long[LONGS.length()];
+        for (int b = 0; b < batch.stride; b += LONGS.length()) {
+            LongVector r0 = LongVector.fromArray(LONGS, batch.revealed[0], b);
+            LongVector r1 = LongVector.fromArray(LONGS, batch.revealed[1], b);
+            LongVector fl0 = LongVector.fromArray(LONGS, batch.flagged[0], b);
+            LongVector fl1 = LongVector.fromArray(LONGS, batch.flagged[1], b);
+            VectorMask<Long> open = (w == 0 ? r0.or(fl0) : r1.or(fl1)).and(bit).compare(VectorOperators.EQ, 0);
+            if (!open.anyTrue()) continue;
+            LongVector h0 = LongVector.fromArray(LONGS, batch.hazard[0], b);
+            LongVector h1 = LongVector.fromArray(LONGS, batch.hazard[1], b);
+            LongVector hr0 = rowNeighbours(h0), hr1 = rowNeighbours(h1);
+            LongVector z0 = spread0(hr0, hr1).not().and(valid0), z1 = spread1(hr0, hr1).not().and(valid1);
+            LongVector seed = zero.blend(bit, open);
+            LongVector f0 = w == 0 ? seed : zero, f1 = w == 1 ? seed : zero;
+            r0 = r0.or(f0);
+            r1 = r1.or(f1);
+            LongVector s0 = rowNeighbours(f0.and(z0)), s1 = rowNeighbours(f1.and(z1));
+            LongVector g0 = spread0(s0, s1).and(valid0).and(r0.or(fl0).not());
+            LongVector g1 = spread1(s0, s1).and(valid1).and(r1.or(fl1).not());
+            r0.or(g0).intoArray(batch.revealed[0], b);
+            r1.or(g1).intoArray(batch.revealed[1], b);
+            long growing = g0.or(g1).compare(VectorOperators.NE, 0).toLong();
+            if (growing == 0) continue;
+            g0.intoArray(next0, 0);
+            g1.intoArray(next1, 0);
+            for (; growing != 0; growing &= growing - 1) {
+                int i = Long.numberOfTrailingZeros(growing);
+                batch.flood(b + i, next0[i], next1[i]);
+            }
+        }
+    }
+
+    static void terminal(BoardBatch batch, boolean[] out) {
+        for (int b = 0; b < batch.stride; b += LONGS.length()) {
+            LongVector wk0 = LongVector.fromArray(LONGS, batch.whiteKing[0], b);
+            LongVector wk1 = LongVector.fromArray(LONGS, batch.whiteKing[1], b);
+            LongVector bk0 = LongVector.fromArray(LONGS, batch.blackKing[0], b);
+            LongVector bk1 = LongVector.fromArray(LONGS, batch.blackKing[1], b);
+            LongVector blown = wk0.or(bk0).and(LongVector.fromArray(LONGS, batch.revealed[0], b))
+                    .and(LongVector.fromArray(LONGS, batch.hazard[0], b))
+                    .or(wk1.or(bk1).and(LongVector.fromArray(LONGS, batch.revealed[1], b))
+                            .and(LongVector.fromArray(LONGS, batch.hazard[1], b)));
+            VectorMask<Long> over = wk0.or(wk1).compare(VectorOperators.EQ, 0)
+                    .or(bk0.or(bk1).compare(VectorOperators.EQ, 0))
+                    .or(blown.compare(VectorOperators.NE, 0));
+            int n = Math.min(LONGS.length(), batch.boards - b);
+            if (n <= 0) break;
+            if (n == LONGS.length()) over.intoArray(out, b);
+            else for (int i = 0; i < n; i++) out[b + i] = over.laneIsSet(i);
+        }
+    }
+
+    // as BoardBatch.rowNeighbours / spread0 / spread1
+    private static LongVector rowNeighbours(LongVector x) {
+        return x.or(x.lanewise(VectorOperators.LSHL, 1).and(~FILE_A)).or(x.lanewise(VectorOperators.LSHR, 1).and(~FILE_H));
+    }
+
+    private static LongVector spread0(LongVector h0, LongVector h1) {
+        return h0.or(h0.lanewise(VectorOperators.LSHL, 8)).or(h0.lanewise(VectorOperators.LSHR, 8))
+                .or(h1.lanewise(VectorOperators.LSHL, 56));
+    }
+
+    private static LongVector spread1(LongVector h0, LongVector h1) {
+        return h1.or(h1.lanewise(VectorOperators.LSHL, 8)).or(h1.lanewise(VectorOperators.LSHR, 8))
+                .or(h0.lanewise(VectorOperators.LSHR, 56));
+    }
+}
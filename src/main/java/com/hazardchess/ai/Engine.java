@@ -0,0 +1,10 @@
+package com.hazardchess.ai;
+
+/**
+ * A move chooser over a Position (alpha-beta Search, Ismcts, ...).
+ * Instances keep per-search buffers: use one per thread.
+ */
+public interface Engine {
+    /** Best move for the side to move or Move.NONE when it has none; fills stats when not null. */
+    int bestMove(Position pos, SearchStats stats);
+}
@@ -0,0 +1,178 @@
+package com.hazardchess.ai;
+
+/**
+ * Incrementally updated evaluation, in centipawns from the side to move's point of view.
+ * - attach() builds a piece-square table per Position: material + centre + pawn advance
+ *   + exposure (risk of the hidden neighbours of the square, as seen at the root)
+ * - Position keeps the table sum (white - black) up to date on every make/unmake
+ * - evaluate() = that sum + a correction for cells that stopped being hidden during the search
+ *   (a short list) - expected losses charged by Position
+ * Table values are fixed point (1/64 cp) so the incremental sum matches evaluateFromScratch() exactly.
+ * The evaluation is linear in its weights: eval = (sum of weight[i] * feature[i]) >> SHIFT - penalties,
+ * which is what the tuner (ai.tuning) relies on.
+ * Stateless after construction: one instance can be shared by all search threads.
+ */
+public final class Evaluator {
+    public static final int SHIFT = 6;
+    public static final int ONE = 1 << SHIFT;
+
+    // parameter vector layout
+    public static final int W_PAWN = 0, W_KNIGHT = 1, W_BISHOP = 2, W_ROOK = 3, W_QUEEN = 4;
+    public static final int W_CENTRE = 5;
+    public static final int W_PAWN_ADVANCE = 6;
+    public static final int W_EXPOSURE = 7;        // cp per unit of neighbour risk
+    public static final int W_KING_EXPOSURE = 8;
+    public static final int PARAM_COUNT = 9;
+    public static final String[] PARAM_NAMES = {
+            "pawn", "knight", "bishop", "rook", "queen", "centre", "pawnAdvance", "exposure", "kingExposure"
+    };
+
+    public static final Evaluator DEFAULT = new Evaluator(defaultParams());
+
+    private final int[] weights;
+
+    public Evaluator(int[] weights) {
+        if (weights.length != PARAM_COUNT) throw new IllegalArgumentException("expected " + PARAM_COUNT + " weights");
+        this.weights = weights.clone();
+    }
+
+    /** Hand-picked starting point (Position.pieceValue * 100, centre / pawn terms of the former greedy scorer). */
+    public static int[] defaultParams() {
+        return new int[]{100, 300, 300, 500, 900, 4, 3, 20, 60};
+    }
+
+    /** Copy of the weight vector. */
+    public int[] params() { return weights.clone(); }
+
+    /** Builds the piece-square and root risk tables of pos and its initial table sum. */
+    public void attach(Position pos) {
+        int size = pos.size();
+        int[] riskFixed = new int[size];
+        for (int sq = 0; sq < size; sq++) {
+            if (pos.isHidden(sq)) riskFixed[sq] = (int) Math.round(pos.risk(sq) * ONE);
+        }
+        int[][] pst = new int[Position.KING + Position.BLACK + 1][size];
+        for (int sq = 0; sq < size; sq++) {
+            int exposure = neighbourRisk(pos, riskFixed, sq);
+            for (int type = Position.PAWN; type <= Position.KING; type++) {
+                pst[type][sq] = squareValue(pos, type, true, sq, exposure);
+                pst[type | Position.BLACK][sq] = -squareValue(pos, type, false, sq, exposure);
+            }
+        }
+        pos.attachTables(pst, riskFixed);
+    }
+
+    // fixed-point value of a piece on sq, positive for its own side
+    private int squareValue(Position pos, int type, boolean white, int sq, int exposure) {
+        int w = pos.getWidth(), h = pos.getHeight(), r = sq / w, c = sq % w;
+        if (type == Position.KING) return -weights[W_KING_EXPOSURE] * exposure;
+        int centerDist = Math.abs(r - h / 2) + Math.abs(c - w / 2);
+        int v = weights[W_PAWN + type - Position.PAWN] * ONE
+                + weights[W_CENTRE] * (14 - centerDist) * ONE
+                - weights[W_EXPOSURE] * exposure;
+        if (type == Position.PAWN) v += weights[W_PAWN_ADVANCE] * (white ? (h - 1 - r) : r) * ONE;
+        return v;
+    }
+
+    // feature counterpart of squareValue: adds sign * d(squareValue)/d(weight[i]) to f[i]
+    private static void addSquareFeatures(Position pos, int type, boolean white, int sq, int exposure, int sign, int[] f) {
+        int w = pos.getWidth(), h = pos.getHeight(), r = sq / w, c = sq % w;
+        if (type == Position.KING) {
+            f[W_KING_EXPOSURE] -= sign * exposure;
+            return;
+        }
+        int centerDist = Math.abs(r - h / 2) + Math.abs(c - w / 2);
+        f[W_PAWN + type - Position.PAWN] += sign * ONE;
+        f[W_CENTRE] += sign * (14 - centerDist) * ONE;
+        f[W_EXPOSURE] -= sign * exposure;
+        if (type == Position.PAWN) f[W_PAWN_ADVANCE] += sign * (white ? (h - 1 - r) : r) * ONE;
+    }
+
+    private int exposureWeight(int type) {
+        return type == Position.KING ? weights[W_KING_EXPOSURE] : weights[W_EXPOSURE];
+    }
+
+    private static int neighbourRisk(Position pos, int[] riskFixed, int sq) {
+        int w = pos.getWidth(), h = pos.getHeight(), r = sq / w, c = sq % w;
+        int sum = 0;
+        for (int dr = -1; dr <= 1; dr++) for (int dc = -1; dc <= 1; dc++) {
+            int nr = r + dr, nc = c + dc;
+            if ((dr == 0 && dc == 0) || nr < 0 || nr >= h || nc < 0 || nc >= w) continue;
+            sum += riskFixed[nr * w + nc];
+        }
+        return sum;
+    }
+
+    /** O(1) table read plus the frontier correction. Requires attach(pos). */
+    public int evaluate(Position pos) {
+        int fixed = pos.getPsqt() + frontierCorrection(pos);
+        return finish(pos, fixed);
+    }
+
+    // exposure given back to pieces next to cells that were hidden at the root but are not any more
+    private int frontierCorrection(Position pos) {
+        int[] riskFixed = pos.getRiskTable();
+        int w = pos.getWidth(), h = pos.getHeight();
+        int corr = 0;
+        for (int i = 0, n = pos.getVisitedCount(); i < n; i++) {
+            int v = pos.getVisited(i);
+            int risk = riskFixed[v];
+            if (risk == 0) continue;
+            int r = v / w, c = v % w;
+            for (int dr = -1; dr <= 1; dr++) for (int dc = -1; dc <= 1; dc++) {
+                int nr = r + dr, nc = c + dc;
+                if ((dr == 0 && dc == 0) || nr < 0 || nr >= h || nc < 0 || nc >= w) continue;
+                int p = pos.pieceAt(nr * w + nc);
+                if (p == Position.EMPTY) continue;
+                int give = exposureWeight(Position.type(p)) * risk;
+                corr += Position.isWhite(p) ? give : -give;
+            }
+        }
+        return corr;
+    }
+
+    /** Same result as evaluate(), recomputed from the board (used to verify the incremental sums). */
+    public int evaluateFromScratch(Position pos) {
+        int[] riskFixed = pos.getRiskTable();
+        int[] current = new int[pos.size()];
+        for (int sq = 0; sq < pos.size(); sq++) current[sq] = pos.isHidden(sq) ? riskFixed[sq] : 0;
+        int fixed = 0;
+        for (int sq = 0; sq < pos.size(); sq++) {
+            int p = pos.pieceAt(sq);
+            if (p == Position.EMPTY) continue;
+            int v = squareValue(pos, Position.type(p), Position.isWhite(p), sq, neighbourRisk(pos, current, sq));
+            fixed += Position.isWhite(p) ? v : -v;
+        }
+        return finish(pos, fixed);
+    }
+
+    /**
+     * Fills f[0..PARAM_COUNT) with the white-minus-black feature sums of pos (current hidden cells),
+     * so that evaluateFromScratch(pos) == side * ((sum of weight[i] * f[i]) >> SHIFT) - penalties.
+     * Requires attach(pos) for the root risk table.
+     */
+    public static void features(Position pos, int[] f) {
+        java.util.Arrays.fill(f, 0, PARAM_COUNT, 0);
+        int[] riskFixed = pos.getRiskTable();
+        int[] current = new int[pos.size()];
+        for (int sq = 0; sq < pos.size(); sq++) current[sq] = pos.isHidden(sq) ? riskFixed[sq] : 0;
+        for (int sq = 0; sq < pos.size(); sq++) {
+            int p = pos.pieceAt(sq);
+            if (p == Position.EMPTY) continue;
+            boolean white = Position.isWhite(p);
+            addSquareFeatures(pos, Position.type(p), white, sq, neighbourRisk(pos, current, sq), white ? 1 : -1, f);
+        }
+    }
+
+    /** White-point-of-view eval of a feature vector (penalties excluded), the tuner's inner loop. */
+    public static int dot(int[] weights, int[] f) {
+        long sum = 0;
+        for (int i = 0; i < PARAM_COUNT; i++) sum += (long) weights[i] * f[i];
+        return (int) (sum >> SHIFT);
+    }
+
+    private static int finish(Position pos, int fixed) {
+        int score = (fixed >> SHIFT) - pos.getPenalty(true) + pos.getPenalty(false);
+        return pos.isWhiteToMove() ? score : -score;
+    }
+}
@@ -0,0 +1,377 @@
+package com.hazardchess.ai;
+
+import java.util.Arrays;
+import java.util.random.RandomGenerator;
+
+/**
+ * Exact, uniform HazardSampler.
+ * - the frontier (hidden cells next to a revealed number) is split into independent components;
+ *   every consistent assignment of each component is enumerated once, with the number constraints
+ *   checked as bitCount(assignment & mask) over a 64-bit mask per component
+ * - solutions are grouped by hazard count k; components are combined by a DP over k, and the
+ *   cells off the frontier weight each total K by C(U, B - K) (U free cells, B hazards left)
+ * - the analysis is cached for the last position seen (compared cell by cell), so repeated
+ *   samples of one root are allocation-free: pick K, then k per component, then one solution,
+ *   then B - K free cells by a partial shuffle
+ * Components over 64 cells or with too many solutions fall back to BacktrackingSampler.
+ */
+public final class FrontierSampler implements HazardSampler {
+    private static final int MAX_SOLUTIONS = 1 << 16;
+    private static final int MAX_ENUMERATION_STEPS = 1 << 22;
+
+    private final BacktrackingSampler fallback = new BacktrackingSampler();
+
+    // cache key: the public part of the last analysed position
+    private int size = -1;
+    private byte[] keyState = new byte[0];
+    private byte[] keyAdj = new byte[0];
+    private int keyTotal = -1;
+    private boolean useFallback;
+
+    // analysis
+    private int[] parent = new int[0];           // union-find over squares
+    private int[] need = new int[0];             // per number cell: hazards still missing around it
+    private int[] known = new int[0];            // exploded squares (always hazards)
+    private int knownCount;
+    private int[] free = new int[0];             // hidden squares off the frontier
+    private int freeCount;
+    private int[] scratchFree = new int[0];
+    private int hazardsLeft;                     // B
+
+    private int components;
+    private int[] compStart = new int[0];        // into compCells
+    private int[] compLen = new int[0];
+    private int[] compCells = new int[0];
+    private int[] compSolStart = new int[0];     // into solutions, grouped by k
+    private int[] kStart = new int[0];           // per component: offsets of each k bucket, (len + 2) entries
+    private int[] kStartBase = new int[0];
+    private long[] solutions = new long[1024];
+    private int solutionCount;
+    private double[] dp = new double[0];         // dp[i * (frontier + 1) + k]: weighted ways, components [0, i)
+    private double[] totals = new double[0];     // per K: dp[components][K] * C(U, B - K)
+    private int frontier;
+
+    // per-component enumeration buffers
+    private final long[] consMask = new long[64 * 8];
+    private final int[] consNeed = new int[64 * 8];
+    private int consCount;
+    private final int[] cellCons = new int[64 * 8];
+    private final int[] cellConsCount = new int[65];
+    private long[] found = new long[1024];
+    private int foundCount;
+    private int steps;
+
+    @Override
+    public boolean sample(Position pos, boolean[] layout, RandomGenerator rnd) {
+        if (!sameKey(pos)) analyse(pos);
+        if (useFallback) return fallback.sample(pos, layout, rnd);
+        if (components < 0) return false;   // no consistent layout
+
+        Arrays.fill(layout, 0, size, false);
+        for (int i = 0; i < knownCount; i++) layout[known[i]] = true;
+
+        // total number of frontier hazards, K
+        double total = 0;
+        for (int k = 0; k <= frontier; k++) total += totals[k];
+        double u = rnd.nextDouble() * total;
+        int kTotal = -1;
+        for (int k = 0; k <= frontier; k++) {
+            if (totals[k] == 0) continue;
+            kTotal = k;
+            u -= totals[k];
+            if (u < 0) break;
+        }
+
+        // hazards per component, last to first
+        int row = frontier + 1;
+        int kLeft = kTotal;
+        for (int i = components - 1; i >= 0; i--) {
+            int base = kStartBase[i], len = compLen[i];
+            int maxK = Math.min(len, kLeft);
+            double weight = 0;
+            for (int k = 0; k <= maxK; k++) {
+                weight += (kStart[base + k + 1] - kStart[base + k]) * dp[i * row + kLeft - k];
+            }
+            double v = rnd.nextDouble() * weight;
+            int k = -1;
+            for (int j = 0; j <= maxK; j++) {
+                double wj = (kStart[base + j + 1] - kStart[base + j]) * dp[i * row + kLeft - j];
+                if (wj == 0) continue;
+                k = j;
+                v -= wj;
+                if (v < 0) break;
+            }
+            int lo = kStart[base + k], n = kStart[base + k + 1] - lo;
+            long bits = solutions[compSolStart[i] + lo + rnd.nextInt(n)];
+            int start = compStart[i];
+            while (bits != 0) {
+                layout[compCells[start + Long.numberOfTrailingZeros(bits)]] = true;
+                bits &= bits - 1;
+            }
+            kLeft -= k;
+        }
+
+        // the rest uniformly over the free cells
+        int rest = hazardsLeft - kTotal;
+        System.arraycopy(free, 0, scratchFree, 0, freeCount);
+        for (int i = 0; i < rest; i++) {
+            int j = i + rnd.nextInt(freeCount - i);
+            int t = scratchFree[i]; scratchFree[i] = scratchFree[j]; scratchFree[j] = t;
+            layout[scratchFree[i]] = true;
+        }
+        return true;
+    }
+
+    private boolean sameKey(Position pos) {
+        if (pos.size() != size || pos.getHazardTotal() != keyTotal) return false;
+        for (int sq = 0; sq < size; sq++) {
+            if (keyState[sq] != publicState(pos, sq) || keyAdj[sq] != pos.numberAt(sq)) return false;
+        }
+        return true;
+    }
+
+    private static byte publicState(Position pos, int sq) {
+        return (byte) (pos.stateAt(sq) & (Position.REVEALED | Position.EXPLODED));
+    }
+
+    private static boolean isHidden(Position pos, int sq) {
+        return (pos.stateAt(sq) & (Position.REVEALED | Position.EXPLODED)) == 0;
+    }
+
+    private static boolean isNumber(Position pos, int sq) {
+        return (pos.stateAt(sq) & (Position.REVEALED | Position.EXPLODED)) == Position.REVEALED;
+    }
+
+    // ---------------- analysis (once per distinct position) ----------------
+    private void analyse(Position pos) {
+        int w = pos.getWidth(), h = pos.getHeight();
+        if (pos.size() != size) {
+            size = pos.size();
+            keyState = new byte[size];
+            keyAdj = new byte[size];
+            parent = new int[size];
+            need = new int[size];
+            known = new int[size];
+            free = new int[size];
+            scratchFree = new int[size];
+            compCells = new int[size];
+            compStart = new int[size];
+            compLen = new int[size];
+            compSolStart = new int[size];
+            kStartBase = new int[size];
+            kStart = new int[size * 2 + 2];
+            totals = new double[size + 1];
+        }
+        for (int sq = 0; sq < size; sq++) {
+            keyState[sq] = publicState(pos, sq);
+            keyAdj[sq] = (byte) pos.numberAt(sq);
+        }
+        keyTotal = pos.getHazardTotal();
+        useFallback = false;
+
+        // known hazards, remaining need of every number, frontier components
+        knownCount = 0;
+        for (int sq = 0; sq < size; sq++) {
+            parent[sq] = -1;
+            if ((pos.stateAt(sq) & Position.EXPLODED) != 0) known[knownCount++] = sq;
+        }
+        for (int sq = 0; sq < size; sq++) {
+            if (!isNumber(pos, sq)) continue;
+            int r = sq / w, c = sq % w, n = pos.numberAt(sq), first = -1;
+            for (int dr = -1; dr <= 1; dr++) for (int dc = -1; dc <= 1; dc++) {
+                int nr = r + dr, nc = c + dc;
+                if ((dr == 0 && dc == 0) || nr < 0 || nr >= h || nc < 0 || nc >= w) continue;
+                int nb = nr * w + nc;
+                if ((pos.stateAt(nb) & Position.EXPLODED) != 0) n--;
+                else if (isHidden(pos, nb)) {
+                    if (parent[nb] < 0) parent[nb] = nb;
+                    if (first < 0) first = nb;
+                    else union(first, nb);
+                }
+            }
+            need[sq] = n;
+            if (n < 0 || (first < 0 && n != 0)) {
+                components = -1;
+                return;
+            }
+        }
+        hazardsLeft = keyTotal - knownCount;
+
+        freeCount = 0;
+        frontier = 0;
+        components = 0;
+        int[] compOf = scratchFree;   // root square -> component, reused before sampling needs it
+        Arrays.fill(compOf, 0, size, -1);
+        int cells = 0;
+        for (int sq = 0; sq < size; sq++) {
+            if (!isHidden(pos, sq)) continue;
+            if (parent[sq] < 0) {
+                free[freeCount++] = sq;
+                continue;
+            }
+            int root = find(sq);
+            if (compOf[root] < 0) compOf[root] = components++;
+        }
+        for (int i = 0; i < components; i++) compLen[i] = 0;
+        for (int sq = 0; sq < size; sq++) {
+            if (isHidden(pos, sq) && parent[sq] >= 0) compLen[compOf[find(sq)]]++;
+        }
+        for (int i = 0; i < components; i++) {
+            if (compLen[i] > 64) {
+                useFallback = true;
+                return;
+            }
+            compStart[i] = cells;
+            cells += compLen[i];
+            compLen[i] = 0;
+        }
+        for (int sq = 0; sq < size; sq++) {
+            if (!isHidden(pos, sq) || parent[sq] < 0) continue;
+            int i = compOf[find(sq)];
+            compCells[compStart[i] + compLen[i]++] = sq;
+        }
+        frontier = cells;
+
+        // enumerate every component
+        solutionCount = 0;
+        int kOffset = 0;
+        for (int i = 0; i < components; i++) {
+            if (!enumerate(pos, i, w, h)) {
+                useFallback = true;
+                return;
+            }
+            // counting sort of the solutions by hazard count
+            int len = compLen[i];
+            kStartBase[i] = kOffset;
+            if (kStart.length < kOffset + len + 2) kStart = Arrays.copyOf(kStart, (kOffset + len + 2) * 2);
+            Arrays.fill(kStart, kOffset, kOffset + len + 2, 0);
+            for (int s = 0; s < foundCount; s++) kStart[kOffset + Long.bitCount(found[s]) + 1]++;
+            for (int k = 0; k <= len; k++) kStart[kOffset + k + 1] += kStart[kOffset + k];
+            if (solutions.length < solutionCount + foundCount) {
+                solutions = Arrays.copyOf(solutions, Math.max(solutions.length * 2, solutionCount + foundCount));
+            }
+            compSolStart[i] = solutionCount;
+            int[] fill = cellConsCount;   // cursor per k, len <= 64
+            for (int k = 0; k <= len; k++) fill[k] = kStart[kOffset + k];
+            for (int s = 0; s < foundCount; s++) {
+                int k = Long.bitCount(found[s]);
+                solutions[solutionCount + fill[k]++] = found[s];
+            }
+            solutionCount += foundCount;
+            kOffset += len + 2;
+        }
+
+        // dp over components, then the free-cell weight of every total
+        int row = frontier + 1;
+        if (dp.length < (components + 1) * row) dp = new double[(components + 1) * row];
+        Arrays.fill(dp, 0, (components + 1) * row, 0.0);
+        dp[0] = 1.0;
+        for (int i = 0; i < components; i++) {
+            int base = kStartBase[i];
+            for (int k0 = 0; k0 < row; k0++) {
+                double ways = dp[i * row + k0];
+                if (ways == 0) continue;
+                for (int k = 0; k <= compLen[i] && k0 + k < row; k++) {
+                    int n = kStart[base + k + 1] - kStart[base + k];
+                    if (n > 0) dp[(i + 1) * row + k0 + k] += ways * n;
+                }
+            }
+        }
+        if (totals.length < row) totals = new double[row];
+        boolean any = false;
+        for (int k = 0; k < row; k++) {
+            int rest = hazardsLeft - k;
+            totals[k] = rest < 0 || rest > freeCount ? 0.0 : dp[components * row + k] * binomial(freeCount, rest);
+            if (totals[k] > 0) any = true;
+        }
+        if (!any) components = -1;
+    }
+
+    /** Collects every consistent assignment of component i into found[0..foundCount). */
+    private boolean enumerate(Position pos, int i, int w, int h) {
+        int start = compStart[i], len = compLen[i];
+        // constraints: one mask over the component's cells per number cell touching it
+        consCount = 0;
+        Arrays.fill(cellConsCount, 0, len, 0);
+        for (int b = 0; b < len; b++) {
+            int sq = compCells[start + b], r = sq / w, c = sq % w;
+            for (int dr = -1; dr <= 1; dr++) for (int dc = -1; dc <= 1; dc++) {
+                int nr = r + dr, nc = c + dc;
+                if ((dr == 0 && dc == 0) || nr < 0 || nr >= h || nc < 0 || nc >= w) continue;
+                int num = nr * w + nc;
+                if (!isNumber(pos, num)) continue;
+                int ci = constraintOf(num, i, w, h);
+                cellCons[b * 8 + cellConsCount[b]++] = ci;
+            }
+        }
+        foundCount = 0;
+        steps = 0;
+        return search(0, len, 0L);
+    }
+
+    // index of the constraint for number cell num, created on first use
+    private int constraintOf(int num, int comp, int w, int h) {
+        int start = compStart[comp], len = compLen[comp];
+        long mask = 0;
+        int r = num / w, c = num % w;
+        for (int b = 0; b < len; b++) {
+            int sq = compCells[start + b];
+            if (Math.abs(sq / w - r) <= 1 && Math.abs(sq % w - c) <= 1) mask |= 1L << b;
+        }
+        for (int k = 0; k < consCount; k++) {
+            if (consMask[k] == mask && consNeed[k] == need[num]) return k;
+        }
+        consMask[consCount] = mask;
+        consNeed[consCount] = need[num];
+        return consCount++;
+    }
+
+    private boolean search(int bit, int len, long assignment) {
+        if (++steps > MAX_ENUMERATION_STEPS) return false;
+        if (bit == len) {
+            if (foundCount == MAX_SOLUTIONS) return false;
+            if (foundCount == found.length) found = Arrays.copyOf(found, foundCount * 2);
+            found[foundCount++] = assignment;
+            return true;
+        }
+        long decided = bit == 63 ? -1L : (1L << (bit + 1)) - 1;
+        for (int v = 0; v <= 1; v++) {
+            long a = v == 0 ? assignment : assignment | (1L << bit);
+            if (fits(bit, a, decided) && !search(bit + 1, len, a)) return false;
+        }
+        return true;
+    }
+
+    // every constraint on this cell: placed <= need <= placed + still undecided
+    private boolean fits(int bit, long assignment, long decided) {
+        for (int j = 0; j < cellConsCount[bit]; j++) {
+            int ci = cellCons[bit * 8 + j];
+            long m = consMask[ci];
+            int placed = Long.bitCount(assignment & m);
+            int open = Long.bitCount(m & ~decided);
+            if (placed > consNeed[ci] || placed + open < consNeed[ci]) return false;
+        }
+        return true;
+    }
+
+    private int find(int x) {
+        while (parent[x] != x) {
+            parent[x] = parent[parent[x]];
+            x = parent[x];
+        }
+        return x;
+    }
+
+    private void union(int a, int b) {
+        int ra = find(a), rb = find(b);
+        if (ra != rb) parent[ra] = rb;
+    }
+
+    private static double binomial(int n, int k) {
+        if (k < 0 || k > n) return 0.0;
+        k = Math.min(k, n - k);
+        double r = 1.0;
+        for (int i = 1; i <= k; i++) r = r * (n - k + i) / i;
+        return r;
+    }
+}
@@ -0,0 +1,14 @@
+package com.hazardchess.ai;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * Draws hazard layouts that agree with everything a Position shows:
+ * exploded cells are hazards, other revealed cells are safe, every revealed number matches,
+ * and the total equals Position.getHazardTotal().
+ * Implementations keep per-instance buffers: use one instance per thread.
+ */
+public interface HazardSampler {
+    /** Fills layout[0..pos.size()) (true = hazard); false if no consistent layout was found. */
+    boolean sample(Position pos, boolean[] layout, RandomGenerator rnd);
+}
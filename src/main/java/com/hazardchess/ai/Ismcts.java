@@ -0,0 +1,260 @@
+package com.hazardchess.ai;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Single-observer information-set MCTS.
+ * - every iteration samples a hazard layout consistent with the board (HazardSampler) and plays
+ *   on a determinized copy of the position, so hazards explode for real inside the tree
+ * - selection: UCB1 with availability counts (a child only competes in the iterations where it was legal)
+ * - one shared tree, several worker threads; virtual loss keeps them off the same line
+ * - rollouts: random moves with a capture preference, scored by a material sigmoid when cut off
+ * - the most visited root move is played
+ */
+public final class Ismcts implements Engine {
+    private static final double EXPLORATION = 0.7;
+    private static final int VIRTUAL_LOSS = 3;
+    private static final int MAX_TREE_DEPTH = 32;
+    private static final int ROLLOUT_PLIES = 8;
+    /** Probability that a rollout move is a capture when one exists. */
+    private static final double CAPTURE_BIAS = 0.6;
+    /** Material difference that maps to ~91% win chance (logistic, base 10). */
+    private static final double MATERIAL_SCALE = 400.0;
+    private static final int CHECK_EVERY = 64;
+
+    private final int threads;
+    private final long budgetNanos;
+    private final long maxIterations;
+    private final Supplier<HazardSampler> samplerFactory;
+
+    public Ismcts(int threads, long budgetNanos) {
+        this(threads, budgetNanos, Long.MAX_VALUE, FrontierSampler::new);
+    }
+
+    /**
+     * @param threads       worker threads sharing the tree (the calling thread is one of them)
+     * @param maxIterations playout cap (deterministic effort for tests and tournaments), MAX_VALUE = time only
+     */
+    public Ismcts(int threads, long budgetNanos, long maxIterations, Supplier<HazardSampler> samplerFactory) {
+        this.threads = Math.max(1, threads);
+        this.budgetNanos = budgetNanos;
+        this.maxIterations = maxIterations;
+        this.samplerFactory = samplerFactory;
+    }
+
+    /** Tree node; the statistics of a node are guarded by its parent's monitor. */
+    private static final class Node {
+        final int move;
+        final boolean whiteMoved;           // side that played move (rewards are from its point of view)
+        final List<Node> children = new ArrayList<>();
+        int visits;
+        int availability;
+        double wins;
+
+        Node(int move, boolean whiteMoved) {
+            this.move = move;
+            this.whiteMoved = whiteMoved;
+        }
+
+        Node child(int move) {
+            for (int i = 0; i < children.size(); i++) {
+                Node n = children.get(i);
+                if (n.move == move) return n;
+            }
+            return null;
+        }
+    }
+
+    @Override
+    public int bestMove(Position root, SearchStats stats) {
+        SearchStats total = stats != null ? stats : new SearchStats();
+        int[] rootMoves = new int[Position.MAX_MOVES];
+        int count = root.generateMoves(rootMoves, false);
+        total.countNode();
+        total.setRootMoves(count);
+        if (count == 0) return Move.NONE;
+        if (count == 1) return rootMoves[0];
+
+        Node tree = new Node(Move.NONE, !root.isWhiteToMove());
+        long deadline = System.nanoTime() + budgetNanos;
+        AtomicLong iterations = new AtomicLong();
+        Worker[] workers = new Worker[threads];
+        Thread[] started = new Thread[threads - 1];
+        long seed = System.nanoTime();
+        for (int t = 0; t < threads; t++) {
+            workers[t] = new Worker(root, tree, deadline, iterations, seed + t * 0x9E3779B97F4A7C15L);
+        }
+        for (int t = 1; t < threads; t++) {
+            started[t - 1] = Thread.ofPlatform().daemon().name("ismcts-" + t).start(workers[t]);
+        }
+        workers[0].run();
+        for (Thread th : started) {
+            try {
+                th.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        for (Worker w : workers) total.add(w.stats);
+
+        Node best = null;
+        synchronized (tree) {
+            for (Node n : tree.children) {
+                if (best == null || n.visits > best.visits) best = n;
+            }
+            if (best == null || best.visits == 0) return rootMoves[0];
+            total.setScore(winRateToScore(best.wins / best.visits));
+        }
+        return best.move;
+    }
+
+    // win rate back to a material-like score, the inverse of the rollout sigmoid
+    private static double winRateToScore(double p) {
+        p = Math.min(0.999, Math.max(0.001, p));
+        return -MATERIAL_SCALE * Math.log10(1.0 / p - 1.0);
+    }
+
+    private final class Worker implements Runnable {
+        final Position root;
+        final Node tree;
+        final long deadline;
+        final AtomicLong iterations;
+        final SplittableRandom rnd;
+        final HazardSampler sampler = samplerFactory.get();
+        final SearchStats stats = new SearchStats();
+        final Position scratch;
+        final boolean[] layout;
+        final int[] moves = new int[Position.MAX_MOVES];
+        final Node[] path = new Node[MAX_TREE_DEPTH + 1];
+
+        Worker(Position root, Node tree, long deadline, AtomicLong iterations, long seed) {
+            this.root = root;
+            this.tree = tree;
+            this.deadline = deadline;
+            this.iterations = iterations;
+            this.rnd = new SplittableRandom(seed);
+            this.scratch = root.copy();
+            this.layout = new boolean[root.size()];
+        }
+
+        @Override
+        public void run() {
+            for (long i = 0; ; i++) {
+                if (iterations.getAndIncrement() >= maxIterations) return;
+                if ((i % CHECK_EVERY) == 0 && System.nanoTime() > deadline) return;
+                if (Thread.currentThread().isInterrupted()) return;
+                if (!sampler.sample(root, layout, rnd)) continue;
+                scratch.copyFrom(root);
+                scratch.determinize(layout);
+                iterate();
+            }
+        }
+
+        private void iterate() {
+            Position pos = scratch;
+            Node node = tree;
+            int depth = 0;
+            path[0] = tree;
+
+            // selection / expansion
+            while (!pos.isTerminal() && depth < MAX_TREE_DEPTH) {
+                int count = pos.generateMoves(moves, false);
+                if (count == 0) break;
+                stats.countNode();
+                Node next;
+                boolean expanded = false;
+                synchronized (node) {
+                    next = null;
+                    int unexplored = 0;
+                    for (int i = 0; i < count; i++) {
+                        Node c = node.child(moves[i]);
+                        if (c == null) moves[unexplored++] = moves[i];
+                        else c.availability++;
+                    }
+                    if (unexplored > 0) {
+                        next = new Node(moves[rnd.nextInt(unexplored)], pos.isWhiteToMove());
+                        next.availability = 1;
+                        node.children.add(next);
+                        expanded = true;
+                        stats.countExpansion(count);
+                    } else {
+                        next = select(node, count);
+                    }
+                    next.visits += VIRTUAL_LOSS;
+                }
+                pos.make(next.move);
+                path[++depth] = next;
+                node = next;
+                if (expanded) break;
+            }
+            stats.reachedDepth(depth);
+
+            double whiteScore = rollout(pos);
+
+            // backpropagation: remove the virtual loss, add the real result
+            for (int d = depth; d >= 1; d--) {
+                Node n = path[d];
+                synchronized (path[d - 1]) {
+                    n.visits += 1 - VIRTUAL_LOSS;
+                    n.wins += n.whiteMoved ? whiteScore : 1.0 - whiteScore;
+                }
+            }
+        }
+
+        // UCB1 over the children legal in this determinization (their availability was just bumped)
+        private Node select(Node node, int count) {
+            Node best = null;
+            double bestValue = Double.NEGATIVE_INFINITY;
+            for (int i = 0; i < count; i++) {
+                Node c = node.child(moves[i]);
+                double value = c.visits == 0 ? Double.MAX_VALUE
+                        : c.wins / c.visits + EXPLORATION * Math.sqrt(Math.log(c.availability) / c.visits);
+                if (value > bestValue) {
+                    bestValue = value;
+                    best = c;
+                }
+            }
+            return best;
+        }
+
+        /** Plays random moves from pos; returns the result for white in [0, 1]. */
+        private double rollout(Position pos) {
+            int limit = Math.min(ROLLOUT_PLIES, Position.MAX_PLY - 1 - pos.getPly());
+            for (int p = 0; p < limit && !pos.isTerminal(); p++) {
+                int count = pos.generateMoves(moves, false);
+                if (count == 0) break;
+                stats.countQuiescenceNode();
+                pos.make(pickRolloutMove(count));
+            }
+            if (pos.isTerminal()) return pos.getWinner() == 1 ? 1.0 : 0.0;
+            int material = 0;
+            for (int sq = 0; sq < pos.size(); sq++) {
+                int pc = pos.pieceAt(sq);
+                if (pc == Position.EMPTY) continue;
+                material += Position.isWhite(pc) ? Position.lossValue(pc) : -Position.lossValue(pc);
+            }
+            return 1.0 / (1.0 + Math.pow(10.0, -material / MATERIAL_SCALE));
+        }
+
+        private int pickRolloutMove(int count) {
+            if (rnd.nextDouble() < CAPTURE_BIAS) {
+                int captures = 0;
+                for (int i = 0; i < count; i++) {
+                    if (Move.isCapture(moves[i])) captures++;
+                }
+                if (captures > 0) {
+                    int k = rnd.nextInt(captures);
+                    for (int i = 0; i < count; i++) {
+                        if (Move.isCapture(moves[i]) && k-- == 0) return moves[i];
+                    }
+                }
+            }
+            return moves[rnd.nextInt(count)];
+        }
+    }
+}
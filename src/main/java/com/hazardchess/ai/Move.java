@@ -0,0 +1,39 @@
+package com.hazardchess.ai;
+
+/**
+ * Int-encoded moves for the search (no objects in move buffers).
+ * - bits 0..9   from square (sq = row * width + col)
+ * - bits 10..19 to square
+ * - bit 20      capture
+ * - bit 21      chord (quick reveal on the number cell at from == to)
+ * 0 is never a valid move and is used as "no move".
+ */
+public final class Move {
+    public static final int NONE = 0;
+
+    private static final int SQ_MASK = 0x3FF;
+    private static final int TO_SHIFT = 10;
+    public static final int CAPTURE = 1 << 20;
+    public static final int CHORD = 1 << 21;
+    // keeps a chord on square 0 (from == to == 0) distinguishable from NONE
+    private static final int VALID = 1 << 22;
+
+    private Move() {}
+
+    public static int of(int from, int to) { return VALID | from | (to << TO_SHIFT); }
+    public static int capture(int from, int to) { return of(from, to) | CAPTURE; }
+    public static int chord(int sq) { return of(sq, sq) | CHORD; }
+
+    public static int from(int move) { return move & SQ_MASK; }
+    public static int to(int move) { return (move >>> TO_SHIFT) & SQ_MASK; }
+    public static boolean isCapture(int move) { return (move & CAPTURE) != 0; }
+    public static boolean isChord(int move) { return (move & CHORD) != 0; }
+    public static boolean isQuiet(int move) { return (move & (CAPTURE | CHORD)) == 0; }
+
+    public static String toString(int move, int width) {
+        if (move == NONE) return "none";
+        int f = from(move), t = to(move);
+        if (isChord(move)) return "chord@" + f / width + "," + f % width;
+        return f / width + "," + f % width + (isCapture(move) ? "x" : "-") + t / width + "," + t % width;
+    }
+}
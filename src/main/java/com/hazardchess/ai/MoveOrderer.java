@@ -0,0 +1,119 @@
+package com.hazardchess.ai;
+
+/**
+ * Move ordering for the alpha-beta search, working in place on int move buffers.
+ * Rank (high to low):
+ * - pv / hash move from the previous iteration
+ * - captures, MVV-LVA on the pieceValue table (captures onto hidden cells after safe ones)
+ * - killer moves of this ply (2 slots)
+ * - quiet moves onto known-safe cells, by butterfly history
+ * - quiet moves / chords that touch hidden cells, by history minus risk
+ */
+public final class MoveOrderer {
+    private static final int PV_SCORE = 1 << 30;
+    private static final int CAPTURE_SCORE = 1 << 26;
+    private static final int KILLER_SCORE = 1 << 25;
+    private static final int SAFE_SCORE = 1 << 24;
+    private static final int HISTORY_MAX = 1 << 20;
+
+    private final int squares;
+    private final int[][] killers = new int[Position.MAX_PLY][2];
+    private final int[] history;   // butterfly table [from * squares + to]
+
+    public MoveOrderer(int squares) {
+        this.squares = squares;
+        this.history = new int[squares * squares];
+    }
+
+    public int squares() { return squares; }
+
+    public void clear() {
+        for (int[] k : killers) { k[0] = Move.NONE; k[1] = Move.NONE; }
+        java.util.Arrays.fill(history, 0);
+    }
+
+    /** Fills scores[0..count) for moves[0..count). */
+    public void score(Position pos, int[] moves, int[] scores, int count, int ply, int pvMove) {
+        int k0 = killers[ply][0], k1 = killers[ply][1];
+        for (int i = 0; i < count; i++) {
+            int m = moves[i];
+            int from = Move.from(m), to = Move.to(m);
+            int s;
+            if (m == pvMove) {
+                s = PV_SCORE;
+            } else if (Move.isCapture(m)) {
+                int victim = Position.pieceValue(pos.pieceAt(to));
+                int attacker = Position.pieceValue(pos.pieceAt(from));
+                s = CAPTURE_SCORE + victim * 1024 - attacker;
+                if (pos.isHidden(to)) s -= 512 * 1024;
+            } else if (m == k0 || m == k1) {
+                s = KILLER_SCORE + (m == k0 ? 1 : 0);
+            } else if (Move.isChord(m)) {
+                s = -chordRisk(pos, from);
+            } else if (!pos.isHidden(to)) {
+                s = SAFE_SCORE + history[from * squares + to];
+            } else {
+                s = history[from * squares + to] - (int) (pos.risk(to) * HISTORY_MAX);
+            }
+            scores[i] = s;
+        }
+    }
+
+    // sum of neighbour risks scaled like history so chords sort among risky quiets
+    private int chordRisk(Position pos, int sq) {
+        int w = pos.getWidth(), r = sq / w, c = sq % w;
+        double sum = 0;
+        for (int dr = -1; dr <= 1; dr++) for (int dc = -1; dc <= 1; dc++) {
+            if (dr == 0 && dc == 0) continue;
+            int nr = r + dr, nc = c + dc;
+            if (nr < 0 || nr >= pos.getHeight() || nc < 0 || nc >= w) continue;
+            int n = nr * w + nc;
+            if ((pos.stateAt(n) & Position.FLAGGED) == 0 && pos.isHidden(n)) sum += pos.risk(n);
+        }
+        return (int) (Math.min(1.0, sum) * HISTORY_MAX);
+    }
+
+    /**
+     * Selection step: swaps the best remaining move into slot i and returns it.
+     * Cheaper than a full sort when a cut-off comes early.
+     */
+    public static int pickNext(int[] moves, int[] scores, int i, int count) {
+        int best = i;
+        for (int j = i + 1; j < count; j++) if (scores[j] > scores[best]) best = j;
+        if (best != i) {
+            int m = moves[i]; moves[i] = moves[best]; moves[best] = m;
+            int s = scores[i]; scores[i] = scores[best]; scores[best] = s;
+        }
+        return moves[i];
+    }
+
+    /** Full in-place insertion sort, best first (move lists are short). */
+    public static void sort(int[] moves, int[] scores, int count) {
+        for (int i = 1; i < count; i++) {
+            int m = moves[i], s = scores[i];
+            int j = i - 1;
+            while (j >= 0 && scores[j] < s) {
+                moves[j + 1] = moves[j];
+                scores[j + 1] = scores[j];
+                j--;
+            }
+            moves[j + 1] = m;
+            scores[j + 1] = s;
+        }
+    }
+
+    /** A quiet move caused a beta cut-off: remember it as killer and reward it in the history table. */
+    public void recordCutoff(int move, int ply, int depth) {
+        if (!Move.isQuiet(move)) return;
+        int[] k = killers[ply];
+        if (k[0] != move) {
+            k[1] = k[0];
+            k[0] = move;
+        }
+        int idx = Move.from(move) * squares + Move.to(move);
+        history[idx] += depth * depth;
+        if (history[idx] >= HISTORY_MAX) {
+            for (int i = 0; i < history.length; i++) history[i] >>= 1;
+        }
+    }
+}
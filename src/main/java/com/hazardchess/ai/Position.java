@@ -0,0 +1,612 @@
+package com.hazardchess.ai;
+
+import com.hazardchess.game.Board;
+import com.hazardchess.game.BoardView;
+import com.hazardchess.pieces.Piece;
+
+/**
+ * Primitive copy of a Board for the AI search.
+ * - squares are indexed sq = row * width + col
+ * - pieces: 0 = empty, PAWN..KING for white, same + BLACK for black
+ * - make()/unmake() journal every square they touch, so undo is exact and allocation-free
+ * - hidden cells are never resolved: stepping on one (or chording next to one) charges the
+ *   expected loss (risk * value of the piece) to its owner instead of branching on the explosion
+ * - determinize() installs a concrete hazard layout (sampled, for ISMCTS); from then on make()
+ *   resolves reveals, flood fills and explosions exactly like Board does
+ * - move rules mirror the Piece.canMove implementations, quick reveal mirrors Board.checkQuickReveal
+ * - once attached to an Evaluator, the piece-square sum is kept up to date on make/unmake
+ */
+public final class Position {
+    public static final int EMPTY = 0, PAWN = 1, KNIGHT = 2, BISHOP = 3, ROOK = 4, QUEEN = 5, KING = 6;
+    public static final int BLACK = 8;
+
+    // cell state bits
+    public static final int REVEALED = 1, EXPLODED = 2, FLAGGED = 4;
+    /** Hidden cell a piece stepped on (or a chord opened) during the search: assumed safe from then on. */
+    public static final int VISITED = 8;
+    /** Hazard of the installed layout (determinized positions only). */
+    public static final int HAZARD = 16;
+    /** Hidden cells settled by Minesweeper logic (Board.isProvenSafe / isProvenHazard). */
+    public static final int PROVEN_SAFE = 32, PROVEN_HAZARD = 64;
+
+    /** Expected-loss value of the king when it stands on a possible hazard. */
+    public static final int KING_LOSS = 2000;
+
+    public static final int MAX_PLY = 128;
+    public static final int MAX_MOVES = 256;
+
+    private static final int[] KNIGHT_DR = {-2, -2, -1, -1, 1, 1, 2, 2};
+    private static final int[] KNIGHT_DC = {-1, 1, -2, 2, -2, 2, -1, 1};
+    private static final int[] KING_DR = {-1, -1, -1, 0, 0, 1, 1, 1};
+    private static final int[] KING_DC = {-1, 0, 1, -1, 1, -1, 0, 1};
+
+    private final int width, height, size;
+    private final byte[] piece;
+    private final byte[] state;
+    private final byte[] adj;      // number of a revealed cell, -1 when unknown
+    private final double[] risk;   // lazily estimated hazard probability, NaN = not estimated yet
+    private final SearchStats stats;
+    private int hazardTotal;
+    private boolean determinized;
+
+    private boolean whiteToMove;
+    private int winner;            // 0 = none, 1 = white, 2 = black
+    private int penaltyWhite, penaltyBlack;
+    private int ply;
+
+    // evaluation state (see Evaluator.attach)
+    private int[][] pst;
+    private int[] riskFixed;
+    private int psqt;
+    private int[] visited = new int[64];   // cells that stopped being hidden since the root
+    private int visitedCount;
+
+    // undo journal: (square, old piece, old state) entries + per-ply scalars
+    private int[] journalSq = new int[1024];
+    private byte[] journalPiece = new byte[1024];
+    private byte[] journalState = new byte[1024];
+    private int journalSize;
+    private final int[] plyMark = new int[MAX_PLY];
+    private final boolean[] plyWhiteToMove = new boolean[MAX_PLY];
+    private final int[] plyWinner = new int[MAX_PLY];
+    private final int[] plyPenaltyWhite = new int[MAX_PLY];
+    private final int[] plyPenaltyBlack = new int[MAX_PLY];
+    private final int[] plyPsqt = new int[MAX_PLY];
+    private final int[] plyVisitedCount = new int[MAX_PLY];
+
+    private Position(int width, int height, SearchStats stats) {
+        this.width = width;
+        this.height = height;
+        this.size = width * height;
+        this.piece = new byte[size];
+        this.state = new byte[size];
+        this.adj = new byte[size];
+        this.risk = new double[size];
+        this.stats = stats;
+        java.util.Arrays.fill(risk, Double.NaN);
+    }
+
+    /** Copies everything the side to move is allowed to know (no hazard layout). */
+    public static Position fromBoard(Board board, SearchStats stats) {
+        return fromView(board.snapshotView(), stats);
+    }
+
+    /** Same as fromBoard, from a snapshot taken earlier (safe on any thread). */
+    public static Position fromView(BoardView view, SearchStats stats) {
+        Position pos = new Position(view.getWidth(), view.getHeight(), stats);
+        for (int r = 0; r < pos.height; r++) {
+            for (int c = 0; c < pos.width; c++) {
+                int sq = r * pos.width + c;
+                pos.piece[sq] = (byte) view.pieceAt(r, c);
+                pos.state[sq] = (byte) view.stateAt(r, c);
+                pos.adj[sq] = (byte) view.numberAt(r, c);
+            }
+        }
+        pos.whiteToMove = view.isWhiteTurn();
+        pos.hazardTotal = view.getHazardTotal();
+        if (view.isGameOver()) {
+            Boolean w = view.getWhiteWinner();
+            pos.winner = (w != null && w) ? 1 : 2;
+        }
+        return pos;
+    }
+
+    public static int encode(Piece p) {
+        if (p == null) return EMPTY;
+        int type = switch (p.getName()) {
+            case "Pawn" -> PAWN;
+            case "Knight" -> KNIGHT;
+            case "Bishop" -> BISHOP;
+            case "Rook" -> ROOK;
+            case "Queen" -> QUEEN;
+            case "King" -> KING;
+            default -> PAWN;
+        };
+        return p.isWhite() ? type : type | BLACK;
+    }
+
+    public static int type(int p) { return p & 7; }
+    public static boolean isWhite(int p) { return p != EMPTY && p < BLACK; }
+
+    /** Material in pawns; the king's 1000 stands for the game. */
+    public static int pieceValue(int p) {
+        return switch (type(p)) {
+            case KING -> 1000;
+            case QUEEN -> 9;
+            case ROOK -> 5;
+            case BISHOP, KNIGHT -> 3;
+            case PAWN -> 1;
+            default -> 0;
+        };
+    }
+
+    /** Centipawn loss charged when a piece may be blown up. */
+    public static int lossValue(int p) {
+        return type(p) == KING ? KING_LOSS : pieceValue(p) * 100;
+    }
+
+    // ---------------- accessors ----------------
+    public int getWidth() { return width; }
+    public int getHeight() { return height; }
+    public int size() { return size; }
+    public int pieceAt(int sq) { return piece[sq]; }
+    public int stateAt(int sq) { return state[sq]; }
+    public int numberAt(int sq) { return adj[sq]; }
+    public boolean isWhiteToMove() { return whiteToMove; }
+    public int getWinner() { return winner; }
+    public boolean isTerminal() { return winner != 0; }
+    public int getPenalty(boolean white) { return white ? penaltyWhite : penaltyBlack; }
+    public int getPly() { return ply; }
+
+    public boolean isAttached() { return pst != null; }
+    public int getPsqt() { return psqt; }
+    public int[] getRiskTable() { return riskFixed; }
+    public int getVisitedCount() { return visitedCount; }
+    public int getVisited(int i) { return visited[i]; }
+
+    /** Called by Evaluator.attach: installs the tables and computes the initial sum. */
+    void attachTables(int[][] pst, int[] riskFixed) {
+        this.pst = pst;
+        this.riskFixed = riskFixed;
+        int sum = 0;
+        for (int sq = 0; sq < size; sq++) sum += pst[piece[sq]][sq];
+        this.psqt = sum;
+    }
+    public SearchStats getStats() { return stats; }
+    /** Total number of hazards on the board (public, like a Minesweeper mine counter). */
+    public int getHazardTotal() { return hazardTotal; }
+    public boolean isDeterminized() { return determinized; }
+
+    /** Fresh copy at ply 0 (no journal), sharing nothing with this position. */
+    public Position copy() {
+        Position p = new Position(width, height, null);
+        p.copyFrom(this);
+        return p;
+    }
+
+    /**
+     * Overwrites this position with src (same dimensions), resetting ply and journal.
+     * Used to reuse one scratch position per thread instead of allocating per playout.
+     */
+    public void copyFrom(Position src) {
+        if (src.size != size) throw new IllegalArgumentException("board size mismatch");
+        System.arraycopy(src.piece, 0, piece, 0, size);
+        System.arraycopy(src.state, 0, state, 0, size);
+        System.arraycopy(src.adj, 0, adj, 0, size);
+        System.arraycopy(src.risk, 0, risk, 0, size);
+        hazardTotal = src.hazardTotal;
+        determinized = src.determinized;
+        whiteToMove = src.whiteToMove;
+        winner = src.winner;
+        penaltyWhite = src.penaltyWhite;
+        penaltyBlack = src.penaltyBlack;
+        pst = src.pst;
+        riskFixed = src.riskFixed;
+        psqt = src.psqt;
+        visitedCount = 0;
+        ply = 0;
+        journalSize = 0;
+    }
+
+    /**
+     * Installs a hazard layout (layout[sq] = hazard) on a copy of the public position:
+     * every cell gets its true number and make() resolves hazards from now on.
+     * The layout must agree with the revealed cells (exploded = hazard, other revealed = safe).
+     */
+    public void determinize(boolean[] layout) {
+        for (int sq = 0; sq < size; sq++) {
+            state[sq] = (byte) (layout[sq] ? (state[sq] | HAZARD) : (state[sq] & ~HAZARD));
+        }
+        for (int sq = 0; sq < size; sq++) adj[sq] = (byte) countHazardNeighbours(sq);
+        determinized = true;
+    }
+
+    private int countHazardNeighbours(int sq) {
+        int r = sq / width, c = sq % width, cnt = 0;
+        for (int i = 0; i < 8; i++) {
+            int nr = r + KING_DR[i], nc = c + KING_DC[i];
+            if (nr < 0 || nr >= height || nc < 0 || nc >= width) continue;
+            if ((state[nr * width + nc] & HAZARD) != 0) cnt++;
+        }
+        return cnt;
+    }
+
+    /** Hidden = neither revealed nor already stepped on during the search. */
+    public boolean isHidden(int sq) { return (state[sq] & (REVEALED | VISITED)) == 0; }
+
+    /** Hazard probability of a hidden cell: 0 / 1 when proven, else estimated once per position copy (the risk cache). */
+    public double risk(int sq) {
+        if ((state[sq] & PROVEN_SAFE) != 0) return 0.0;
+        if ((state[sq] & PROVEN_HAZARD) != 0) return 1.0;
+        double r = risk[sq];
+        if (!Double.isNaN(r)) {
+            if (stats != null) stats.cacheHit();
+            return r;
+        }
+        if (stats != null) {
+            stats.cacheMiss();
+            stats.countHazardEval();
+        }
+        r = estimateRisk(sq);
+        risk[sq] = r;
+        return r;
+    }
+
+    // average of the revealed numbers around sq, plus the flags, reading root-revealed numbers only
+    private double estimateRisk(int sq) {
+        int r = sq / width, c = sq % width;
+        int knownNeighbors = 0, sumNumbers = 0, flagged = 0;
+        for (int i = 0; i < 8; i++) {
+            int nr = r + KING_DR[i], nc = c + KING_DC[i];
+            if (nr < 0 || nr >= height || nc < 0 || nc >= width) continue;
+            int n = nr * width + nc;
+            if ((state[n] & REVEALED) != 0) { knownNeighbors++; sumNumbers += Math.max(0, adj[n]); }
+            if ((state[n] & FLAGGED) != 0) flagged++;
+        }
+        if (knownNeighbors == 0) return 0.12;
+        double avg = (double) sumNumbers / (double) knownNeighbors;
+        return Math.min(0.85, (avg + flagged * 0.9) / 6.0);
+    }
+
+    // ---------------- move generation ----------------
+    /**
+     * Writes the moves of the side to move into buf and returns how many.
+     * tacticalOnly = captures and chords only (for quiescence).
+     */
+    public int generateMoves(int[] buf, boolean tacticalOnly) {
+        if (winner != 0) return 0;
+        int n = 0;
+        for (int sq = 0; sq < size; sq++) {
+            int p = piece[sq];
+            if (p == EMPTY || isWhite(p) != whiteToMove) continue;
+            int r = sq / width, c = sq % width;
+            switch (type(p)) {
+                case PAWN -> n = pawnMoves(buf, n, sq, r, c, tacticalOnly);
+                case KNIGHT -> n = stepMoves(buf, n, sq, r, c, KNIGHT_DR, KNIGHT_DC, tacticalOnly);
+                case KING -> n = stepMoves(buf, n, sq, r, c, KING_DR, KING_DC, tacticalOnly);
+                case BISHOP -> n = slideMoves(buf, n, sq, r, c, 4, 8, tacticalOnly);
+                case ROOK -> n = slideMoves(buf, n, sq, r, c, 0, 4, tacticalOnly);
+                case QUEEN -> n = slideMoves(buf, n, sq, r, c, 0, 8, tacticalOnly);
+                default -> { }
+            }
+        }
+        for (int sq = 0; sq < size && n < buf.length; sq++) {
+            if (canChord(sq)) buf[n++] = Move.chord(sq);
+        }
+        return n;
+    }
+
+    private int add(int[] buf, int n, int from, int to, boolean tacticalOnly) {
+        if (n >= buf.length) return n;
+        int target = piece[to];
+        if (target == EMPTY) {
+            if (!tacticalOnly) buf[n++] = Move.of(from, to);
+        } else if (isWhite(target) != whiteToMove) {
+            buf[n++] = Move.capture(from, to);
+        }
+        return n;
+    }
+
+    private int stepMoves(int[] buf, int n, int sq, int r, int c, int[] drs, int[] dcs, boolean tacticalOnly) {
+        for (int i = 0; i < 8; i++) {
+            int nr = r + drs[i], nc = c + dcs[i];
+            if (nr < 0 || nr >= height || nc < 0 || nc >= width) continue;
+            n = add(buf, n, sq, nr * width + nc, tacticalOnly);
+        }
+        return n;
+    }
+
+    // directions 0..3 orthogonal, 4..7 diagonal
+    private static final int[] SLIDE_DR = {-1, 1, 0, 0, -1, -1, 1, 1};
+    private static final int[] SLIDE_DC = {0, 0, -1, 1, -1, 1, -1, 1};
+
+    private int slideMoves(int[] buf, int n, int sq, int r, int c, int dirFrom, int dirTo, boolean tacticalOnly) {
+        for (int d = dirFrom; d < dirTo; d++) {
+            int nr = r + SLIDE_DR[d], nc = c + SLIDE_DC[d];
+            while (nr >= 0 && nr < height && nc >= 0 && nc < width) {
+                int to = nr * width + nc;
+                n = add(buf, n, sq, to, tacticalOnly);
+                if (piece[to] != EMPTY) break;
+                nr += SLIDE_DR[d];
+                nc += SLIDE_DC[d];
+            }
+        }
+        return n;
+    }
+
+    // Pawn.canMove: start row is hard-coded 6 / 1, firstMove never clears (onMove is not called), no en passant
+    private int pawnMoves(int[] buf, int n, int sq, int r, int c, boolean tacticalOnly) {
+        int dir = whiteToMove ? -1 : 1;
+        int startRow = whiteToMove ? 6 : 1;
+        int fr = r + dir;
+        if (fr < 0 || fr >= height) return n;
+        int fwd = fr * width + c;
+        if (!tacticalOnly && piece[fwd] == EMPTY) {
+            if (n < buf.length) buf[n++] = Move.of(sq, fwd);
+            int dr2 = r + 2 * dir;
+            if (r == startRow && dr2 >= 0 && dr2 < height) {
+                int fwd2 = dr2 * width + c;
+                if (piece[fwd2] == EMPTY && n < buf.length) buf[n++] = Move.of(sq, fwd2);
+            }
+        }
+        for (int dc = -1; dc <= 1; dc += 2) {
+            int nc = c + dc;
+            if (nc < 0 || nc >= width) continue;
+            int to = fr * width + nc;
+            int target = piece[to];
+            if (target != EMPTY && isWhite(target) != whiteToMove && n < buf.length) buf[n++] = Move.capture(sq, to);
+        }
+        return n;
+    }
+
+    /** Board.checkQuickReveal would open something here (number known, flags == number, hidden neighbours left). */
+    public boolean canChord(int sq) {
+        if ((state[sq] & REVEALED) == 0 || adj[sq] <= 0) return false;
+        int r = sq / width, c = sq % width;
+        int flagged = 0;
+        boolean hasHidden = false;
+        for (int i = 0; i < 8; i++) {
+            int nr = r + KING_DR[i], nc = c + KING_DC[i];
+            if (nr < 0 || nr >= height || nc < 0 || nc >= width) continue;
+            int n = nr * width + nc;
+            if ((state[n] & FLAGGED) != 0) flagged++;
+            else if (isHidden(n)) hasHidden = true;
+        }
+        return flagged == adj[sq] && hasHidden;
+    }
+
+    // ---------------- make / unmake ----------------
+    public void make(int move) {
+        pushPly();
+        int from = Move.from(move), to = Move.to(move);
+        if (Move.isChord(move)) {
+            int p = piece[from];
+            int trigger = p != EMPTY && isWhite(p) == whiteToMove ? from : -1;
+            if (determinized) chordResolved(from, trigger);
+            else chord(from, trigger);
+        } else if (determinized) {
+            movePieceResolved(from, to);
+        } else {
+            movePiece(from, to);
+        }
+        whiteToMove = !whiteToMove;
+    }
+
+    /**
+     * make() for a plain move onto a hidden cell with the hazard question settled (puzzle proofs branch
+     * on both answers): hazard = the piece explodes there, a king losing the game; else the cell is
+     * visited like in make(), minus the risk charge. Undone by unmake().
+     */
+    public void makeStep(int move, boolean hazard) {
+        pushPly();
+        int from = Move.from(move), to = Move.to(move);
+        int p = piece[from];
+        int captured = piece[to];
+        journal(from);
+        journal(to);
+        setPiece(to, p);
+        setPiece(from, EMPTY);
+        if (captured != EMPTY && type(captured) == KING) winner = isWhite(p) ? 1 : 2;
+        if (hazard) {
+            state[to] |= REVEALED | EXPLODED;
+            if (type(p) == KING) winner = isWhite(p) ? 2 : 1;
+            setPiece(to, EMPTY);
+        } else {
+            markVisited(to);
+            promote(to, p);
+        }
+        whiteToMove = !whiteToMove;
+    }
+
+    private void pushPly() {
+        plyMark[ply] = journalSize;
+        plyWhiteToMove[ply] = whiteToMove;
+        plyWinner[ply] = winner;
+        plyPenaltyWhite[ply] = penaltyWhite;
+        plyPenaltyBlack[ply] = penaltyBlack;
+        plyPsqt[ply] = psqt;
+        plyVisitedCount[ply] = visitedCount;
+        ply++;
+    }
+
+    public void unmake() {
+        ply--;
+        int mark = plyMark[ply];
+        while (journalSize > mark) {
+            journalSize--;
+            int sq = journalSq[journalSize];
+            piece[sq] = journalPiece[journalSize];
+            state[sq] = journalState[journalSize];
+        }
+        whiteToMove = plyWhiteToMove[ply];
+        winner = plyWinner[ply];
+        penaltyWhite = plyPenaltyWhite[ply];
+        penaltyBlack = plyPenaltyBlack[ply];
+        psqt = plyPsqt[ply];
+        visitedCount = plyVisitedCount[ply];
+    }
+
+    private void movePiece(int from, int to) {
+        int p = piece[from];
+        int captured = piece[to];
+        journal(from);
+        journal(to);
+        setPiece(to, p);
+        setPiece(from, EMPTY);
+        if (captured != EMPTY && type(captured) == KING) winner = isWhite(p) ? 1 : 2;
+
+        if (isHidden(to)) {
+            charge(p, risk(to));
+            markVisited(to);
+        } else if (canChord(to)) {
+            // Board.movePiece -> checkQuickReveal(to, piece, false)
+            chord(to, to);
+        }
+
+        promote(to, p);
+    }
+
+    private void promote(int to, int p) {
+        if (type(p) == PAWN && piece[to] == p) {
+            int row = to / width;
+            if ((isWhite(p) && row == 0) || (!isWhite(p) && row == height - 1)) {
+                setPiece(to, isWhite(p) ? QUEEN : QUEEN | BLACK);
+            }
+        }
+    }
+
+    // ---------------- determinized make (mirrors Board.movePiece / revealCell / checkQuickReveal) ----------------
+    private void movePieceResolved(int from, int to) {
+        int p = piece[from];
+        int captured = piece[to];
+        journal(from);
+        journal(to);
+        setPiece(to, p);
+        setPiece(from, EMPTY);
+        if (captured != EMPTY && type(captured) == KING) winner = isWhite(p) ? 1 : 2;
+
+        if ((state[to] & (HAZARD | EXPLODED)) == HAZARD) {
+            state[to] |= REVEALED | EXPLODED;
+            if (type(p) == KING) winner = isWhite(p) ? 2 : 1;
+            setPiece(to, EMPTY);
+        } else {
+            revealFlood(to);
+            if (adj[to] > 0) chordResolved(to, to);
+        }
+        promote(to, p);
+    }
+
+    private int[] floodStack = new int[64];
+
+    // iterative version of Board.revealCell for a safe cell
+    private void revealFlood(int start) {
+        if ((state[start] & (REVEALED | FLAGGED)) != 0) return;
+        int top = 0;
+        floodStack[top++] = start;
+        journal(start);
+        state[start] |= REVEALED;
+        while (top > 0) {
+            int sq = floodStack[--top];
+            if (adj[sq] != 0) continue;
+            int r = sq / width, c = sq % width;
+            for (int i = 0; i < 8; i++) {
+                int nr = r + KING_DR[i], nc = c + KING_DC[i];
+                if (nr < 0 || nr >= height || nc < 0 || nc >= width) continue;
+                int n = nr * width + nc;
+                if ((state[n] & (REVEALED | FLAGGED)) != 0) continue;
+                journal(n);
+                state[n] |= REVEALED;
+                if (top == floodStack.length) floodStack = java.util.Arrays.copyOf(floodStack, top * 2);
+                floodStack[top++] = n;
+            }
+        }
+    }
+
+    // Board.checkQuickReveal: needs flags == number; opened zero cells do not cascade there either
+    private void chordResolved(int numberSq, int triggerSq) {
+        if ((state[numberSq] & REVEALED) == 0 || adj[numberSq] <= 0) return;
+        int r = numberSq / width, c = numberSq % width;
+        int flagged = 0;
+        for (int i = 0; i < 8; i++) {
+            int nr = r + KING_DR[i], nc = c + KING_DC[i];
+            if (nr < 0 || nr >= height || nc < 0 || nc >= width) continue;
+            if ((state[nr * width + nc] & FLAGGED) != 0) flagged++;
+        }
+        if (flagged != adj[numberSq]) return;
+
+        boolean explosion = false;
+        for (int i = 0; i < 8; i++) {
+            int nr = r + KING_DR[i], nc = c + KING_DC[i];
+            if (nr < 0 || nr >= height || nc < 0 || nc >= width) continue;
+            int n = nr * width + nc;
+            if ((state[n] & (REVEALED | FLAGGED)) != 0) continue;
+            journal(n);
+            state[n] |= REVEALED;
+            if ((state[n] & HAZARD) != 0) {
+                state[n] |= EXPLODED;
+                int victim = piece[n];
+                if (victim != EMPTY) {
+                    if (type(victim) == KING) winner = isWhite(victim) ? 2 : 1;
+                    setPiece(n, EMPTY);
+                }
+                explosion = true;
+            }
+        }
+        if (explosion && triggerSq >= 0) {
+            int t = piece[triggerSq];
+            if (t != EMPTY) {
+                if (type(t) == KING) winner = isWhite(t) ? 2 : 1;
+                setPiece(triggerSq, EMPTY);
+            }
+        }
+    }
+
+    // opens the hidden, unflagged neighbours of a number cell; the trigger piece pays for any explosion
+    private void chord(int numberSq, int triggerSq) {
+        int r = numberSq / width, c = numberSq % width;
+        double allSafe = 1.0;
+        for (int i = 0; i < 8; i++) {
+            int nr = r + KING_DR[i], nc = c + KING_DC[i];
+            if (nr < 0 || nr >= height || nc < 0 || nc >= width) continue;
+            int n = nr * width + nc;
+            if ((state[n] & FLAGGED) != 0 || !isHidden(n)) continue;
+            double p = risk(n);
+            allSafe *= 1.0 - p;
+            if (piece[n] != EMPTY) charge(piece[n], p);
+            journal(n);
+            markVisited(n);
+        }
+        if (triggerSq >= 0 && piece[triggerSq] != EMPTY) charge(piece[triggerSq], 1.0 - allSafe);
+    }
+
+    // callers journal sq first
+    private void setPiece(int sq, int p) {
+        if (pst != null) psqt += pst[p][sq] - pst[piece[sq]][sq];
+        piece[sq] = (byte) p;
+    }
+
+    private void markVisited(int sq) {
+        state[sq] |= VISITED;
+        if (visitedCount == visited.length) visited = java.util.Arrays.copyOf(visited, visitedCount * 2);
+        visited[visitedCount++] = sq;
+    }
+
+    private void charge(int p, double probability) {
+        int loss = (int) Math.round(probability * lossValue(p));
+        if (isWhite(p)) penaltyWhite += loss;
+        else penaltyBlack += loss;
+    }
+
+    private void journal(int sq) {
+        if (journalSize == journalSq.length) {
+            int cap = journalSq.length * 2;
+            journalSq = java.util.Arrays.copyOf(journalSq, cap);
+            journalPiece = java.util.Arrays.copyOf(journalPiece, cap);
+            journalState = java.util.Arrays.copyOf(journalState, cap);
+        }
+        journalSq[journalSize] = sq;
+        journalPiece[journalSize] = piece[sq];
+        journalState[journalSize] = state[sq];
+        journalSize++;
+    }
+}
@@ -0,0 +1,250 @@
+package com.hazardchess.ai;
+
+/**
+ * Iterative-deepening alpha-beta (negamax) over a Position.
+ * - move ordering by MoveOrderer (pv move, MVV-LVA, killers, history)
+ * - quiescence at the leaves over captures and chords (stand-pat + delta pruning)
+ * - leaves are scored by the incremental Evaluator attached to the position
+ * - stops at maxDepth or when the time budget runs out; an interrupted iteration is discarded
+ * - fills SearchStats: nodes, completed depth, branching factor, score of the chosen move (left unset
+ *   when not even depth 1 completed)
+ * - optional node limit, stop() from another thread, and a listener told about every completed
+ *   iteration with its principal variation (engine protocols print these as info lines)
+ * One instance per thread (buffers and ordering tables are reused between searches).
+ */
+public final class Search implements Engine {
+    public static final int MATE = 100_000;
+    private static final int INF = 1_000_000;
+    private static final int CHECK_EVERY = 1024;
+    /** Safety margin for delta pruning: a tactical move must be able to lift the score this close to alpha. */
+    private static final int DELTA_MARGIN = 200;
+    /** Hard cap on quiescence plies below the horizon. */
+    private static final int MAX_QUIESCENCE_PLY = 8;
+
+    /** Completed iteration: pv[0..pvLength) is the expected line, pv[0] the move the search would play. */
+    public interface IterationListener {
+        void completed(int depth, int score, long nodes, long elapsedNanos, int[] pv, int pvLength);
+    }
+
+    private final int maxDepth;
+    private final long budgetNanos;
+    private final Evaluator evaluator;
+    private long nodeLimit = Long.MAX_VALUE;
+    private IterationListener listener;
+    private volatile boolean stopRequested;
+
+    private final int[][] moves = new int[Position.MAX_PLY][Position.MAX_MOVES];
+    private final int[][] scores = new int[Position.MAX_PLY][Position.MAX_MOVES];
+    // triangular pv table: pv[ply][ply..pvLength[ply]) is the best line found from ply
+    private final int[][] pv = new int[Position.MAX_PLY][Position.MAX_PLY];
+    private final int[] pvLength = new int[Position.MAX_PLY];
+    private final int[] bestPv = new int[Position.MAX_PLY];
+    private MoveOrderer orderer;
+
+    private SearchStats stats;
+    private long deadline;
+    private long nodes;
+    private boolean aborted;
+
+    public Search(int maxDepth, long budgetNanos) {
+        this(maxDepth, budgetNanos, Evaluator.DEFAULT);
+    }
+
+    public Search(int maxDepth, long budgetNanos, Evaluator evaluator) {
+        this.maxDepth = Math.max(1, Math.min(maxDepth, Position.MAX_PLY - 1));
+        this.budgetNanos = budgetNanos;
+        this.evaluator = evaluator;
+    }
+
+    /** Stops after about this many nodes (checked every CHECK_EVERY nodes), keeping the last completed iteration. */
+    public void setNodeLimit(long nodes) {
+        this.nodeLimit = nodes;
+    }
+
+    public void setListener(IterationListener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Ends the running search at its next check; callable from any thread. Final for this
+     * instance: later searches return the first move they try, so use a new Search per go.
+     */
+    public void stop() {
+        stopRequested = true;
+    }
+
+    @Override
+    public int bestMove(Position pos, SearchStats stats) {
+        this.stats = stats != null ? stats : new SearchStats();
+        if (orderer == null || orderer.squares() != pos.size()) orderer = new MoveOrderer(pos.size());
+        else orderer.clear();
+        long start = System.nanoTime();
+        // saturated: a budget of Long.MAX_VALUE (node limit only) would overflow into the past
+        deadline = budgetNanos >= Long.MAX_VALUE - start ? Long.MAX_VALUE : start + budgetNanos;
+        nodes = 0;
+        aborted = false;
+        if (!pos.isAttached()) evaluator.attach(pos);
+
+        int[] rootMoves = moves[0];
+        int[] rootScores = scores[0];
+        int count = pos.generateMoves(rootMoves, false);
+        this.stats.countNode();
+        this.stats.setRootMoves(count);
+        if (count == 0) return Move.NONE;
+
+        int best = rootMoves[0];
+        int bestScore = -INF;
+        int bestPvLength = 0;
+        for (int depth = 1; depth <= maxDepth; depth++) {
+            orderer.score(pos, rootMoves, rootScores, count, 0, best);
+            MoveOrderer.sort(rootMoves, rootScores, count);
+            this.stats.countExpansion(count);
+
+            int alpha = -INF, iterBest = Move.NONE, iterScore = -INF;
+            for (int i = 0; i < count; i++) {
+                int m = rootMoves[i];
+                pos.make(m);
+                int s = -negamax(pos, depth - 1, -INF, -alpha, 1);
+                pos.unmake();
+                if (aborted) break;
+                if (s > iterScore) {
+                    iterScore = s;
+                    iterBest = m;
+                    pv[0][0] = m;
+                    System.arraycopy(pv[1], 1, pv[0], 1, pvLength[1] - 1);
+                    pvLength[0] = Math.max(1, pvLength[1]);
+                }
+                if (s > alpha) alpha = s;
+            }
+            if (aborted) break;
+            best = iterBest;
+            bestScore = iterScore;
+            bestPvLength = pvLength[0];
+            System.arraycopy(pv[0], 0, bestPv, 0, bestPvLength);
+            this.stats.reachedDepth(depth);
+            if (listener != null) listener.completed(depth, bestScore, nodes, System.nanoTime() - start, bestPv, bestPvLength);
+            if (Math.abs(bestScore) >= MATE - Position.MAX_PLY) break; // forced result found
+        }
+        if (bestScore > -INF) this.stats.setScore(bestScore);
+        return best;
+    }
+
+    private int negamax(Position pos, int depth, int alpha, int beta, int ply) {
+        stats.countNode();
+        pvLength[ply] = ply;
+        checkLimits();
+        if (aborted) return 0;
+
+        if (pos.isTerminal()) {
+            boolean won = pos.getWinner() == (pos.isWhiteToMove() ? 1 : 2);
+            return won ? MATE - ply : -(MATE - ply);
+        }
+        if (ply >= Position.MAX_PLY - 1) return evaluate(pos);
+        if (depth <= 0) return quiesce(pos, alpha, beta, ply, 0);
+
+        int[] buf = moves[ply];
+        int[] sc = scores[ply];
+        int count = pos.generateMoves(buf, false);
+        if (count == 0) return evaluate(pos);
+        stats.countExpansion(count);
+        orderer.score(pos, buf, sc, count, ply, Move.NONE);
+
+        int best = -INF;
+        for (int i = 0; i < count; i++) {
+            int m = MoveOrderer.pickNext(buf, sc, i, count);
+            pos.make(m);
+            int s = -negamax(pos, depth - 1, -beta, -alpha, ply + 1);
+            pos.unmake();
+            if (aborted) return 0;
+            if (s > best) best = s;
+            if (s > alpha) {
+                alpha = s;
+                pv[ply][ply] = m;
+                int childLength = Math.max(ply + 1, pvLength[ply + 1]);
+                System.arraycopy(pv[ply + 1], ply + 1, pv[ply], ply + 1, childLength - ply - 1);
+                pvLength[ply] = childLength;
+            }
+            if (alpha >= beta) {
+                orderer.recordCutoff(m, ply, depth);
+                break;
+            }
+        }
+        return best;
+    }
+
+    private void checkLimits() {
+        if ((++nodes % CHECK_EVERY) == 0
+                && (System.nanoTime() > deadline || nodes >= nodeLimit || stopRequested)) aborted = true;
+    }
+
+    private int evaluate(Position pos) {
+        int score = evaluator.evaluate(pos);
+        assert score == evaluator.evaluateFromScratch(pos) : "incremental eval drifted";
+        return score;
+    }
+
+    /**
+     * Resolves pending captures and quick reveals (including the trigger-piece loss of a chord)
+     * so the horizon never cuts a capture chain in half.
+     */
+    private int quiesce(Position pos, int alpha, int beta, int ply, int qply) {
+        stats.countNode();
+        stats.countQuiescenceNode();
+        pvLength[ply] = ply;
+        checkLimits();
+        if (aborted) return 0;
+
+        if (pos.isTerminal()) {
+            boolean won = pos.getWinner() == (pos.isWhiteToMove() ? 1 : 2);
+            return won ? MATE - ply : -(MATE - ply);
+        }
+
+        int standPat = evaluate(pos);
+        if (standPat >= beta) return standPat;
+        if (standPat > alpha) alpha = standPat;
+        if (qply >= MAX_QUIESCENCE_PLY || ply >= Position.MAX_PLY - 1) return standPat;
+
+        int[] buf = moves[ply];
+        int[] sc = scores[ply];
+        int count = pos.generateMoves(buf, true);
+        if (count == 0) return standPat;
+        stats.countExpansion(count);
+        orderer.score(pos, buf, sc, count, ply, Move.NONE);
+
+        int best = standPat;
+        for (int i = 0; i < count; i++) {
+            int m = MoveOrderer.pickNext(buf, sc, i, count);
+            if (standPat + maxGain(pos, m) + DELTA_MARGIN <= alpha) continue; // delta pruning
+            pos.make(m);
+            int s = -quiesce(pos, -beta, -alpha, ply + 1, qply + 1);
+            pos.unmake();
+            if (aborted) return 0;
+            if (s > best) best = s;
+            if (s > alpha) alpha = s;
+            if (alpha >= beta) break;
+        }
+        return best;
+    }
+
+    // optimistic material swing of a tactical move, used by delta pruning
+    private static int maxGain(Position pos, int move) {
+        if (Move.isCapture(move)) {
+            int victim = pos.pieceAt(Move.to(move));
+            return Position.type(victim) == Position.KING ? MATE : Position.pieceValue(victim) * 100;
+        }
+        // a chord only gains when it may blow up enemy pieces standing on the hidden cells it opens
+        int w = pos.getWidth(), sq = Move.from(move), r = sq / w, c = sq % w;
+        int gain = 0;
+        for (int dr = -1; dr <= 1; dr++) for (int dc = -1; dc <= 1; dc++) {
+            int nr = r + dr, nc = c + dc;
+            if ((dr == 0 && dc == 0) || nr < 0 || nr >= pos.getHeight() || nc < 0 || nc >= w) continue;
+            int n = nr * w + nc;
+            int p = pos.pieceAt(n);
+            if (p != Position.EMPTY && Position.isWhite(p) != pos.isWhiteToMove() && pos.isHidden(n)
+                    && (pos.stateAt(n) & Position.FLAGGED) == 0) {
+                gain += Position.lossValue(p);
+            }
+        }
+        return gain;
+    }
+}
@@ -0,0 +1,105 @@
+package com.hazardchess.ai;
+
+/**
+ * Per-decision AI telemetry.
+ * - filled by the AI on every decision (one instance per decision, not thread-safe)
+ * - nodes / depth / branching factor describe how much work the search did
+ * - cache counters cover the per-decision risk cache; hazardEvals counts real risk estimations
+ * - summary() is the one-line form shown in the BoardUI event log
+ */
+public class SearchStats {
+    private long startNanos;
+    private long elapsedNanos;
+
+    private long nodes;
+    private long quiescenceNodes;
+    private long expansions;
+    private long childrenGenerated;
+    private int depthReached;
+    private int rootMoves;
+
+    private long cacheLookups;
+    private long cacheHits;
+    private long hazardEvals;
+
+    private double score = Double.NaN;
+
+    public void begin() {
+        startNanos = System.nanoTime();
+        elapsedNanos = 0;
+    }
+
+    public void end() {
+        elapsedNanos = System.nanoTime() - startNanos;
+    }
+
+    // ---------------- counters (called by the AI) ----------------
+    public void countNode() { nodes++; }
+    public void countQuiescenceNode() { quiescenceNodes++; }
+
+    /** A node was expanded into {@code children} successors (used for the branching factor). */
+    public void countExpansion(int children) {
+        expansions++;
+        childrenGenerated += children;
+    }
+
+    public void setRootMoves(int rootMoves) { this.rootMoves = rootMoves; }
+
+    public void reachedDepth(int depth) {
+        if (depth > depthReached) depthReached = depth;
+    }
+
+    public void cacheHit() { cacheLookups++; cacheHits++; }
+    public void cacheMiss() { cacheLookups++; }
+
+    public void countHazardEval() { hazardEvals++; }
+
+    public void setScore(double score) { this.score = score; }
+
+    /** Adds the counters of a per-thread instance (multi-threaded engines); time and score stay. */
+    public void add(SearchStats other) {
+        nodes += other.nodes;
+        quiescenceNodes += other.quiescenceNodes;
+        expansions += other.expansions;
+        childrenGenerated += other.childrenGenerated;
+        reachedDepth(other.depthReached);
+        cacheLookups += other.cacheLookups;
+        cacheHits += other.cacheHits;
+        hazardEvals += other.hazardEvals;
+    }
+
+    // ---------------- getters ----------------
+    public long getNodes() { return nodes; }
+    public long getQuiescenceNodes() { return quiescenceNodes; }
+    public long getElapsedNanos() { return elapsedNanos; }
+    public double getElapsedMillis() { return elapsedNanos / 1_000_000.0; }
+    public int getDepthReached() { return depthReached; }
+    public int getRootMoves() { return rootMoves; }
+    public long getCacheLookups() { return cacheLookups; }
+    public long getCacheHits() { return cacheHits; }
+    public long getHazardEvals() { return hazardEvals; }
+    public double getScore() { return score; }
+
+    public double getBranchingFactor() {
+        return expansions == 0 ? 0.0 : (double) childrenGenerated / (double) expansions;
+    }
+
+    public double getCacheHitRate() {
+        return cacheLookups == 0 ? 0.0 : (double) cacheHits / (double) cacheLookups;
+    }
+
+    public long getNodesPerSecond() {
+        return elapsedNanos <= 0 ? 0 : nodes * 1_000_000_000L / elapsedNanos;
+    }
+
+    public String summary() {
+        return String.format("%d nodes (%d q), depth %d, %.2f ms, bf %.1f, cache %.0f%%, risk evals %d, score %.1f",
+                nodes, quiescenceNodes, depthReached, getElapsedMillis(), getBranchingFactor(),
+                getCacheHitRate() * 100.0, hazardEvals, score);
+    }
+
+    @Override
+    public String toString() {
+        return summary();
+    }
+}
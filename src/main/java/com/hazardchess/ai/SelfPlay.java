@@ -0,0 +1,79 @@
+package com.hazardchess.ai;
+
+import com.hazardchess.game.Board;
+import com.hazardchess.game.Cell;
+import com.hazardchess.pieces.Piece;
+import com.hazardchess.pieces.Queen;
+
+import java.util.Random;
+
+/**
+ * Headless game loop, both sides played by the AI.
+ * - apply() plays an AIDecision on a Board the way BoardUI does (AI pawns auto-promote to queens)
+ * - play() runs a whole game and reports every position to an optional listener
+ */
+public final class SelfPlay {
+    public static final int DEFAULT_MAX_PLIES = 300;
+
+    public interface PositionListener {
+        /** Called before each move, with the side to move about to decide. */
+        void onPosition(Board board, int ply);
+    }
+
+    private SelfPlay() {}
+
+    /**
+     * Plays a game from the current position.
+     * @return TRUE / FALSE = white / black won, null = no result within maxPlies (or no move left)
+     */
+    public static Boolean play(Board board, Engine white, Engine black, int maxPlies, PositionListener listener) {
+        for (int ply = 0; ply < maxPlies && !board.isGameOver(); ply++) {
+            if (listener != null) listener.onPosition(board, ply);
+            AIDecision decision = board.decideAIMove(board.isWhiteTurn() ? white : black);
+            if (!apply(board, decision)) break;
+        }
+        return board.isGameOver() ? board.getWhiteWinner() : null;
+    }
+
+    /** Plays the decision for the side to move; false when there was nothing (legal) to play. */
+    public static boolean apply(Board board, AIDecision decision) {
+        boolean whiteMoving = board.isWhiteTurn();
+        switch (decision.getKind()) {
+            case MOVE -> {
+                int[] m = decision.getMove();
+                if (!board.movePiece(m[0], m[1], m[2], m[3])) return false;
+                autoPromote(board, m[2], m[3]);
+                return true;
+            }
+            case QUICK_REVEAL -> {
+                int[] q = decision.getQuickRevealCell();
+                Cell cell = board.getCell(q[0], q[1]);
+                Piece trigger = (cell.getPiece() != null && cell.getPiece().isWhite() == whiteMoving) ? cell.getPiece() : null;
+                return board.checkQuickReveal(cell, trigger, true);
+            }
+            default -> {
+                return false;
+            }
+        }
+    }
+
+    /** Plays a uniformly random (non-chord) move for the side to move; false if there is none. */
+    public static boolean playRandomMove(Board board, Random rnd) {
+        Position pos = Position.fromBoard(board, null);
+        int[] buf = new int[Position.MAX_MOVES];
+        int n = pos.generateMoves(buf, false);
+        int quiet = 0;
+        for (int i = 0; i < n; i++) if (!Move.isChord(buf[i])) buf[quiet++] = buf[i];
+        if (quiet == 0) return false;
+        int m = buf[rnd.nextInt(quiet)];
+        int w = board.getWidth(), from = Move.from(m), to = Move.to(m);
+        if (!board.movePiece(from / w, from % w, to / w, to % w)) return false;
+        autoPromote(board, to / w, to % w);
+        return true;
+    }
+
+    /** Same rule as the AI path in BoardUI: a pawn on the last rank becomes a queen. */
+    public static void autoPromote(Board board, int row, int col) {
+        if (board.canPromote(row, col)) board.promote(row, col, new Queen(board.getCell(row, col).getPiece().isWhite()));
+    }
+}
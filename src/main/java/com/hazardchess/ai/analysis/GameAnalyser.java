@@ -0,0 +1,272 @@
+package com.hazardchess.ai.analysis;
+
+import com.hazardchess.ai.Move;
+import com.hazardchess.ai.Position;
+import com.hazardchess.ai.Search;
+import com.hazardchess.ai.SearchStats;
+import com.hazardchess.game.Board;
+import com.hazardchess.game.BoardView;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Post-game analysis: replays a finished game from the board's action record and scores every move and
+ * quick reveal against the engine's choice, giving a GameReport.
+ * - fixed budget per search (depth and node limit, no clock), so the report does not depend on the
+ *   machine or on the number of threads
+ * - plies are analysed in parallel, two Searches per worker thread; results are cached by public position
+ *   and depth, shared by all workers
+ * - the played action is scored on the position it really led to when that is fully known (no hidden cell
+ *   touched), else as the expected outcome, via Position.make, like the search itself; that position is
+ *   searched one ply shallower than the root, so both scores look equally far ahead
+ * - a search that runs out of nodes before completing depth 1 has no score: the action is skipped
+ * - only what the undo history still holds can be replayed: the last Board.MAX_HISTORY actions
+ * Usage: GameAnalyser <saved game> [report file] [threads] [depth] [nodes]
+ */
+public final class GameAnalyser {
+    public static final int DEFAULT_DEPTH = 6;
+    public static final long DEFAULT_NODES = 100_000;
+    private static final int PUBLIC_STATE = Position.REVEALED | Position.EXPLODED | Position.FLAGGED | Position.VISITED;
+
+    /** One action of the game: the position it was played in, the action (as in Board.getActions) and the position after it. */
+    public static final class Ply {
+        public final int index;
+        public final BoardView before, after;
+        public final int[] action;
+
+        Ply(int index, BoardView before, int[] action, BoardView after) {
+            this.index = index;
+            this.before = before;
+            this.action = action;
+            this.after = after;
+        }
+    }
+
+    private final int threads, depth;
+    private final long nodes;
+    // public position and depth -> {score for the side to move, best move}
+    private final ConcurrentHashMap<Long, int[]> cache = new ConcurrentHashMap<>();
+    private final AtomicLong searches = new AtomicLong(), cacheHits = new AtomicLong();
+
+    public GameAnalyser() {
+        this(Runtime.getRuntime().availableProcessors(), DEFAULT_DEPTH, DEFAULT_NODES);
+    }
+
+    public GameAnalyser(int threads, int depth, long nodes) {
+        this.threads = Math.max(1, threads);
+        this.depth = depth;
+        this.nodes = nodes;
+    }
+
+    /**
+     * The recorded actions of board, oldest first, with the positions around them. Call on the thread
+     * that owns board; it works on a copy, board itself is left as it is.
+     */
+    public static List<Ply> replay(Board board) {
+        Board copy = copyOf(board);
+        List<int[]> actions = copy.getActions();
+        BoardView[] views = new BoardView[actions.size() + 1];
+        views[actions.size()] = copy.snapshotView();
+        for (int i = actions.size() - 1; i >= 0; i--) {
+            copy.undo();
+            views[i] = copy.snapshotView();
+        }
+        List<Ply> plies = new ArrayList<>(actions.size());
+        for (int i = 0; i < actions.size(); i++) plies.add(new Ply(i, views[i], actions.get(i), views[i + 1]));
+        return plies;
+    }
+
+    private static Board copyOf(Board board) {
+        try {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            board.writeTo(Channels.newChannel(out));
+            return Board.readFrom(Channels.newChannel(new ByteArrayInputStream(out.toByteArray())));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);   // in memory: only a broken save format gets here
+        }
+    }
+
+    /** Scores every ply on the worker threads; blocks until done. */
+    public GameReport analyse(List<Ply> plies) throws InterruptedException {
+        long t0 = System.nanoTime();
+        GameReport.Entry[] entries = new GameReport.Entry[plies.size()];
+        AtomicInteger next = new AtomicInteger();
+        int n = Math.min(threads, Math.max(1, plies.size()));
+        Thread[] workers = new Thread[n];
+        for (int i = 0; i < n; i++) {
+            workers[i] = Thread.ofPlatform().daemon().name("GameAnalyser-" + i).start(() -> {
+                Search root = new Search(depth, Long.MAX_VALUE), child = new Search(childDepth(), Long.MAX_VALUE);
+                root.setNodeLimit(nodes);
+                child.setNodeLimit(nodes);
+                int ply;
+                while (!Thread.currentThread().isInterrupted() && (ply = next.getAndIncrement()) < plies.size())
+                    entries[ply] = analyse(plies.get(ply), root, child);
+            });
+        }
+        try {
+            for (Thread w : workers) w.join();
+        } catch (InterruptedException e) {
+            for (Thread w : workers) w.interrupt();
+            throw e;
+        }
+        return new GameReport(Arrays.asList(entries), (System.nanoTime() - t0) / 1e9, n, searches.get(), cacheHits.get());
+    }
+
+    // the played action's position is one ply into the root search already (depth 1 can go no lower)
+    private int childDepth() {
+        return Math.max(1, depth - 1);
+    }
+
+    private GameReport.Entry analyse(Ply ply, Search root, Search child) {
+        BoardView view = ply.before;
+        boolean white = view.isWhiteTurn();
+        int width = view.getWidth(), height = view.getHeight();
+        Position pos = Position.fromView(view, null);
+        int played = find(pos, ply.action);
+        if (played == Move.NONE) return new GameReport.Entry(ply.index, white, describe(ply.action, height));
+
+        boolean steps = !Move.isChord(played) && pos.isHidden(Move.to(played));
+        boolean unknownOutcome = steps || Move.isChord(played);
+        double risk = steps ? pos.risk(Move.to(played)) : 0;
+        int[] rootResult = evaluate(pos, root, depth);
+        if (rootResult == null) return new GameReport.Entry(ply.index, white, describe(played, width, height));
+        int bestScore = rootResult[0], best = rootResult[1];
+        int playedScore;
+        if (played == best) {
+            playedScore = bestScore;
+        } else {
+            // known outcome: the real next position; else the expectation, on a fresh (unsearched) copy
+            Position after = Position.fromView(unknownOutcome ? view : ply.after, null);
+            if (unknownOutcome) after.make(played);
+            int[] afterResult = evaluate(after, child, childDepth());
+            if (afterResult == null) return new GameReport.Entry(ply.index, white, describe(played, width, height));
+            playedScore = after.isWhiteToMove() == white ? afterResult[0] : -afterResult[0];
+        }
+        int loss = bestScore - playedScore;
+
+        Set<GameReport.Mark> marks = EnumSet.noneOf(GameReport.Mark.class);
+        if (loss >= GameReport.BLUNDER_LOSS) marks.add(GameReport.Mark.BLUNDER);
+        boolean exploded = false;
+        if (steps) {
+            int to = Move.to(played);
+            exploded = (ply.after.stateAt(to / width, to % width) & Position.EXPLODED) != 0;
+            boolean bestSafe = best != Move.NONE && !Move.isChord(best) && !pos.isHidden(Move.to(best));
+            if (risk >= GameReport.RISK_MIN && bestSafe && loss >= GameReport.RISK_LOSS) marks.add(GameReport.Mark.HAZARD_RISK);
+        }
+        if (loss >= GameReport.MISS_LOSS && Move.isChord(best) && !Move.isChord(played))
+            marks.add(GameReport.Mark.MISSED_QUICK_REVEAL);
+        if (loss >= GameReport.MISS_LOSS && Move.isCapture(best) && !Move.isCapture(played))
+            marks.add(GameReport.Mark.MISSED_CAPTURE);
+        return new GameReport.Entry(ply.index, white, describe(played, width, height), describe(best, width, height),
+                bestScore, playedScore, risk, exploded, marks);
+    }
+
+    // {score for the side to move, best move} of pos, from the cache or a fresh search of the given depth;
+    // terminal positions are scored without searching; null when the search completed no iteration
+    private int[] evaluate(Position pos, Search search, int depth) {
+        if (pos.isTerminal()) {
+            boolean moverWon = (pos.getWinner() == 1) == pos.isWhiteToMove();
+            return new int[]{moverWon ? Search.MATE : -Search.MATE, Move.NONE};
+        }
+        long key = key(pos) + depth * 0x9E3779B97F4A7C15L;
+        int[] hit = cache.get(key);
+        if (hit != null) {
+            cacheHits.incrementAndGet();
+            return hit;
+        }
+        SearchStats stats = new SearchStats();
+        int best = search.bestMove(pos, stats);
+        searches.incrementAndGet();
+        if (best != Move.NONE && stats.getDepthReached() == 0) return null;
+        int[] result = {best == Move.NONE ? 0 : (int) stats.getScore(), best};
+        int[] raced = cache.putIfAbsent(key, result);
+        return raced != null ? raced : result;
+    }
+
+    // 64-bit hash of what the side to move sees (pieces, public cell states, numbers, turn, penalties)
+    private static long key(Position pos) {
+        long h = pos.isWhiteToMove() ? 0x9E3779B97F4A7C15L : 0x632BE59BD9B4E019L;
+        for (int sq = 0; sq < pos.size(); sq++) {
+            long cell = pos.pieceAt(sq) | (long) (pos.stateAt(sq) & PUBLIC_STATE) << 8 | (long) pos.numberAt(sq) << 16;
+            h = (h ^ cell ^ (long) sq << 32) * 0xBF58476D1CE4E5B9L;
+            h ^= h >>> 31;
+        }
+        // expected hazard penalties of a position reached by Position.make over a hidden cell
+        return (h ^ pos.getPenalty(true) ^ (long) pos.getPenalty(false) << 32) * 0x94D049BB133111EBL;
+    }
+
+    // the generated move matching a recorded move or quick reveal; Move.NONE for flags and anything the
+    // position does not allow
+    private static int find(Position pos, int[] action) {
+        if (action[0] != Board.ACTION_MOVE && action[0] != Board.ACTION_QUICK_REVEAL) return Move.NONE;
+        int w = pos.getWidth();
+        int from = action[1] * w + action[2], to = action[3] * w + action[4];
+        int[] moves = new int[Position.MAX_MOVES];
+        int count = pos.generateMoves(moves, false);
+        for (int i = 0; i < count; i++) {
+            int m = moves[i];
+            if (Move.from(m) != from || Move.to(m) != to) continue;
+            if (Move.isChord(m) == (action[0] == Board.ACTION_QUICK_REVEAL)) return m;
+        }
+        return Move.NONE;
+    }
+
+    private static String describe(int[] action, int height) {
+        return switch (action[0]) {
+            case Board.ACTION_MOVE -> square(action[1], action[2], height) + "-" + square(action[3], action[4], height);
+            case Board.ACTION_QUICK_REVEAL -> "reveal " + square(action[1], action[2], height);
+            case Board.ACTION_FLAG -> "flag " + square(action[1], action[2], height);
+            default -> "?";
+        };
+    }
+
+    private static String describe(int move, int width, int height) {
+        if (move == Move.NONE) return "-";
+        int f = Move.from(move), t = Move.to(move);
+        if (Move.isChord(move)) return "reveal " + square(f / width, f % width, height);
+        return square(f / width, f % width, height) + (Move.isCapture(move) ? "x" : "-") + square(t / width, t % width, height);
+    }
+
+    // chess coordinates: files a.. from the left, rank 1 at the bottom (white's side)
+    private static String square(int row, int col, int height) {
+        return (char) ('a' + col) + Integer.toString(height - row);
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 1) {
+            System.err.println("usage: GameAnalyser <saved game> [report file] [threads] [depth] [nodes]");
+            System.exit(2);
+        }
+        int threads = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+        int depth = args.length > 3 ? Integer.parseInt(args[3]) : DEFAULT_DEPTH;
+        long nodes = args.length > 4 ? Long.parseLong(args[4]) : DEFAULT_NODES;
+        Board board;
+        try (FileChannel ch = FileChannel.open(Path.of(args[0]), StandardOpenOption.READ)) {
+            board = Board.readFrom(ch);
+        }
+        List<Ply> plies = replay(board);
+        System.out.println(plies.size() + " actions, " + threads + " threads, depth " + depth + ", " + nodes + " nodes per search");
+        GameReport report = new GameAnalyser(threads, depth, nodes).analyse(plies);
+        if (args.length > 1) {
+            report.writeTo(Path.of(args[1]));
+            System.out.println(report.summary());
+        } else {
+            System.out.print(report.toText());
+        }
+    }
+}
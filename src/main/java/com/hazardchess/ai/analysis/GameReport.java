@@ -0,0 +1,135 @@
+package com.hazardchess.ai.analysis;
+
+import com.hazardchess.ai.Search;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Result of GameAnalyser: one entry per replayed action plus a summary per side.
+ * - loss = score of the best action - score of the played one, centipawns from the mover's view
+ *   (mate scores count as MAX_LOSS in averages)
+ * - marks: BLUNDER (loss >= BLUNDER_LOSS), HAZARD_RISK (stepped on a hidden cell of risk >= RISK_MIN
+ *   while the best action, at least RISK_LOSS better, touched no hidden cell), MISSED_QUICK_REVEAL / MISSED_CAPTURE (the best action
+ *   was a quick reveal / capture, the played one was not, and it cost at least MISS_LOSS)
+ */
+public final class GameReport {
+    public enum Mark { BLUNDER, HAZARD_RISK, MISSED_QUICK_REVEAL, MISSED_CAPTURE }
+
+    public static final int BLUNDER_LOSS = 200;
+    public static final int MISS_LOSS = 50;
+    public static final double RISK_MIN = 0.10;
+    public static final int RISK_LOSS = 25;
+    public static final int MAX_LOSS = 1000;
+
+    /** One action of the game; skipped entries (flags, unknown or illegal actions, searches cut off before depth 1) carry no scores. */
+    public static final class Entry {
+        public final int ply;
+        public final boolean white;
+        public final String played;
+        public final boolean skipped;
+        public final String best;
+        public final int bestScore, playedScore;
+        public final double risk;          // hazard risk of the cell the played move stepped on, 0 if none
+        public final boolean exploded;     // ... and it did explode
+        public final Set<Mark> marks;
+
+        Entry(int ply, boolean white, String played, String best, int bestScore, int playedScore,
+              double risk, boolean exploded, Set<Mark> marks) {
+            this.ply = ply;
+            this.white = white;
+            this.played = played;
+            this.skipped = false;
+            this.best = best;
+            this.bestScore = bestScore;
+            this.playedScore = playedScore;
+            this.risk = risk;
+            this.exploded = exploded;
+            this.marks = marks;
+        }
+
+        Entry(int ply, boolean white, String played) {
+            this.ply = ply;
+            this.white = white;
+            this.played = played;
+            this.skipped = true;
+            this.best = "";
+            this.bestScore = this.playedScore = 0;
+            this.risk = 0;
+            this.exploded = false;
+            this.marks = EnumSet.noneOf(Mark.class);
+        }
+
+        public int loss() {
+            return skipped ? 0 : Math.min(MAX_LOSS, Math.max(0, bestScore - playedScore));
+        }
+    }
+
+    private final List<Entry> entries;
+    private final double wallSeconds;
+    private final int threads;
+    private final long searches, cacheHits;
+
+    GameReport(List<Entry> entries, double wallSeconds, int threads, long searches, long cacheHits) {
+        this.entries = List.copyOf(entries);
+        this.wallSeconds = wallSeconds;
+        this.threads = threads;
+        this.searches = searches;
+        this.cacheHits = cacheHits;
+    }
+
+    public List<Entry> getEntries() { return entries; }
+    public double getWallSeconds() { return wallSeconds; }
+
+    /** A few lines per side: average loss and the number of each mark. */
+    public String summary() {
+        StringBuilder sb = new StringBuilder();
+        for (boolean white : new boolean[]{true, false}) {
+            int analysed = 0, lossSum = 0;
+            int[] marks = new int[Mark.values().length];
+            for (Entry e : entries) {
+                if (e.white != white || e.skipped) continue;
+                analysed++;
+                lossSum += e.loss();
+                for (Mark m : e.marks) marks[m.ordinal()]++;
+            }
+            sb.append(String.format("%s: %d actions, avg loss %.0f, blunders %d, hazard risks %d, missed quick reveals %d, missed captures %d%n",
+                    white ? "White" : "Black", analysed, analysed > 0 ? (double) lossSum / analysed : 0.0,
+                    marks[Mark.BLUNDER.ordinal()], marks[Mark.HAZARD_RISK.ordinal()],
+                    marks[Mark.MISSED_QUICK_REVEAL.ordinal()], marks[Mark.MISSED_CAPTURE.ordinal()]));
+        }
+        sb.append(String.format("%.1f s on %d threads, %d searches, %d cache hits", wallSeconds, threads, searches, cacheHits));
+        return sb.toString();
+    }
+
+    /** The summary, then every action with its scores and marks. */
+    public String toText() {
+        StringBuilder sb = new StringBuilder("Hazard Chess game analysis\n\n").append(summary()).append("\n\n");
+        for (Entry e : entries) {
+            sb.append(String.format("%3d. %s %-8s", e.ply + 1, e.white ? "W" : "B", e.played));
+            if (e.skipped) {
+                sb.append("  -\n");
+                continue;
+            }
+            sb.append(String.format("  best %-8s %7s  played %7s  loss %4d", e.best, score(e.bestScore), score(e.playedScore), e.loss()));
+            if (e.risk > 0) sb.append(String.format("  risk %.0f%%%s", e.risk * 100, e.exploded ? " (exploded)" : ""));
+            for (Mark m : e.marks) sb.append("  ").append(m.name().toLowerCase().replace('_', ' '));
+            sb.append('\n');
+        }
+        return sb.toString();
+    }
+
+    public void writeTo(Path file) throws IOException {
+        Files.writeString(file, toText(), StandardCharsets.UTF_8);
+    }
+
+    private static String score(int score) {
+        if (Math.abs(score) >= Search.MATE - 128) return (score > 0 ? "#" : "-#") + (Search.MATE - Math.abs(score));
+        return String.format("%+d", score);
+    }
+}
@@ -0,0 +1,77 @@
+package com.hazardchess.ai.puzzle;
+
+import com.hazardchess.ai.Move;
+import com.hazardchess.ai.Position;
+import com.hazardchess.game.BoardView;
+
+/**
+ * An accepted puzzle: in the given position the side to move captures the other king in `moves` moves,
+ * starting with `key`, under every consistent hazard layout (see PuzzleSolver).
+ * One line of text each: {@code <seed>/<ply> <w|b> <moves> <key> <pieces> <cells>}
+ * - seed / ply: the self-play game (Board seed) and ply it was found at
+ * - key: the first move in coordinates, e.g. d1-h5 or e4xf5 (files a.. left to right, rank 1 at the bottom)
+ * - pieces: rows top to bottom separated by '/', PNBRQK white, pnbrqk black, digits = runs of empty cells
+ * - cells: rows the same way, one char per cell: '#' hidden, 'f' flagged, 'x' exploded, '0'..'8' revealed number
+ */
+public final class Puzzle {
+    private static final String PIECES = ".PNBRQK";
+
+    public final long seed;
+    public final int ply, moves;
+    public final boolean whiteToMove;
+    public final String key, pieces, cells;
+
+    Puzzle(long seed, int ply, BoardView view, int moves, int key) {
+        this.seed = seed;
+        this.ply = ply;
+        this.moves = moves;
+        this.whiteToMove = view.isWhiteTurn();
+        int width = view.getWidth(), height = view.getHeight();
+        this.key = move(key, width, height);
+        StringBuilder p = new StringBuilder(), c = new StringBuilder();
+        for (int r = 0; r < height; r++) {
+            if (r > 0) {
+                p.append('/');
+                c.append('/');
+            }
+            int empty = 0;
+            for (int col = 0; col < width; col++) {
+                int piece = view.pieceAt(r, col);
+                if (piece == Position.EMPTY) {
+                    empty++;
+                } else {
+                    if (empty > 0) p.append(empty);
+                    empty = 0;
+                    char ch = PIECES.charAt(Position.type(piece));
+                    p.append(Position.isWhite(piece) ? ch : Character.toLowerCase(ch));
+                }
+                int st = view.stateAt(r, col);
+                if ((st & Position.EXPLODED) != 0) c.append('x');
+                else if ((st & Position.REVEALED) != 0) c.append((char) ('0' + Math.max(0, view.numberAt(r, col))));
+                else if ((st & Position.FLAGGED) != 0) c.append('f');
+                else c.append('#');
+            }
+            if (empty > 0) p.append(empty);
+        }
+        this.pieces = p.toString();
+        this.cells = c.toString();
+    }
+
+    /** The position alone (side to move, pieces, cells), for spotting the same puzzle twice. */
+    String positionKey() {
+        return (whiteToMove ? "w " : "b ") + pieces + " " + cells;
+    }
+
+    public String toLine() {
+        return seed + "/" + ply + " " + (whiteToMove ? "w" : "b") + " " + moves + " " + key + " " + pieces + " " + cells;
+    }
+
+    private static String move(int move, int width, int height) {
+        int f = Move.from(move), t = Move.to(move);
+        return square(f, width, height) + (Move.isCapture(move) ? "x" : "-") + square(t, width, height);
+    }
+
+    private static String square(int sq, int width, int height) {
+        return (char) ('a' + sq % width) + Integer.toString(height - sq / width);
+    }
+}
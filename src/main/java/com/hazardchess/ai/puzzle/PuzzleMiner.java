@@ -0,0 +1,265 @@
+package com.hazardchess.ai.puzzle;
+
+import com.hazardchess.ai.Position;
+import com.hazardchess.ai.Search;
+import com.hazardchess.ai.SelfPlay;
+import com.hazardchess.game.Board;
+import com.hazardchess.game.BoardView;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Mines "win the king in n moves" puzzles (see PuzzleSolver) from seeded self-play games, as a pipeline
+ * of three thread pools joined by bounded queues (a full queue blocks the stage feeding it):
+ * - generate: plays games (node-limited Search, some random plies for the mistakes puzzles come from) and
+ *   queues every position from OPENING_PLIES on
+ * - filter: the shortest pessimistic win up to maxMoves; kept when it needs at least MIN_MOVES moves and
+ *   has a single first move
+ * - verify: no optimistic win in fewer moves and no other optimistic first move, i.e. the solution is
+ *   unique and minimal under every consistent layout; new positions are written as Puzzle lines
+ * The games, and so the puzzle positions found, depend only on the seed; the order of the lines on the threads.
+ * A stage thread that fails stops the whole pipeline (the others are interrupted) and run() throws.
+ * Usage: PuzzleMiner <out file> [games] [threads] [maxMoves] [height] [seed]
+ */
+public final class PuzzleMiner {
+    public static final int MIN_MOVES = 2;
+    /** Deepest search the solver's per-ply move buffers allow (two plies per move). */
+    public static final int MAX_MOVES = (Position.MAX_PLY - 1) / 2;
+    private static final int QUEUE_CAPACITY = 256;
+    private static final int OPENING_PLIES = 6;
+    private static final int MAX_PLIES = 200;
+    private static final double RANDOM_PLY = 0.2;
+    private static final int ENGINE_DEPTH = 3;
+    // the engine's only limit (no clock, Search saturates its deadline), so a game depends on its seed alone
+    private static final long ENGINE_NODES = 2_000;
+
+    private static final class Candidate {
+        final long seed;
+        final int ply;
+        final BoardView view;
+        int moves, key;
+
+        Candidate(long seed, int ply, BoardView view) {
+            this.seed = seed;
+            this.ply = ply;
+            this.view = view;
+        }
+    }
+
+    private static final Candidate DONE = new Candidate(0, 0, null);
+
+    private final int games, height, maxMoves;
+    private final int generators, filters, verifiers;
+    private final long seed;
+    private final BlockingQueue<Candidate> positions = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+    private final BlockingQueue<Candidate> candidates = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+    private final Set<String> seen = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger nextGame = new AtomicInteger();
+    private final AtomicReference<IllegalStateException> failure = new AtomicReference<>();
+    private final List<Thread> threads = new ArrayList<>();
+    private Thread runner;
+    private final AtomicLong generated = new AtomicLong(), filtered = new AtomicLong(), accepted = new AtomicLong();
+    private final AtomicLong filterNodes = new AtomicLong(), verifyNodes = new AtomicLong();
+    // busy time per stage (time spent waiting on a queue excluded)
+    private final AtomicLong generateNanos = new AtomicLong(), filterNanos = new AtomicLong(), verifyNanos = new AtomicLong();
+    private Writer out;
+
+    public PuzzleMiner(int games, int threads, int maxMoves, int height, long seed) {
+        this.games = games;
+        this.height = height;
+        this.maxMoves = Math.min(MAX_MOVES, Math.max(MIN_MOVES, maxMoves));
+        this.seed = seed;
+        // the searches downstream cost far more than playing the games
+        int t = Math.max(3, threads);
+        this.generators = Math.max(1, t / 4);
+        this.verifiers = Math.max(1, t / 4);
+        this.filters = t - generators - verifiers;
+    }
+
+    /**
+     * Mines all games, appending accepted puzzles to out; prints the summary. Throws IllegalStateException,
+     * caused by what the stage threw, when a stage thread fails (the puzzles written so far stay in out).
+     */
+    public void run(Writer out) throws InterruptedException {
+        this.out = out;
+        this.runner = Thread.currentThread();
+        long t0 = System.nanoTime();
+        // all threads exist before any starts, so a failure can reach every one of them
+        List<Thread> generate = create("generate", generators, this::generate);
+        List<Thread> filter = create("filter", filters, this::filter);
+        List<Thread> verify = create("verify", verifiers, this::verify);
+        for (Thread t : threads) t.start();
+        try {
+            // shut down stage by stage: a DONE per consumer once its producers are through
+            for (Thread t : generate) t.join();
+            for (int i = 0; i < filters; i++) positions.put(DONE);
+            for (Thread t : filter) t.join();
+            for (int i = 0; i < verifiers; i++) candidates.put(DONE);
+            for (Thread t : verify) t.join();
+        } catch (InterruptedException e) {
+            // a failed stage woke us up (its DONE may never be taken), or the caller gave up: stop everything
+            if (failure.get() == null) {
+                for (Thread t : threads) t.interrupt();
+                throw e;
+            }
+            for (Thread t : threads) t.join();
+        }
+        if (failure.get() != null) throw failure.get();
+        report((System.nanoTime() - t0) / 1e9);
+    }
+
+    private List<Thread> create(String stage, int n, Runnable body) {
+        List<Thread> created = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            created.add(Thread.ofPlatform().name("PuzzleMiner-" + stage + "-" + i).unstarted(() -> {
+                if (failure.get() != null) return;
+                try {
+                    body.run();
+                } catch (RuntimeException | Error e) {
+                    fail(e);
+                }
+            }));
+        }
+        threads.addAll(created);
+        return created;
+    }
+
+    // the first failure wins; interrupting the others makes their blocked put / take return
+    private void fail(Throwable e) {
+        if (!failure.compareAndSet(null, new IllegalStateException(Thread.currentThread().getName() + " failed: " + e, e))) return;
+        for (Thread t : threads) if (t != Thread.currentThread()) t.interrupt();
+        runner.interrupt();
+    }
+
+    private void generate() {
+        Search engine = new Search(ENGINE_DEPTH, Long.MAX_VALUE);
+        engine.setNodeLimit(ENGINE_NODES);
+        int game;
+        try {
+            while ((game = nextGame.getAndIncrement()) < games) {
+                long gameSeed = seed + game * 0x9E3779B97F4A7C15L;
+                Board board = new Board(height, 2, gameSeed);
+                Random rnd = new Random(gameSeed);
+                for (int ply = 0; ply < MAX_PLIES && !board.isGameOver(); ply++) {
+                    long start = System.nanoTime();
+                    BoardView view = ply >= OPENING_PLIES ? board.snapshotView() : null;
+                    boolean moved = rnd.nextDouble() < RANDOM_PLY ? SelfPlay.playRandomMove(board, rnd)
+                            : SelfPlay.apply(board, board.decideAIMove(engine));
+                    generateNanos.addAndGet(System.nanoTime() - start);
+                    if (view != null) {
+                        positions.put(new Candidate(gameSeed, ply, view));
+                        generated.incrementAndGet();
+                    }
+                    if (!moved) break;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void filter() {
+        PuzzleSolver solver = new PuzzleSolver();
+        int[] keys = new int[2];
+        try {
+            Candidate c;
+            while ((c = positions.take()) != DONE) {
+                long start = System.nanoTime(), nodes = solver.getNodes();
+                Position pos = Position.fromView(c.view, null);
+                int n = 1, found = 0;
+                for (; n <= maxMoves && !pos.isTerminal(); n++) {
+                    found = solver.winningMoves(pos, n, PuzzleSolver.PESSIMISTIC, keys, 2);
+                    if (found > 0) break;
+                }
+                filterNodes.addAndGet(solver.getNodes() - nodes);
+                filterNanos.addAndGet(System.nanoTime() - start);
+                if (found != 1 || n < MIN_MOVES) continue;
+                c.moves = n;
+                c.key = keys[0];
+                candidates.put(c);
+                filtered.incrementAndGet();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void verify() {
+        PuzzleSolver solver = new PuzzleSolver();
+        int[] wins = new int[2];
+        try {
+            Candidate c;
+            while ((c = candidates.take()) != DONE) {
+                long start = System.nanoTime(), nodes = solver.getNodes();
+                Position pos = Position.fromView(c.view, null);
+                boolean unique = solver.winningMoves(pos, c.moves - 1, PuzzleSolver.OPTIMISTIC, wins, 1) == 0
+                        && solver.winningMoves(pos, c.moves, PuzzleSolver.OPTIMISTIC, wins, 2) == 1;
+                verifyNodes.addAndGet(solver.getNodes() - nodes);
+                verifyNanos.addAndGet(System.nanoTime() - start);
+                if (!unique) continue;
+                Puzzle puzzle = new Puzzle(c.seed, c.ply, c.view, c.moves, c.key);
+                if (!seen.add(puzzle.positionKey())) continue;
+                accepted.incrementAndGet();
+                write(puzzle.toLine());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void write(String line) {
+        synchronized (out) {
+            try {
+                out.write(line);
+                out.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    private void report(double seconds) {
+        int threads = generators + filters + verifiers;
+        int cores = Math.min(threads, Runtime.getRuntime().availableProcessors());
+        System.out.printf("%d games, %d positions, %d candidates, %d puzzles in %.1f s%n",
+                games, generated.get(), filtered.get(), accepted.get(), seconds);
+        System.out.printf("busy: generate %.1f s (%d threads), filter %.1f s (%d threads, %d nodes), verify %.1f s (%d threads, %d nodes)%n",
+                generateNanos.get() / 1e9, generators, filterNanos.get() / 1e9, filters, filterNodes.get(),
+                verifyNanos.get() / 1e9, verifiers, verifyNodes.get());
+        System.out.printf("%.0f puzzles/hour per core (%d cores)%n", accepted.get() * 3600.0 / seconds / cores, cores);
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 1) {
+            System.err.println("usage: PuzzleMiner <out file> [games] [threads] [maxMoves] [height] [seed]");
+            System.exit(2);
+        }
+        int games = args.length > 1 ? Integer.parseInt(args[1]) : 100;
+        int threads = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+        int maxMoves = args.length > 3 ? Integer.parseInt(args[3]) : 3;
+        int height = args.length > 4 ? Integer.parseInt(args[4]) : 8;
+        long seed = args.length > 5 ? Long.parseLong(args[5]) : 1;
+        PuzzleMiner miner = new PuzzleMiner(games, threads, maxMoves, height, seed);
+        System.out.println(games + " games, puzzles of " + MIN_MOVES + ".." + miner.maxMoves + " moves, "
+                + miner.generators + " / " + miner.filters + " / " + miner.verifiers + " generate / filter / verify threads");
+        try (BufferedWriter out = Files.newBufferedWriter(Path.of(args[0]), StandardCharsets.UTF_8)) {
+            miner.run(out);
+        }
+    }
+}
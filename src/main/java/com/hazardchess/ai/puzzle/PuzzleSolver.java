@@ -0,0 +1,146 @@
+package com.hazardchess.ai.puzzle;
+
+import com.hazardchess.ai.Move;
+import com.hazardchess.ai.Position;
+
+/**
+ * "Win the king in n moves": the side to move (the solver) captures the other king within n of its own
+ * moves whatever the defence, only ever making moves whose outcome is known to be safe.
+ * - solver moves: plain moves onto revealed / already visited cells that trigger no quick reveal, and
+ *   captures or proven-safe steps onto hidden cells with no flag around (no quick reveal possible there)
+ * - defender moves: all of them; the hazard question of a hidden cell is answered both ways (unless proven),
+ *   via Position.makeStep; a move whose outcome the position cannot model (quick reveals, a possible quick
+ *   reveal on arrival) is an uncertain outcome
+ * - PESSIMISTIC: every answer goes against the solver and uncertain outcomes refute, so a win holds under
+ *   every hazard layout consistent with the position
+ * - OPTIMISTIC: the answers go the solver's way, uncertain outcomes win and hidden cells next to a cell
+ *   opened during the line count as safe (a flood or a new number may have cleared them), so no win here
+ *   means no win under any layout; used to prove a solution unique and the length minimal
+ * One instance per thread.
+ */
+final class PuzzleSolver {
+    static final boolean PESSIMISTIC = false, OPTIMISTIC = true;
+
+    private static final int MAKE = 1, SAFE = 2, HAZARD = 4, UNCERTAIN = 8;
+    private static final int[] DR = {-1, -1, -1, 0, 0, 1, 1, 1};
+    private static final int[] DC = {-1, 0, 1, -1, 1, -1, 0, 1};
+
+    private final int[][] moves = new int[Position.MAX_PLY][Position.MAX_MOVES];
+    private long nodes;
+
+    long getNodes() { return nodes; }
+
+    /** Solver moves (as generated) that win within n in the given model, into out; returns how many. */
+    int winningMoves(Position pos, int n, boolean optimistic, int[] out, int limit) {
+        int found = 0;
+        int[] buf = moves[0];
+        int count = pos.generateMoves(buf, n == 1);
+        boolean white = pos.isWhiteToMove();
+        for (int i = 0; i < count && found < limit; i++) {
+            if (solverMoveWins(pos, buf[i], n, white, optimistic, 1)) out[found++] = buf[i];
+        }
+        return found;
+    }
+
+    // solver to move, n moves left
+    private boolean solverWins(Position pos, int n, boolean optimistic, int ply) {
+        int[] buf = moves[ply];
+        int count = pos.generateMoves(buf, n == 1);   // the last move is a capture
+        boolean white = pos.isWhiteToMove();
+        for (int i = 0; i < count; i++) {
+            if (solverMoveWins(pos, buf[i], n, white, optimistic, ply + 1)) return true;
+        }
+        return false;
+    }
+
+    private boolean solverMoveWins(Position pos, int m, int n, boolean white, boolean optimistic, int ply) {
+        // the last move has to take the king
+        if (n == 1 && (!Move.isCapture(m) || Position.type(pos.pieceAt(Move.to(m))) != Position.KING)) return false;
+        int outcomes = outcomes(pos, m);
+        if (optimistic && (outcomes & HAZARD) != 0 && opened(pos, Move.to(m))) outcomes = SAFE;
+        if (outcomes != MAKE && outcomes != SAFE) return false;
+        nodes++;
+        play(pos, m, outcomes);
+        boolean win = pos.isTerminal() ? wonBy(pos, white)
+                : n > 1 && defenderLoses(pos, n - 1, white, optimistic, ply);
+        pos.unmake();
+        return win;
+    }
+
+    // defender to move, the solver (white or not) has n moves left
+    private boolean defenderLoses(Position pos, int n, boolean white, boolean optimistic, int ply) {
+        int[] buf = moves[ply];
+        int count = pos.generateMoves(buf, false);
+        if (count == 0) return false;
+        for (int i = 0; i < count; i++) {
+            int m = buf[i];
+            int outcomes = outcomes(pos, m);
+            // pessimistic: every outcome of m must still lose for the defender; optimistic: one is enough
+            boolean anyLost = false, allLost = true;
+            for (int o = MAKE; o <= UNCERTAIN && (optimistic ? !anyLost : allLost); o <<= 1) {
+                if ((outcomes & o) == 0) continue;
+                boolean lost;
+                if (o == UNCERTAIN) {
+                    lost = optimistic;
+                } else {
+                    nodes++;
+                    play(pos, m, o);
+                    lost = pos.isTerminal() ? wonBy(pos, white) : solverWins(pos, n, optimistic, ply + 1);
+                    pos.unmake();
+                }
+                anyLost |= lost;
+                allLost &= lost;
+            }
+            if (optimistic ? !anyLost : !allLost) return false;
+        }
+        return true;
+    }
+
+    private static void play(Position pos, int m, int outcome) {
+        if (outcome == MAKE) pos.make(m);
+        else pos.makeStep(m, outcome == HAZARD);
+    }
+
+    private static boolean wonBy(Position pos, boolean white) {
+        return pos.getWinner() == (white ? 1 : 2);
+    }
+
+    // what playing m can lead to: MAKE (no hazard question), SAFE / HAZARD answers for a hidden cell,
+    // UNCERTAIN for anything the position cannot play out
+    private static int outcomes(Position pos, int m) {
+        if (Move.isChord(m)) return UNCERTAIN;
+        int to = Move.to(m);
+        boolean flags = flagsAround(pos, to);
+        if (!pos.isHidden(to)) {
+            // arriving on a number can quick-reveal it (Board.movePiece): known for revealed cells, possible
+            // on visited ones (their number is not in the position) when there is a flag around
+            boolean revealed = (pos.stateAt(to) & Position.REVEALED) != 0;
+            return (revealed ? pos.canChord(to) : flags) ? UNCERTAIN : MAKE;
+        }
+        int st = pos.stateAt(to);
+        // an occupied cell never holds a hazard (none are placed under pieces, and a piece on one explodes)
+        boolean hazard = pos.pieceAt(to) == Position.EMPTY && (st & Position.PROVEN_SAFE) == 0;
+        boolean safe = (st & Position.PROVEN_HAZARD) == 0;
+        // a safe hidden cell is revealed on arrival and quick-reveals when its number matches the flags
+        return (hazard ? HAZARD : 0) | (safe ? (flags ? UNCERTAIN : SAFE) : 0);
+    }
+
+    private static boolean flagsAround(Position pos, int sq) {
+        int w = pos.getWidth(), h = pos.getHeight(), r = sq / w, c = sq % w;
+        for (int i = 0; i < 8; i++) {
+            int nr = r + DR[i], nc = c + DC[i];
+            if (nr >= 0 && nr < h && nc >= 0 && nc < w && (pos.stateAt(nr * w + nc) & Position.FLAGGED) != 0) return true;
+        }
+        return false;
+    }
+
+    // next to a cell stepped on since the root (pos.getVisited), whose real number or flood may have cleared sq
+    private static boolean opened(Position pos, int sq) {
+        int w = pos.getWidth(), h = pos.getHeight(), r = sq / w, c = sq % w;
+        for (int i = 0; i < 8; i++) {
+            int nr = r + DR[i], nc = c + DC[i];
+            if (nr >= 0 && nr < h && nc >= 0 && nc < w && (pos.stateAt(nr * w + nc) & Position.VISITED) != 0) return true;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,80 @@
+package com.hazardchess.ai.tuning;
+
+import com.hazardchess.ai.Evaluator;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Evaluates a whole TuningCorpus for one weight vector, split in fixed chunks across a thread pool.
+ * - error = mean of (result - sigmoid(k * eval))^2, the Texel objective
+ * - chunks are summed in index order, so the result does not depend on scheduling
+ * - the inner loop is a dot product over a short[] slice: no objects, no Position rebuilds
+ */
+public final class CorpusEvaluator implements AutoCloseable {
+    private static final int CHUNK = 1 << 16;
+    private static final double LN10_OVER_400 = Math.log(10.0) / 400.0;
+
+    private final TuningCorpus corpus;
+    private final ExecutorService pool;
+    private long positionsEvaluated;
+
+    public CorpusEvaluator(TuningCorpus corpus, int threads) {
+        this.corpus = corpus;
+        this.pool = Executors.newFixedThreadPool(Math.max(1, threads), r -> {
+            Thread t = new Thread(r, "Tuning-Worker");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    public long getPositionsEvaluated() { return positionsEvaluated; }
+
+    public double meanSquaredError(int[] weights, double k) {
+        int n = corpus.size();
+        if (n == 0) return 0.0;
+        double scale = k * LN10_OVER_400;
+        List<Future<Double>> parts = new ArrayList<>();
+        for (int from = 0; from < n; from += CHUNK) {
+            int start = from, end = Math.min(n, from + CHUNK);
+            parts.add(pool.submit(() -> chunkError(weights, scale, start, end)));
+        }
+        double sum = 0.0;
+        try {
+            for (Future<Double> f : parts) sum += f.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("corpus evaluation interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("corpus evaluation failed", e.getCause());
+        }
+        positionsEvaluated += n;
+        return sum / n;
+    }
+
+    private double chunkError(int[] weights, double scale, int start, int end) {
+        short[] f = corpus.features();
+        byte[] res = corpus.results();
+        int k = corpus.paramCount();
+        double err = 0.0;
+        for (int i = start; i < end; i++) {
+            int base = i * k;
+            long dot = 0;
+            for (int j = 0; j < k; j++) dot += (long) weights[j] * f[base + j];
+            int eval = (int) (dot >> Evaluator.SHIFT);
+            double predicted = 1.0 / (1.0 + Math.exp(-scale * eval));
+            double diff = res[i] * 0.5 - predicted;
+            err += diff * diff;
+        }
+        return err;
+    }
+
+    @Override
+    public void close() {
+        pool.shutdownNow();
+    }
+}
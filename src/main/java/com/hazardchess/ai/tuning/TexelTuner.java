@@ -0,0 +1,181 @@
+package com.hazardchess.ai.tuning;
+
+import com.hazardchess.ai.Evaluator;
+import com.hazardchess.ai.Move;
+import com.hazardchess.ai.Position;
+import com.hazardchess.ai.Search;
+import com.hazardchess.ai.SelfPlay;
+import com.hazardchess.game.Board;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Texel-style tuning of the Evaluator weights.
+ *   selfplay <games> <corpus.bin> [threads]   play AI-vs-AI games, store quiet positions + game result
+ *   tune <corpus.bin> [maxIterations] [threads] fit the sigmoid scale, then coordinate descent on the weights
+ */
+public final class TexelTuner {
+    private static final int OPENING_RANDOM_PLIES = 4;
+    private static final int MIN_RECORD_PLY = 6;
+    private static final int SELFPLAY_DEPTH = 2;
+    // a node limit and no clock, so the moves do not depend on the machine or its load
+    private static final long SELFPLAY_NODES = 20_000;
+
+    private TexelTuner() {}
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 2) {
+            System.err.println("usage: TexelTuner selfplay <games> <corpus.bin> [threads]");
+            System.err.println("       TexelTuner tune <corpus.bin> [maxIterations] [threads]");
+            System.exit(2);
+        }
+        int cores = Runtime.getRuntime().availableProcessors();
+        switch (args[0]) {
+            case "selfplay" -> {
+                int games = Integer.parseInt(args[1]);
+                int threads = args.length > 3 ? Integer.parseInt(args[3]) : cores;
+                long t0 = System.nanoTime();
+                TuningCorpus corpus = selfPlay(games, threads);
+                corpus.write(Path.of(args[2]));
+                System.out.printf("%d games -> %d positions in %.1f s%n", games, corpus.size(), (System.nanoTime() - t0) / 1e9);
+            }
+            case "tune" -> {
+                TuningCorpus corpus = TuningCorpus.read(Path.of(args[1]));
+                int iterations = args.length > 2 ? Integer.parseInt(args[2]) : 100;
+                int threads = args.length > 3 ? Integer.parseInt(args[3]) : cores;
+                int[] tuned = tune(corpus, Evaluator.defaultParams(), iterations, threads);
+                System.out.println("tuned: " + Arrays.toString(tuned));
+            }
+            default -> {
+                System.err.println("unknown command " + args[0]);
+                System.exit(2);
+            }
+        }
+    }
+
+    // ---------------- extraction ----------------
+    /**
+     * Plays games on all threads; game g uses seed g for its hazard layout and opening plies, and games
+     * are split in fixed slices, so the same arguments give the same corpus in the same order.
+     */
+    public static TuningCorpus selfPlay(int games, int threads) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(Math.max(1, threads));
+        try {
+            List<Future<TuningCorpus>> parts = new ArrayList<>();
+            int per = (games + threads - 1) / threads;
+            for (int t = 0; t < threads; t++) {
+                int first = t * per, last = Math.min(games, first + per);
+                if (first >= last) break;
+                parts.add(pool.submit(() -> playSlice(first, last)));
+            }
+            TuningCorpus all = new TuningCorpus();
+            for (Future<TuningCorpus> f : parts) all.addAll(f.get());
+            return all;
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private static TuningCorpus playSlice(int first, int last) {
+        TuningCorpus out = new TuningCorpus();
+        Search white = new Search(SELFPLAY_DEPTH, Long.MAX_VALUE);
+        Search black = new Search(SELFPLAY_DEPTH, Long.MAX_VALUE);
+        white.setNodeLimit(SELFPLAY_NODES);
+        black.setNodeLimit(SELFPLAY_NODES);
+        int[] buf = new int[Position.MAX_MOVES];
+        for (int g = first; g < last; g++) {
+            Random rnd = new Random(g);
+            Board board = new Board(8, 2, g);
+            for (int i = 0; i < OPENING_RANDOM_PLIES && !board.isGameOver(); i++) {
+                if (!SelfPlay.playRandomMove(board, rnd)) break;
+            }
+            List<int[]> features = new ArrayList<>();
+            Boolean winner = SelfPlay.play(board, white, black, SelfPlay.DEFAULT_MAX_PLIES, (b, ply) -> {
+                if (ply < MIN_RECORD_PLY) return;
+                Position pos = Position.fromBoard(b, null);
+                if (hasCapture(pos, buf)) return; // only quiet positions carry a clean label
+                Evaluator.DEFAULT.attach(pos);
+                int[] f = new int[Evaluator.PARAM_COUNT];
+                Evaluator.features(pos, f);
+                features.add(f);
+            });
+            int result = winner == null ? 1 : (winner ? 2 : 0);
+            for (int[] f : features) out.add(f, result);
+        }
+        return out;
+    }
+
+    private static boolean hasCapture(Position pos, int[] buf) {
+        int n = pos.generateMoves(buf, true);
+        for (int i = 0; i < n; i++) if (Move.isCapture(buf[i])) return true;
+        return false;
+    }
+
+    // ---------------- tuning ----------------
+    public static int[] tune(TuningCorpus corpus, int[] start, int maxIterations, int threads) {
+        int[] w = start.clone();
+        try (CorpusEvaluator eval = new CorpusEvaluator(corpus, threads)) {
+            long t0 = System.nanoTime();
+            double k = fitScale(eval, w);
+            double best = eval.meanSquaredError(w, k);
+            System.out.printf("positions %d, k = %.3f, start error %.6f%n", corpus.size(), k, best);
+
+            for (int iter = 1; iter <= maxIterations; iter++) {
+                boolean improved = false;
+                for (int i = 0; i < w.length; i++) {
+                    int step = i <= Evaluator.W_QUEEN ? 5 : 1;
+                    for (int delta : new int[]{step, -step}) {
+                        w[i] += delta;
+                        double e = eval.meanSquaredError(w, k);
+                        if (e < best) {
+                            best = e;
+                            improved = true;
+                            break;
+                        }
+                        w[i] -= delta;
+                    }
+                }
+                double secs = (System.nanoTime() - t0) / 1e9;
+                System.out.printf("iter %d error %.6f %s (%.1f M positions/s)%n", iter, best, describe(w),
+                        eval.getPositionsEvaluated() / secs / 1e6);
+                if (!improved) break;
+            }
+        }
+        return w;
+    }
+
+    // golden-section search of the sigmoid scale on the starting weights
+    private static double fitScale(CorpusEvaluator eval, int[] w) {
+        double lo = 0.05, hi = 5.0, phi = (Math.sqrt(5) - 1) / 2;
+        double a = hi - phi * (hi - lo), b = lo + phi * (hi - lo);
+        double fa = eval.meanSquaredError(w, a), fb = eval.meanSquaredError(w, b);
+        for (int i = 0; i < 30; i++) {
+            if (fa < fb) {
+                hi = b; b = a; fb = fa;
+                a = hi - phi * (hi - lo);
+                fa = eval.meanSquaredError(w, a);
+            } else {
+                lo = a; a = b; fa = fb;
+                b = lo + phi * (hi - lo);
+                fb = eval.meanSquaredError(w, b);
+            }
+        }
+        return (lo + hi) / 2;
+    }
+
+    private static String describe(int[] w) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < w.length; i++) {
+            if (i > 0) sb.append(' ');
+            sb.append(Evaluator.PARAM_NAMES[i]).append('=').append(w[i]);
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,206 @@
+package com.hazardchess.ai.tuning;
+
+import com.hazardchess.ai.AIDecision;
+import com.hazardchess.ai.AIProfile;
+import com.hazardchess.ai.Engine;
+import com.hazardchess.ai.Ismcts;
+import com.hazardchess.ai.Search;
+import com.hazardchess.ai.SelfPlay;
+import com.hazardchess.game.Board;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Engine A vs engine B, in pairs of games on the same seeded hazard layout with colours swapped.
+ * - both games of a pair also share a few random opening plies, so pairs differ but the two
+ *   games of one pair start from the same board
+ * - games run concurrently (one game per thread, so give each engine a single thread)
+ * - SPRT on the pentanomial pair scores (normal approximation): H0 elo = elo0, H1 elo = elo1,
+ *   alpha = beta = 0.05; from MIN_PAIRS pairs on, the run stops once the log-likelihood ratio
+ *   leaves its bounds (games already running are finished and counted)
+ * - a game with no result after SelfPlay.DEFAULT_MAX_PLIES counts as a draw
+ * Engines: search:<depth>:<ms> | ismcts:<ms> (one thread) | EASY / NORMAL / HARD / ISMCTS profile.
+ * Usage: Tournament <engineA> <engineB> [maxGames] [threads] [elo0] [elo1] [seed]
+ */
+public final class Tournament {
+    private static final int OPENING_RANDOM_PLIES = 4;
+    private static final double ALPHA = 0.05, BETA = 0.05;
+    /** The normal approximation is meaningless on a handful of pairs: no SPRT decision before this many. */
+    private static final int MIN_PAIRS = 10;
+    private static final double PSEUDO_COUNT = 1e-3;
+
+    private final Supplier<Engine> engineA, engineB;
+    private final int maxPairs, threads;
+    private final double elo0, elo1;
+    private final long seed;
+
+    // per pair: A's points in its first game (A white) and second game (A black), -1 while running
+    private final double[][] pairPoints;
+    private final int[] pentanomial = new int[5];   // pairs by A's pair score 0, 0.5, 1, 1.5, 2
+    private int pairsDone, winsA, draws, lossesA;
+    private long nanosA, movesA, nanosB, movesB;
+    private double llr;
+    private String verdict = "no decision";
+    private final AtomicBoolean decided = new AtomicBoolean();
+
+    public Tournament(Supplier<Engine> engineA, Supplier<Engine> engineB, int maxGames, int threads,
+                      double elo0, double elo1, long seed) {
+        this.engineA = engineA;
+        this.engineB = engineB;
+        this.maxPairs = Math.max(1, maxGames / 2);
+        this.threads = Math.max(1, threads);
+        this.elo0 = elo0;
+        this.elo1 = elo1;
+        this.seed = seed;
+        this.pairPoints = new double[maxPairs][];
+    }
+
+    /** Plays until the SPRT decides or maxGames are played; prints progress and the summary. */
+    public void run() throws InterruptedException {
+        AtomicInteger next = new AtomicInteger();
+        long t0 = System.nanoTime();
+        Thread[] workers = new Thread[threads];
+        for (int i = 0; i < threads; i++) {
+            workers[i] = Thread.ofPlatform().name("Tournament-" + i).start(() -> {
+                int game;
+                while (!decided.get() && (game = next.getAndIncrement()) < maxPairs * 2) playGame(game);
+            });
+        }
+        for (Thread w : workers) w.join();
+        report((System.nanoTime() - t0) / 1e9, true);
+    }
+
+    // game 2p: A white, game 2p+1: A black, both on pair p's seed
+    private void playGame(int game) {
+        int pair = game / 2;
+        boolean aWhite = game % 2 == 0;
+        long pairSeed = seed + pair * 0x9E3779B97F4A7C15L;
+        Board board = new Board(8, 2, pairSeed);
+        Random opening = new Random(pairSeed);
+        for (int i = 0; i < OPENING_RANDOM_PLIES && !board.isGameOver(); i++) SelfPlay.playRandomMove(board, opening);
+
+        Engine a = engineA.get(), b = engineB.get();
+        long[] nanos = new long[2], moves = new long[2];   // index 0 = A, 1 = B
+        for (int ply = 0; ply < SelfPlay.DEFAULT_MAX_PLIES && !board.isGameOver(); ply++) {
+            boolean aToMove = board.isWhiteTurn() == aWhite;
+            long start = System.nanoTime();
+            AIDecision decision = board.decideAIMove(aToMove ? a : b);
+            int side = aToMove ? 0 : 1;
+            nanos[side] += System.nanoTime() - start;
+            moves[side]++;
+            if (!SelfPlay.apply(board, decision)) break;
+        }
+        Boolean whiteWon = board.isGameOver() ? board.getWhiteWinner() : null;
+        double points = whiteWon == null ? 0.5 : whiteWon == aWhite ? 1.0 : 0.0;
+        record(pair, aWhite, points, nanos, moves);
+    }
+
+    private synchronized void record(int pair, boolean aWhite, double points, long[] nanos, long[] moves) {
+        nanosA += nanos[0];
+        movesA += moves[0];
+        nanosB += nanos[1];
+        movesB += moves[1];
+        if (points == 1.0) winsA++;
+        else if (points == 0.0) lossesA++;
+        else draws++;
+        if (pairPoints[pair] == null) pairPoints[pair] = new double[]{-1, -1};
+        pairPoints[pair][aWhite ? 0 : 1] = points;
+        if (pairPoints[pair][0] < 0 || pairPoints[pair][1] < 0) return;
+
+        pentanomial[(int) Math.round((pairPoints[pair][0] + pairPoints[pair][1]) * 2)]++;
+        pairsDone++;
+        llr = llr();
+        double lower = Math.log(BETA / (1 - ALPHA)), upper = Math.log((1 - BETA) / ALPHA);
+        if (!decided.get() && pairsDone >= MIN_PAIRS && (llr <= lower || llr >= upper)) {
+            verdict = llr >= upper ? "H1 accepted (A stronger by >= elo1)" : "H0 accepted (A not stronger than elo0)";
+            decided.set(true);
+        }
+        if (pairsDone % 10 == 0) report(0, false);
+    }
+
+    // GSPRT log-likelihood ratio over pair scores in [0, 1]
+    private double llr() {
+        double mean = mean(), var = variance(mean);
+        if (var <= 0) return 0.0;
+        double s0 = expectedScore(elo0), s1 = expectedScore(elo1);
+        return pairsDone * (s1 - s0) * (2 * mean - s0 - s1) / (2 * var);
+    }
+
+    // pair counts get a tiny pseudo-count, so identical engines (every pair scoring 1) still give
+    // a non-zero variance and the test can accept H0
+    private double mean() {
+        double sum = 0;
+        for (int k = 0; k < 5; k++) sum += (pentanomial[k] + PSEUDO_COUNT) * k / 4.0;
+        return sum / (pairsDone + 5 * PSEUDO_COUNT);
+    }
+
+    private double variance(double mean) {
+        double sum = 0;
+        for (int k = 0; k < 5; k++) sum += (pentanomial[k] + PSEUDO_COUNT) * (k / 4.0 - mean) * (k / 4.0 - mean);
+        return sum / (pairsDone + 5 * PSEUDO_COUNT);
+    }
+
+    private static double expectedScore(double elo) {
+        return 1.0 / (1.0 + Math.pow(10.0, -elo / 400.0));
+    }
+
+    private static double elo(double score) {
+        double s = Math.min(Math.max(score, 1e-6), 1 - 1e-6);
+        return -400.0 * Math.log10(1.0 / s - 1.0);
+    }
+
+    private synchronized void report(double seconds, boolean last) {
+        int games = winsA + draws + lossesA;
+        String line = String.format("games %d  +%d =%d -%d  pairs %d %s  LLR %.2f [%.2f, %.2f]",
+                games, winsA, draws, lossesA, pairsDone, Arrays.toString(pentanomial),
+                llr, Math.log(BETA / (1 - ALPHA)), Math.log((1 - BETA) / ALPHA));
+        if (pairsDone > 0) {
+            double mean = mean(), margin = 1.96 * Math.sqrt(variance(mean) / pairsDone);
+            double elo = elo(mean), lo = elo(mean - margin), hi = elo(mean + margin);
+            line += String.format("  Elo %+.1f +/- %.1f", elo, (hi - lo) / 2);
+        }
+        System.out.println(line);
+        if (!last) return;
+        System.out.println("SPRT(" + elo0 + ", " + elo1 + "): " + verdict);
+        System.out.printf("%.1f s, %.2f games/s, per move: A %.2f ms, B %.2f ms%n", seconds, games / seconds,
+                movesA > 0 ? nanosA / 1e6 / movesA : 0.0, movesB > 0 ? nanosB / 1e6 / movesB : 0.0);
+    }
+
+    static Supplier<Engine> engine(String spec) {
+        String[] p = spec.split(":");
+        return switch (p[0].toLowerCase()) {
+            case "search" -> {
+                int depth = Integer.parseInt(p[1]);
+                long nanos = Long.parseLong(p[2]) * 1_000_000L;
+                yield () -> new Search(depth, nanos);
+            }
+            case "ismcts" -> {
+                long nanos = Long.parseLong(p[1]) * 1_000_000L;
+                yield () -> new Ismcts(1, nanos);
+            }
+            default -> {
+                AIProfile profile = AIProfile.valueOf(spec.toUpperCase());
+                yield profile::createEngine;
+            }
+        };
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 2) {
+            System.err.println("usage: Tournament <engineA> <engineB> [maxGames] [threads] [elo0] [elo1] [seed]");
+            System.err.println("  engine: search:<depth>:<ms> | ismcts:<ms> | EASY | NORMAL | HARD | ISMCTS");
+            System.exit(2);
+        }
+        int maxGames = args.length > 2 ? Integer.parseInt(args[2]) : 1000;
+        int threads = args.length > 3 ? Integer.parseInt(args[3]) : Runtime.getRuntime().availableProcessors();
+        double elo0 = args.length > 4 ? Double.parseDouble(args[4]) : 0.0;
+        double elo1 = args.length > 5 ? Double.parseDouble(args[5]) : 20.0;
+        long seed = args.length > 6 ? Long.parseLong(args[6]) : 1;
+        System.out.println(args[0] + " vs " + args[1] + ", up to " + maxGames + " games on " + threads + " threads");
+        new Tournament(engine(args[0]), engine(args[1]), maxGames, threads, elo0, elo1, seed).run();
+    }
+}
@@ -0,0 +1,126 @@
+package com.hazardchess.ai.tuning;
+
+import com.hazardchess.ai.Evaluator;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Labelled positions for eval tuning, stored as flat primitive arrays.
+ * - features: Evaluator.PARAM_COUNT shorts per position (Evaluator.features, white - black)
+ * - results: one byte per position, 0 = black won, 1 = draw, 2 = white won
+ * File layout (little endian): magic, version, paramCount, count, results[count], features[count * paramCount]
+ */
+public final class TuningCorpus {
+    private static final int MAGIC = 0x48435443; // "HCTC"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 16;
+    private static final int IO_CHUNK = 1 << 20;
+
+    private final int paramCount;
+    private short[] features;
+    private byte[] results;
+    private int count;
+
+    public TuningCorpus() {
+        this(Evaluator.PARAM_COUNT, 1024);
+    }
+
+    private TuningCorpus(int paramCount, int capacity) {
+        this.paramCount = paramCount;
+        this.features = new short[capacity * paramCount];
+        this.results = new byte[capacity];
+    }
+
+    public int size() { return count; }
+    public int paramCount() { return paramCount; }
+    short[] features() { return features; }
+    byte[] results() { return results; }
+
+    /** Result of position i in [0, 1] from white's point of view. */
+    public double result(int i) { return results[i] * 0.5; }
+
+    public void add(int[] f, int result) {
+        if (count == results.length) {
+            results = Arrays.copyOf(results, count * 2);
+            features = Arrays.copyOf(features, count * 2 * paramCount);
+        }
+        int base = count * paramCount;
+        for (int i = 0; i < paramCount; i++) {
+            int v = f[i];
+            if (v < Short.MIN_VALUE || v > Short.MAX_VALUE) throw new IllegalArgumentException("feature " + i + " out of range: " + v);
+            features[base + i] = (short) v;
+        }
+        results[count++] = (byte) result;
+    }
+
+    public void addAll(TuningCorpus other) {
+        int[] f = new int[paramCount];
+        for (int i = 0; i < other.count; i++) {
+            for (int j = 0; j < paramCount; j++) f[j] = other.features[i * paramCount + j];
+            add(f, other.results[i]);
+        }
+    }
+
+    public void write(Path file) throws IOException {
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buf = ByteBuffer.allocateDirect(IO_CHUNK).order(ByteOrder.LITTLE_ENDIAN);
+            buf.putInt(MAGIC).putInt(VERSION).putInt(paramCount).putInt(count);
+            for (int i = 0; i < count; i++) {
+                if (!buf.hasRemaining()) drain(ch, buf);
+                buf.put(results[i]);
+            }
+            int total = count * paramCount;
+            for (int i = 0; i < total; i++) {
+                if (buf.remaining() < 2) drain(ch, buf);
+                buf.putShort(features[i]);
+            }
+            drain(ch, buf);
+        }
+    }
+
+    private static void drain(FileChannel ch, ByteBuffer buf) throws IOException {
+        buf.flip();
+        while (buf.hasRemaining()) ch.write(buf);
+        buf.clear();
+    }
+
+    public static TuningCorpus read(Path file) throws IOException {
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer buf = ByteBuffer.allocateDirect(IO_CHUNK).order(ByteOrder.LITTLE_ENDIAN);
+            buf.flip(); // start empty
+            fill(ch, buf, HEADER_BYTES);
+            if (buf.getInt() != MAGIC) throw new IOException("not a tuning corpus: " + file);
+            int version = buf.getInt();
+            if (version != VERSION) throw new IOException("unsupported corpus version " + version);
+            int paramCount = buf.getInt();
+            int count = buf.getInt();
+            TuningCorpus corpus = new TuningCorpus(paramCount, Math.max(1, count));
+            for (int i = 0; i < count; i++) {
+                if (!buf.hasRemaining()) fill(ch, buf, 1);
+                corpus.results[i] = buf.get();
+            }
+            int total = count * paramCount;
+            for (int i = 0; i < total; i++) {
+                if (buf.remaining() < 2) fill(ch, buf, 2);
+                corpus.features[i] = buf.getShort();
+            }
+            corpus.count = count;
+            return corpus;
+        }
+    }
+
+    // compacts what is left and reads until at least min bytes are available
+    private static void fill(FileChannel ch, ByteBuffer buf, int min) throws IOException {
+        buf.compact();
+        while (buf.position() < min) {
+            if (ch.read(buf) < 0) throw new IOException("truncated corpus");
+        }
+        buf.flip();
+    }
+}
@@ -1,13 +1,23 @@
 package com.hazardchess.game;
 
+import com.hazardchess.ai.AIDecision;
+import com.hazardchess.ai.Engine;
+import com.hazardchess.ai.Position;
+import com.hazardchess.jfr.*;
 import com.hazardchess.pieces.*;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
 import java.util.*;
+import java.util.zip.CRC32;
 
 /**
  * Board (merged)
  * - giữ Random chia sẻ (rand)
  * - bổ sung undo/clearHistory/isGameOver/getWhiteWinner
- * - giữ checkQuickReveal(Cell, Piece, boolean), chooseBestAIMove(), findQuickRevealCandidate()
+ * - giữ checkQuickReveal(Cell, Piece, boolean), findQuickRevealCandidate()
  */
 public class Board {
     private int width = 8;
@@ -15,22 +25,55 @@ public class Board {
     private Cell[][] cells;
     private boolean whiteTurn = true;
 
-    private final Random rand = new Random();
+    private final Random rand;
+
+    private int hazardTotal = 0;
+    private ChordIndex chords;
+    private HazardInference inference;
+    private long version;
 
     private boolean gameOver = false;
     private Boolean whiteWinner = null;
 
+    // explosions not yet taken by drainExplosions(), {row, col} in the order they happened; a cell
+    // explodes at most once per line of play, so this stays small even when nobody drains it
+    private final List<int[]> explosions = new ArrayList<>();
+
     // history / undo
     private final Deque<BoardSnapshot> history = new ArrayDeque<>();
-    private final int MAX_HISTORY = 200;
+    private static final int MAX_HISTORY = 200;
+
+    /** Kinds of getActions() entries; UNKNOWN for history read from a version 1 save. */
+    public static final int ACTION_UNKNOWN = 0, ACTION_MOVE = 1, ACTION_QUICK_REVEAL = 2, ACTION_FLAG = 3;
 
     public Board(int height, int hazardLevel) {
+        this(height, hazardLevel, new Random());
+    }
+
+    /** Same seed, same hazard layout: replays and engine matches start from reproducible boards. */
+    public Board(int height, int hazardLevel, long seed) {
+        this(height, hazardLevel, new Random(seed));
+    }
+
+    private Board(int height, int hazardLevel, Random rand) {
+        this.rand = rand;
         this.height = height;
         cells = new Cell[height][width];
         initCells();
         placeHazards();
         setupPieces();
         updateHazardCounts();
+        chords = new ChordIndex(cells, width, height);
+        inference = new HazardInference(cells, width, height);
+    }
+
+    // board over blank cells for readFrom: the cells are filled from the stream
+    private Board(Cell[][] blank) {
+        this.rand = new Random();
+        this.height = blank.length;
+        this.width = blank[0].length;
+        this.cells = blank;
+        initCells();
     }
 
     private void initCells() {
@@ -79,12 +122,23 @@ public class Board {
             }
             attempts++;
         }
+        hazardTotal = placed;
     }
 
+    // all counts at once from the packed hazard layer (HazardCounts; HazardCountsTest checks it against countAdjacentHazards)
     private void updateHazardCounts() {
-        for (int r=0; r<height; r++)
-            for (int c=0; c<width; c++)
-                cells[r][c].setAdjacentHazardCount(countAdjacentHazards(r, c));
+        int words = (height * width + 63) >>> 6;
+        long[] hazard = new long[words];
+        for (int r = 0; r < height; r++)
+            for (int c = 0; c < width; c++)
+                if (cells[r][c].hasHazard()) hazard[(r * width + c) >>> 6] |= 1L << (r * width + c);
+        long[][] planes = new long[HazardCounts.PLANES][words];
+        HazardCounts.compute(hazard, planes);
+        for (int r = 0; r < height; r++) {
+            for (int c = 0; c < width; c++) {
+                cells[r][c].setAdjacentHazardCount(HazardCounts.countAt(planes, r * width + c));
+            }
+        }
     }
 
     public Cell getCell(int r, int c) {
@@ -113,10 +167,13 @@ public class Board {
         boolean whiteTurn;
         boolean gameOver;
         Boolean whiteWinner;
+        int[] action = {ACTION_UNKNOWN, 0, 0, 0, 0};   // what was played from this position
     }
 
-    private void saveSnapshot() {
+    private void saveSnapshot(int kind, int row, int col, int toRow, int toCol) {
+        version++;
         BoardSnapshot s = new BoardSnapshot();
+        s.action = new int[]{kind, row, col, toRow, toCol};
         s.cells = new CellState[height][width];
         for (int r = 0; r < height; r++) {
             for (int c = 0; c < width; c++) {
@@ -142,42 +199,282 @@ public class Board {
     }
 
     public boolean undo() {
-        if (history.isEmpty()) return false;
+        if (!JfrSupport.AVAILABLE) return doUndo() >= 0;
+        UndoEvent event = new UndoEvent();
+        event.begin();
+        int restored = doUndo();
+        event.end();
+        if (event.shouldCommit()) {
+            event.success = restored >= 0;
+            event.cellsRestored = Math.max(0, restored);
+            event.historyLeft = history.size();
+            event.commit();
+        }
+        return restored >= 0;
+    }
+
+    // cells whose state changed, -1 when there is nothing to undo
+    private int doUndo() {
+        if (history.isEmpty()) return -1;
         BoardSnapshot s = history.pop();
+        version++;
+        explosions.clear();
+        int restored = 0;
         for (int r = 0; r < height; r++) {
             for (int c = 0; c < width; c++) {
                 CellState cs = s.cells[r][c];
                 Cell dst = cells[r][c];
+                if (!sameState(cs, dst)) restored++;
                 dst.setPiece(cs.piece);
                 dst.setRevealed(cs.revealed);
                 dst.setExploded(cs.exploded);
                 dst.setHazard(cs.hazard);
                 dst.setFlagged(cs.flagged);
                 dst.setAdjacentHazardCount(cs.adjacent);
-                // reset animation flag if existent (Cell provides setter)
-                try { dst.setExplosionAnimated(false); } catch (Throwable ignored) {}
             }
         }
         this.whiteTurn = s.whiteTurn;
         this.gameOver = s.gameOver;
         this.whiteWinner = s.whiteWinner;
-        return true;
+        chords.rebuild();
+        inference.reset();
+        return restored;
+    }
+
+    private static boolean sameState(CellState cs, Cell cell) {
+        return cs.piece == cell.getPiece()
+                && cs.revealed == cell.isRevealed()
+                && cs.exploded == cell.isExploded()
+                && cs.hazard == cell.hasHazard()
+                && cs.flagged == cell.isFlagged()
+                && cs.adjacent == cell.getAdjacentHazardCount();
     }
 
     public void clearHistory() {
         history.clear();
     }
 
+    /**
+     * What was played from each position still in the undo history, oldest first, as
+     * {kind, row, col, toRow, toCol}: ACTION_MOVE from (row, col) to (toRow, toCol), ACTION_QUICK_REVEAL
+     * or ACTION_FLAG on (row, col). Undoing drops the last entry.
+     */
+    public List<int[]> getActions() {
+        List<int[]> actions = new ArrayList<>(history.size());
+        for (Iterator<BoardSnapshot> it = history.descendingIterator(); it.hasNext(); ) actions.add(it.next().action.clone());
+        return actions;
+    }
+
+    // ---------------- Save / load ----------------
+    // layout (little endian): magic, version, payload length | payload | CRC32 of the payload
+    // payload: width, height, turn/result bits, hazard total,
+    //          piece table (code, pawn state) so history keeps piece identity,
+    //          current cells, then the undo history newest first (bits, action, cells each)
+    // action: kind, row, col, toRow, toCol (one byte each, version 2 on; see getActions)
+    // cell: state bits (revealed, exploded, hazard, flagged), adjacent count, piece id + 1 (0 = empty)
+    private static final int SAVE_MAGIC = 0x48434231;   // "HCB1"
+    private static final short SAVE_VERSION = 2;
+    private static final int ACTION_BYTES = 5;
+    private static final int SAVE_HEADER = 10;
+    private static final int CELL_BYTES = 4;
+    // what the rest of the game handles: 8 files (setupPieces, HazardCounts, Position, UCI's a..h), 6..16 ranks
+    private static final int SAVE_WIDTH = 8, MIN_HEIGHT = 6, MAX_HEIGHT = 16;
+
+    /** Writes the complete game (layout, flags, turn, pawn state, undo history) to ch. */
+    public void writeTo(WritableByteChannel ch) throws IOException {
+        Map<Piece, Integer> ids = new IdentityHashMap<>();
+        List<Piece> table = new ArrayList<>();
+        for (Cell[] row : cells) for (Cell cell : row) register(cell.getPiece(), ids, table);
+        for (BoardSnapshot snap : history) {
+            for (CellState[] row : snap.cells) for (CellState cs : row) register(cs.piece, ids, table);
+        }
+
+        int size = width * height;
+        int payload = 2 + 1 + 2 + 2 + table.size() * 2 + size * CELL_BYTES + 2 + history.size() * (1 + ACTION_BYTES + size * CELL_BYTES);
+        ByteBuffer buf = ByteBuffer.allocate(SAVE_HEADER + payload + 4).order(ByteOrder.LITTLE_ENDIAN);
+        buf.putInt(SAVE_MAGIC).putShort(SAVE_VERSION).putInt(payload);
+        buf.put((byte) width).put((byte) height);
+        buf.put(resultBits(whiteTurn, gameOver, whiteWinner));
+        buf.putShort((short) hazardTotal);
+        buf.putShort((short) table.size());
+        for (Piece piece : table) {
+            buf.put((byte) Position.encode(piece));
+            buf.put((byte) (piece instanceof Pawn pawn && !pawn.isFirstMove() ? 1 : 0));
+        }
+        for (Cell[] row : cells) {
+            for (Cell cell : row) {
+                putCell(buf, cell.isRevealed(), cell.isExploded(), cell.hasHazard(), cell.isFlagged(),
+                        cell.getAdjacentHazardCount(), cell.getPiece(), ids);
+            }
+        }
+        buf.putShort((short) history.size());
+        for (BoardSnapshot snap : history) {
+            buf.put(resultBits(snap.whiteTurn, snap.gameOver, snap.whiteWinner));
+            for (int v : snap.action) buf.put((byte) v);
+            for (CellState[] row : snap.cells) {
+                for (CellState cs : row) {
+                    putCell(buf, cs.revealed, cs.exploded, cs.hazard, cs.flagged, cs.adjacent, cs.piece, ids);
+                }
+            }
+        }
+        CRC32 crc = new CRC32();
+        crc.update(buf.array(), SAVE_HEADER, payload);
+        buf.putInt((int) crc.getValue());
+        buf.flip();
+        while (buf.hasRemaining()) ch.write(buf);
+    }
+
+    /** Reads a game written by writeTo (version 1 saves have no actions); IOException if truncated, corrupt or unknown. */
+    public static Board readFrom(ReadableByteChannel ch) throws IOException {
+        ByteBuffer head = ByteBuffer.allocate(SAVE_HEADER).order(ByteOrder.LITTLE_ENDIAN);
+        readFully(ch, head);
+        if (head.getInt() != SAVE_MAGIC) throw new IOException("not a saved game");
+        short version = head.getShort();
+        if (version != 1 && version != SAVE_VERSION) throw new IOException("unsupported save version " + version);
+        int payload = head.getInt();
+        if (payload < 0 || payload > (1 << 26)) throw new IOException("bad payload length " + payload);
+        ByteBuffer buf = ByteBuffer.allocate(payload + 4).order(ByteOrder.LITTLE_ENDIAN);
+        readFully(ch, buf);
+        CRC32 crc = new CRC32();
+        crc.update(buf.array(), 0, payload);
+        if (buf.getInt(payload) != (int) crc.getValue()) throw new IOException("checksum mismatch");
+
+        try {
+            int w = buf.get(), h = buf.get();
+            if (w != SAVE_WIDTH || h < MIN_HEIGHT || h > MAX_HEIGHT) throw new IOException("bad board size " + w + "x" + h);
+            Board b = new Board(new Cell[h][w]);
+            int bits = buf.get();
+            b.whiteTurn = (bits & 1) != 0;
+            b.gameOver = (bits & 2) != 0;
+            b.whiteWinner = (bits & 4) != 0 ? Boolean.valueOf((bits & 8) != 0) : null;
+            b.hazardTotal = buf.getShort();
+            if (b.hazardTotal < 0 || b.hazardTotal > w * h) throw new IOException("bad hazard total " + b.hazardTotal);
+            // every piece of the game and the promotions: at most two per cell
+            int pieces = buf.getShort();
+            if (pieces < 0 || pieces > 2 * w * h) throw new IOException("bad piece count " + pieces);
+            Piece[] table = new Piece[pieces];
+            for (int i = 0; i < table.length; i++) {
+                table[i] = newPiece(buf.get());
+                if (buf.get() != 0) table[i].onMove();
+            }
+            for (Cell[] row : b.cells) {
+                for (Cell cell : row) {
+                    int st = buf.get();
+                    cell.setRevealed((st & 1) != 0);
+                    cell.setExploded((st & 2) != 0);
+                    cell.setHazard((st & 4) != 0);
+                    cell.setFlagged((st & 8) != 0);
+                    cell.setAdjacentHazardCount(buf.get());
+                    cell.setPiece(pieceAt(table, buf.getShort()));
+                }
+            }
+            int snapshots = buf.getShort();
+            if (snapshots < 0 || snapshots > MAX_HISTORY) throw new IOException("bad history length " + snapshots);
+            for (int i = 0; i < snapshots; i++) {
+                BoardSnapshot snap = new BoardSnapshot();
+                int sb = buf.get();
+                snap.whiteTurn = (sb & 1) != 0;
+                snap.gameOver = (sb & 2) != 0;
+                snap.whiteWinner = (sb & 4) != 0 ? Boolean.valueOf((sb & 8) != 0) : null;
+                if (version >= 2) for (int k = 0; k < ACTION_BYTES; k++) snap.action[k] = buf.get();
+                snap.cells = new CellState[b.height][b.width];
+                for (int r = 0; r < b.height; r++) {
+                    for (int c = 0; c < b.width; c++) {
+                        CellState cs = new CellState();
+                        int st = buf.get();
+                        cs.revealed = (st & 1) != 0;
+                        cs.exploded = (st & 2) != 0;
+                        cs.hazard = (st & 4) != 0;
+                        cs.flagged = (st & 8) != 0;
+                        cs.adjacent = buf.get();
+                        cs.piece = pieceAt(table, buf.getShort());
+                        snap.cells[r][c] = cs;
+                    }
+                }
+                b.history.addLast(snap);
+            }
+            b.chords = new ChordIndex(b.cells, b.width, b.height);
+            b.inference = new HazardInference(b.cells, b.width, b.height);
+            return b;
+        } catch (RuntimeException e) {
+            // BufferUnderflow, bad piece code or id: the checksum matched but the content is inconsistent
+            throw new IOException("corrupt saved game", e);
+        }
+    }
+
+    private static void register(Piece piece, Map<Piece, Integer> ids, List<Piece> table) {
+        if (piece != null && !ids.containsKey(piece)) {
+            ids.put(piece, table.size());
+            table.add(piece);
+        }
+    }
+
+    private static byte resultBits(boolean whiteTurn, boolean gameOver, Boolean whiteWinner) {
+        int bits = (whiteTurn ? 1 : 0) | (gameOver ? 2 : 0);
+        if (whiteWinner != null) bits |= 4 | (whiteWinner ? 8 : 0);
+        return (byte) bits;
+    }
+
+    private static void putCell(ByteBuffer buf, boolean revealed, boolean exploded, boolean hazard, boolean flagged,
+                                int adjacent, Piece piece, Map<Piece, Integer> ids) {
+        buf.put((byte) ((revealed ? 1 : 0) | (exploded ? 2 : 0) | (hazard ? 4 : 0) | (flagged ? 8 : 0)));
+        buf.put((byte) adjacent);
+        buf.putShort((short) (piece == null ? 0 : ids.get(piece) + 1));
+    }
+
+    private static Piece pieceAt(Piece[] table, int id) {
+        return id == 0 ? null : table[id - 1];
+    }
+
+    private static Piece newPiece(int code) {
+        boolean white = Position.isWhite(code);
+        return switch (Position.type(code)) {
+            case Position.PAWN -> new Pawn(white);
+            case Position.KNIGHT -> new Knight(white);
+            case Position.BISHOP -> new Bishop(white);
+            case Position.ROOK -> new Rook(white);
+            case Position.QUEEN -> new Queen(white);
+            case Position.KING -> new King(white);
+            default -> throw new IllegalArgumentException("bad piece code " + code);
+        };
+    }
+
+    private static void readFully(ReadableByteChannel ch, ByteBuffer buf) throws IOException {
+        while (buf.hasRemaining()) {
+            if (ch.read(buf) < 0) throw new IOException("unexpected end of saved game");
+        }
+        buf.flip();
+    }
+
     // ---------------- Minesweeper logic ----------------
     public void revealCell(int row, int col) {
-        if (!inBounds(row, col)) return;
+        if (!JfrSupport.AVAILABLE) {
+            revealFlood(row, col);
+            return;
+        }
+        RevealEvent event = new RevealEvent();
+        event.begin();
+        int opened = revealFlood(row, col);
+        event.end();
+        if (opened > 0 && event.shouldCommit()) {
+            event.row = row;
+            event.col = col;
+            event.cellsOpened = opened;
+            event.exploded = cells[row][col].isExploded();
+            event.commit();
+        }
+    }
+
+    // flood fill behind revealCell, returns the number of cells opened
+    private int revealFlood(int row, int col) {
+        if (!inBounds(row, col)) return 0;
         Cell cell = cells[row][col];
-        if (cell == null || cell.isRevealed() || cell.isFlagged()) return;
+        if (cell == null || cell.isRevealed() || cell.isFlagged()) return 0;
 
-        cell.setRevealed(true);
+        reveal(cell);
 
         if (cell.hasHazard()) {
-            cell.setExploded(true);
+            explode(cell);
             if (cell.getPiece() != null) {
                 if ("King".equals(cell.getPiece().getName())) {
                     gameOver = true;
@@ -185,18 +482,56 @@ public class Board {
                 }
                 cell.setPiece(null);
             }
-            return;
+            return 1;
         }
 
         int count = countAdjacentHazards(row, col);
         cell.setAdjacentHazardCount(count);
 
+        int opened = 1;
         if (count == 0) {
             for (int dr = -1; dr <= 1; dr++)
                 for (int dc = -1; dc <= 1; dc++)
                     if (dr != 0 || dc != 0)
-                        revealCell(row + dr, col + dc);
+                        opened += revealFlood(row + dr, col + dc);
         }
+        return opened;
+    }
+
+    // every hidden -> revealed change goes through here to keep the chord index and inference current
+    private void reveal(Cell cell) {
+        if (cell.isRevealed()) return;
+        boolean wasHidden = !cell.isFlagged();
+        cell.setRevealed(true);
+        chords.revealed(cell, wasHidden);
+        inference.revealed(cell);
+    }
+
+    private void explode(Cell cell) {
+        cell.setExploded(true);
+        explosions.add(new int[]{cell.getRow(), cell.getCol()});
+    }
+
+    /**
+     * Cells that exploded since the last call, {row, col} in order, for the UI's explosion effects.
+     * Undo discards the pending ones; a loaded board starts with none.
+     */
+    public List<int[]> drainExplosions() {
+        List<int[]> drained = new ArrayList<>(explosions);
+        explosions.clear();
+        return drained;
+    }
+
+    /** Hidden cell that the revealed numbers prove to be free of hazards. */
+    public boolean isProvenSafe(int row, int col) {
+        return inBounds(row, col) && !cells[row][col].isRevealed()
+                && inference.get(row, col) == HazardInference.SAFE;
+    }
+
+    /** Hidden cell that the revealed numbers prove to hold a hazard. */
+    public boolean isProvenHazard(int row, int col) {
+        return inBounds(row, col) && !cells[row][col].isRevealed()
+                && inference.get(row, col) == HazardInference.HAZARD;
     }
 
     public int countAdjacentHazards(int row, int col) {
@@ -217,32 +552,38 @@ public class Board {
      * - return true nếu có hành động (mở ô hoặc nổ)
      */
     public boolean checkQuickReveal(Cell numberCell, Piece triggerPiece, boolean consumeTurnIfValid) {
-        if (numberCell == null || !numberCell.isRevealed()) return false;
-        // save state for undo
-        saveSnapshot();
+        if (!JfrSupport.AVAILABLE) return doQuickReveal(numberCell, triggerPiece, consumeTurnIfValid);
+        QuickRevealEvent event = new QuickRevealEvent();
+        boolean tracing = event.isEnabled();
+        int revealedBefore = tracing ? countRevealed() : 0;
+        int explodedBefore = tracing ? countExploded() : 0;
+        event.begin();
+        boolean executed = doQuickReveal(numberCell, triggerPiece, consumeTurnIfValid);
+        event.end();
+        if (tracing && numberCell != null && event.shouldCommit()) {
+            event.row = numberCell.getRow();
+            event.col = numberCell.getCol();
+            event.executed = executed;
+            event.cellsOpened = countRevealed() - revealedBefore;
+            event.explosion = countExploded() > explodedBefore;
+            event.triggerPiece = triggerPiece != null ? triggerPiece.getName() : null;
+            event.commit();
+        }
+        return executed;
+    }
 
+    private boolean doQuickReveal(Cell numberCell, Piece triggerPiece, boolean consumeTurnIfValid) {
+        // flags == number and something left to open, known from the index: reject before any copy
+        if (numberCell == null || !chords.isCandidate(numberCell.getRow(), numberCell.getCol())) return false;
         int r0 = numberCell.getRow(), c0 = numberCell.getCol();
-        int required = numberCell.getAdjacentHazardCount();
-        if (required <= 0) {
-            history.pop(); // nothing changed
-            return false;
-        }
+        // save state for undo
+        saveSnapshot(ACTION_QUICK_REVEAL, r0, c0, r0, c0);
 
-        int flagged = 0;
         List<Cell> neighbors = new ArrayList<>();
         for (int dr = -1; dr <= 1; dr++) for (int dc = -1; dc <= 1; dc++) {
             if (dr == 0 && dc == 0) continue;
             int nr = r0 + dr, nc = c0 + dc;
-            if (!inBounds(nr, nc)) continue;
-            Cell adj = cells[nr][nc];
-            neighbors.add(adj);
-            if (adj.isFlagged()) flagged++;
-        }
-
-        if (flagged != required) {
-            // no-op -> discard snapshot
-            history.pop();
-            return false;
+            if (inBounds(nr, nc)) neighbors.add(cells[nr][nc]);
         }
 
         boolean anyOpened = false;
@@ -251,9 +592,9 @@ public class Board {
         for (Cell adj : neighbors) {
             if (!adj.isFlagged() && !adj.isRevealed()) {
                 anyOpened = true;
-                adj.setRevealed(true);
+                reveal(adj);
                 if (adj.hasHazard()) {
-                    adj.setExploded(true);
+                    explode(adj);
                     if (adj.getPiece() != null) {
                         if ("King".equals(adj.getPiece().getName())) {
                             gameOver = true;
@@ -293,8 +634,45 @@ public class Board {
         return true;
     }
 
+    private int countRevealed() {
+        int n = 0;
+        for (int r = 0; r < height; r++) for (int c = 0; c < width; c++) if (cells[r][c].isRevealed()) n++;
+        return n;
+    }
+
+    private int countExploded() {
+        int n = 0;
+        for (int r = 0; r < height; r++) for (int c = 0; c < width; c++) if (cells[r][c].isExploded()) n++;
+        return n;
+    }
+
     // ---------------- Chess move logic ----------------
     public boolean movePiece(int sr, int sc, int dr, int dc) {
+        if (!JfrSupport.AVAILABLE) return doMovePiece(sr, sc, dr, dc);
+        MovePieceEvent event = new MovePieceEvent();
+        boolean tracing = event.isEnabled();
+        Piece moving = tracing && inBounds(sr, sc) ? cells[sr][sc].getPiece() : null;
+        Piece target = tracing && inBounds(dr, dc) ? cells[dr][dc].getPiece() : null;
+        boolean wasExploded = tracing && inBounds(dr, dc) && cells[dr][dc].isExploded();
+        event.begin();
+        boolean accepted = doMovePiece(sr, sc, dr, dc);
+        event.end();
+        if (tracing && event.shouldCommit()) {
+            event.fromRow = sr;
+            event.fromCol = sc;
+            event.toRow = dr;
+            event.toCol = dc;
+            event.piece = moving != null ? moving.getName() : null;
+            event.white = moving != null && moving.isWhite();
+            event.captured = accepted && target != null ? target.getName() : null;
+            event.accepted = accepted;
+            event.exploded = accepted && !wasExploded && cells[dr][dc].isExploded();
+            event.commit();
+        }
+        return accepted;
+    }
+
+    private boolean doMovePiece(int sr, int sc, int dr, int dc) {
         if (gameOver) return false;
         if (!inBounds(sr, sc) || !inBounds(dr, dc)) return false;
         Cell from = cells[sr][sc];
@@ -305,7 +683,7 @@ public class Board {
         if (!piece.canMove(sr, sc, dr, dc, this)) return false;
 
         // save snapshot for undo
-        saveSnapshot();
+        saveSnapshot(ACTION_MOVE, sr, sc, dr, dc);
 
         Piece captured = to.getPiece();
         to.setPiece(piece);
@@ -318,8 +696,8 @@ public class Board {
 
         // stepping into hazard
         if (to.hasHazard() && !to.isExploded()) {
-            to.setRevealed(true);
-            to.setExploded(true);
+            reveal(to);
+            explode(to);
             if ("King".equals(piece.getName())) {
                 gameOver = true;
                 whiteWinner = !piece.isWhite();
@@ -337,113 +715,55 @@ public class Board {
     }
 
     // ---------------- AI helpers ----------------
+    /** Some cell a quick reveal would act on ({row, col}), or null; O(1) through the chord index. */
     public int[] findQuickRevealCandidate() {
-        for (int r=0;r<height;r++) for (int c=0;c<width;c++) {
-            Cell num = cells[r][c];
-            if (!num.isRevealed()) continue;
-            int number = num.getAdjacentHazardCount();
-            if (number <= 0) continue;
-            int flagged = 0;
-            boolean hasHidden = false;
-            for (int dr=-1; dr<=1; dr++) for (int dc=-1; dc<=1; dc++) {
-                if (dr==0 && dc==0) continue;
-                int nr=r+dr, nc=c+dc;
-                if (!inBounds(nr,nc)) continue;
-                Cell adj = cells[nr][nc];
-                if (adj.isFlagged()) flagged++;
-                if (!adj.isRevealed() && !adj.isFlagged()) hasHidden = true;
-            }
-            if (flagged == number && hasHidden) return new int[]{r,c};
-        }
-        return null;
+        return chords.any();
     }
 
-    public int[] chooseBestAIMove() {
-        List<MoveCandidate> candidates = new ArrayList<>();
-
-        for (int r = 0; r < height; r++) {
-            for (int c = 0; c < width; c++) {
-                Cell from = cells[r][c];
-                if (from.getPiece() == null || from.getPiece().isWhite()) continue;
-                Piece p = from.getPiece();
-
-                for (int tr = 0; tr < height; tr++) {
-                    for (int tc = 0; tc < width; tc++) {
-                        if (!inBounds(tr, tc)) continue;
-                        if (!p.canMove(r, c, tr, tc, this)) continue;
-
-                        Cell to = cells[tr][tc];
-                        double score = 0.0;
-
-                        if (to.getPiece() != null && to.getPiece().isWhite()) {
-                            score += 200 + pieceValue(to.getPiece()) * 40;
-                        }
+    /**
+     * Runs engine for the side to move on a snapshot of this board and returns a move or a quick reveal
+     * with the statistics of this decision (self-play, tuning: one engine per thread).
+     */
+    public AIDecision decideAIMove(Engine engine) {
+        return snapshotView().decideAIMove(engine);
+    }
 
-                        if (to.isRevealed()) {
-                            if (to.isExploded()) score -= 500;
-                            else {
-                                int adj = to.getAdjacentHazardCount();
-                                if (adj == 0) score += 30;
-                                else score += Math.max(0, 8 - adj);
-                            }
-                        } else {
-                            double risk = estimateRiskForUnrevealed(to);
-                            score -= risk * 80;
-                            score += 2;
-                        }
+    /**
+     * Read-only copy of the visible state, for searches on another thread: take it on the
+     * thread that owns this board, then call BoardView.decideAIMove from anywhere.
+     */
+    public BoardView snapshotView() {
+        return new BoardView(this);
+    }
 
-                        int centerDist = Math.abs(tr - height/2) + Math.abs(tc - width/2);
-                        score += (14 - centerDist) * 0.5;
+    /** Bumped by every change that can be undone, by promotions and by undo itself (see BoardView.getVersion). */
+    public long getVersion() { return version; }
 
-                        if (p.getName().equals("Pawn")) {
-                            score += (height - 1 - tr) * 0.3;
-                        }
+    /** A pawn stands on (row, col), on the last rank for its side, waiting to be promoted. */
+    public boolean canPromote(int row, int col) {
+        if (!inBounds(row, col)) return false;
+        Piece p = cells[row][col].getPiece();
+        return p != null && "Pawn".equals(p.getName()) && row == (p.isWhite() ? 0 : height - 1);
+    }
 
-                        score += rand.nextDouble() * 0.5;
-                        candidates.add(new MoveCandidate(r,c,tr,tc,score));
-                    }
-                }
-            }
-        }
+    /**
+     * Replaces the pawn on (row, col) with piece, the promotion choice that completes the move that got
+     * it there (undoing that move brings the pawn back). Bumps the version like any other change, so
+     * snapshots taken before the choice are stale. False when there is no pawn to promote.
+     */
+    public boolean promote(int row, int col, Piece piece) {
+        if (!canPromote(row, col)) return false;
+        cells[row][col].setPiece(piece);
+        version++;
+        return true;
+    }
 
-        if (candidates.isEmpty()) return null;
-        candidates.sort((a,b) -> Double.compare(b.score, a.score));
-        MoveCandidate best = candidates.get(0);
-        return new int[]{best.fromR,best.fromC,best.toR,best.toC};
-    }
-
-    private double estimateRiskForUnrevealed(Cell cell) {
-        int r = cell.getRow(), c = cell.getCol();
-        int knownNeighbors = 0;
-        int sumNumbers = 0;
-        int flagged = 0;
-        for (int dr=-1; dr<=1; dr++) for (int dc=-1; dc<=1; dc++) {
-            if (dr==0 && dc==0) continue;
-            int nr=r+dr, nc=c+dc;
-            if (!inBounds(nr,nc)) continue;
-            Cell adj = cells[nr][nc];
-            if (adj.isRevealed()) { knownNeighbors++; sumNumbers += adj.getAdjacentHazardCount(); }
-            if (adj.isFlagged()) flagged++;
-        }
-        if (knownNeighbors == 0) return 0.12;
-        double avg = (double) sumNumbers / (double) knownNeighbors;
-        double risk = Math.min(0.85, (avg + flagged * 0.9) / 6.0);
-        return risk;
-    }
-
-    private static class MoveCandidate { int fromR, fromC, toR, toC; double score; MoveCandidate(int fr,int fc,int tr,int tc,double s){ fromR=fr; fromC=fc; toR=tr; toC=tc; score=s; }}
-
-    private int pieceValue(Piece p) {
-        if (p == null) return 0;
-        return switch (p.getName()) {
-            case "King" -> 1000;
-            case "Queen" -> 9;
-            case "Rook" -> 5;
-            case "Bishop" -> 3;
-            case "Knight" -> 3;
-            case "Pawn" -> 1;
-            default -> 1;
-        };
+    /** The given side gives up: the game ends with the other side as winner (not undoable). */
+    public void resign(boolean white) {
+        if (gameOver) return;
+        version++;
+        gameOver = true;
+        whiteWinner = !white;
     }
 
     public void toggleFlag(int row, int col) {
@@ -453,12 +773,15 @@ public class Board {
 
         if (!cell.isRevealed() || cell.isExploded() || cell.getPiece() != null) {
             // save snapshot
-            saveSnapshot();
+            saveSnapshot(ACTION_FLAG, row, col, row, col);
             cell.setFlagged(!cell.isFlagged());
+            chords.flagToggled(cell);
         }
     }
 
     public boolean isWhiteTurn() { return whiteTurn; }
+    /** Number of hazards placed (public knowledge, like a Minesweeper mine counter). */
+    public int getHazardTotal() { return hazardTotal; }
     public int getWidth(){ return width; }
     public int getHeight(){ return height; }
 }
\ No newline at end of file
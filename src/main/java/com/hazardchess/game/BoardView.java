@@ -0,0 +1,109 @@
+package com.hazardchess.game;
+
+import com.hazardchess.ai.AIDecision;
+import com.hazardchess.ai.Engine;
+import com.hazardchess.ai.Move;
+import com.hazardchess.ai.Position;
+import com.hazardchess.ai.SearchStats;
+import com.hazardchess.jfr.AIDecisionEvent;
+import com.hazardchess.jfr.JfrSupport;
+
+/**
+ * Immutable copy of everything a player can see on a Board (no hazard layout), in primitive arrays.
+ * - taken on the thread that owns the Board (Board.snapshotView()), then safe to read from any thread
+ * - pieces use the Position codes (Position.encode), cell state the Position bits
+ *   (REVEALED, EXPLODED, FLAGGED, PROVEN_SAFE, PROVEN_HAZARD)
+ * - getVersion() tells whether the Board changed since (Board.getVersion())
+ */
+public final class BoardView {
+    private final int width, height;
+    private final byte[] pieces;
+    private final byte[] states;
+    private final byte[] numbers;     // -1 for hidden cells
+    private final boolean whiteTurn;
+    private final boolean gameOver;
+    private final Boolean whiteWinner;
+    private final int hazardTotal;
+    private final long version;
+
+    BoardView(Board board) {
+        width = board.getWidth();
+        height = board.getHeight();
+        int size = width * height;
+        pieces = new byte[size];
+        states = new byte[size];
+        numbers = new byte[size];
+        for (int r = 0; r < height; r++) {
+            for (int c = 0; c < width; c++) {
+                Cell cell = board.getCell(r, c);
+                int sq = r * width + c;
+                pieces[sq] = (byte) Position.encode(cell.getPiece());
+                int st = 0;
+                if (cell.isRevealed()) st |= Position.REVEALED;
+                if (cell.isExploded()) st |= Position.EXPLODED;
+                if (cell.isFlagged()) st |= Position.FLAGGED;
+                if (board.isProvenSafe(r, c)) st |= Position.PROVEN_SAFE;
+                else if (board.isProvenHazard(r, c)) st |= Position.PROVEN_HAZARD;
+                states[sq] = (byte) st;
+                numbers[sq] = (byte) (cell.isRevealed() ? cell.getAdjacentHazardCount() : -1);
+            }
+        }
+        whiteTurn = board.isWhiteTurn();
+        gameOver = board.isGameOver();
+        whiteWinner = board.getWhiteWinner();
+        hazardTotal = board.getHazardTotal();
+        version = board.getVersion();
+    }
+
+    public int getWidth() { return width; }
+    public int getHeight() { return height; }
+    public int pieceAt(int row, int col) { return pieces[row * width + col]; }
+    public int stateAt(int row, int col) { return states[row * width + col]; }
+    public int numberAt(int row, int col) { return numbers[row * width + col]; }
+    public boolean isWhiteTurn() { return whiteTurn; }
+    public boolean isGameOver() { return gameOver; }
+    public Boolean getWhiteWinner() { return whiteWinner; }
+    public int getHazardTotal() { return hazardTotal; }
+    public long getVersion() { return version; }
+
+    /**
+     * Runs engine for the side to move and returns a move or a quick reveal together with the
+     * statistics of this decision. Touches nothing but this view: callable off the board's thread.
+     */
+    public AIDecision decideAIMove(Engine engine) {
+        if (!JfrSupport.AVAILABLE) return decide(engine);
+        AIDecisionEvent event = new AIDecisionEvent();
+        event.begin();
+        AIDecision decision = decide(engine);
+        event.end();
+        if (event.shouldCommit()) {
+            SearchStats stats = decision.getStats();
+            event.kind = decision.getKind().name();
+            event.candidates = stats.getRootMoves();
+            event.nodes = stats.getNodes();
+            event.depth = stats.getDepthReached();
+            event.score = stats.getScore();
+            event.latency = stats.getElapsedNanos();
+            event.commit();
+        }
+        return decision;
+    }
+
+    private AIDecision decide(Engine engine) {
+        SearchStats stats = new SearchStats();
+        stats.begin();
+        AIDecision decision;
+        int best = gameOver ? Move.NONE : engine.bestMove(Position.fromView(this, stats), stats);
+        if (best == Move.NONE) {
+            decision = AIDecision.none(stats);
+        } else if (Move.isChord(best)) {
+            int sq = Move.from(best);
+            decision = AIDecision.quickReveal(new int[]{sq / width, sq % width}, stats);
+        } else {
+            int from = Move.from(best), to = Move.to(best);
+            decision = AIDecision.move(new int[]{from / width, from % width, to / width, to % width}, stats);
+        }
+        stats.end();
+        return decision;
+    }
+}
@@ -11,9 +11,6 @@ public class Cell {
     private boolean flagged = false;
     private int adjacentHazardCount = 0;
 
-    // NEW: đánh dấu đã chạy animation nổ chưa (để không phát lại)
-    private boolean explosionAnimated = false;
-
     public Cell(int row, int col) {
         this.row = row;
         this.col = col;
@@ -44,8 +41,4 @@ public class Cell {
     public boolean canShowNumber() {
         return revealed && !exploded && adjacentHazardCount > 0;
     }
-
-    // NEW: explosionAnimated getter/setter
-    public boolean isExplosionAnimated() { return explosionAnimated; }
-    public void setExplosionAnimated(boolean v) { this.explosionAnimated = v; }
 }
\ No newline at end of file
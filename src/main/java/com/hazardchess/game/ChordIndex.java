@@ -0,0 +1,102 @@
+package com.hazardchess.game;
+
+/**
+ * Quick-reveal (chord) candidates, kept up to date by Board.
+ * - per cell: number of flagged neighbours and of hidden (not revealed, not flagged) neighbours
+ * - candidates: revealed cells with a number > 0, as many flags around as the number and at
+ *   least one hidden neighbour, i.e. exactly the cells checkQuickReveal would act on
+ * - the candidate set is a sparse set: add / remove / contains / any in O(1)
+ */
+final class ChordIndex {
+    private final Cell[][] cells;
+    private final int width, height;
+    private final int[] flagged;
+    private final int[] hidden;
+    private final int[] slot;       // position in members, -1 = not a candidate
+    private final int[] members;
+    private int count;
+
+    ChordIndex(Cell[][] cells, int width, int height) {
+        this.cells = cells;
+        this.width = width;
+        this.height = height;
+        int size = width * height;
+        flagged = new int[size];
+        hidden = new int[size];
+        slot = new int[size];
+        members = new int[size];
+        rebuild();
+    }
+
+    /** Recounts everything (board setup, undo). */
+    void rebuild() {
+        count = 0;
+        for (int r = 0; r < height; r++) {
+            for (int c = 0; c < width; c++) {
+                int sq = r * width + c, f = 0, h = 0;
+                for (int dr = -1; dr <= 1; dr++) for (int dc = -1; dc <= 1; dc++) {
+                    int nr = r + dr, nc = c + dc;
+                    if ((dr == 0 && dc == 0) || nr < 0 || nr >= height || nc < 0 || nc >= width) continue;
+                    Cell n = cells[nr][nc];
+                    if (n.isFlagged()) f++;
+                    else if (!n.isRevealed()) h++;
+                }
+                flagged[sq] = f;
+                hidden[sq] = h;
+                slot[sq] = -1;
+            }
+        }
+        for (int sq = 0; sq < width * height; sq++) refresh(sq);
+    }
+
+    /** Call after cell became revealed; wasHidden = it was not flagged before. */
+    void revealed(Cell cell, boolean wasHidden) {
+        if (wasHidden) adjustNeighbours(cell, 0, -1);
+        refresh(cell.getRow() * width + cell.getCol());
+    }
+
+    /** Call after the flag of cell was toggled. */
+    void flagToggled(Cell cell) {
+        int df = cell.isFlagged() ? 1 : -1;
+        adjustNeighbours(cell, df, cell.isRevealed() ? 0 : -df);
+    }
+
+    boolean isCandidate(int row, int col) {
+        return slot[row * width + col] >= 0;
+    }
+
+    /** Any candidate as {row, col}, or null. */
+    int[] any() {
+        if (count == 0) return null;
+        int sq = members[0];
+        return new int[]{sq / width, sq % width};
+    }
+
+    private void adjustNeighbours(Cell cell, int df, int dh) {
+        int r = cell.getRow(), c = cell.getCol();
+        for (int dr = -1; dr <= 1; dr++) for (int dc = -1; dc <= 1; dc++) {
+            int nr = r + dr, nc = c + dc;
+            if ((dr == 0 && dc == 0) || nr < 0 || nr >= height || nc < 0 || nc >= width) continue;
+            int sq = nr * width + nc;
+            flagged[sq] += df;
+            hidden[sq] += dh;
+            refresh(sq);
+        }
+    }
+
+    private void refresh(int sq) {
+        Cell cell = cells[sq / width][sq % width];
+        int number = cell.getAdjacentHazardCount();
+        boolean candidate = cell.isRevealed() && number > 0 && flagged[sq] == number && hidden[sq] > 0;
+        if (candidate == (slot[sq] >= 0)) return;
+        if (candidate) {
+            slot[sq] = count;
+            members[count++] = sq;
+        } else {
+            int last = members[--count];
+            members[slot[sq]] = last;
+            slot[last] = slot[sq];
+            slot[sq] = -1;
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.hazardchess.game;
+
+/**
+ * Adjacency counts of a whole 8-wide hazard layer at once, bit-parallel.
+ * - the layer is packed one bit per cell: square r * 8 + c is bit (sq & 63) of word sq >>> 6, 8 rows a word
+ * - the 8 neighbour layers are the packed layer shifted by a row and / or a file: file shifts mask out
+ *   what would wrap around the A / H edge, row shifts carry the edge row over from the next word
+ * - a carry-save adder sums the 8 layers into 4 bit planes, the count of sq being bits sq of planes 0..3:
+ *   under 50 word operations per 8 rows
+ */
+final class HazardCounts {
+    static final int PLANES = 4;
+    private static final long FILE_A = 0x0101010101010101L, FILE_H = FILE_A << 7;
+
+    private HazardCounts() {}
+
+    /** planes[k][w] = bit k of the counts of the squares of word w; hazard and the planes have as many words. */
+    static void compute(long[] hazard, long[][] planes) {
+        int words = hazard.length;
+        for (int w = 0; w < words; w++) {
+            long x = hazard[w];
+            long prev = w > 0 ? hazard[w - 1] : 0, next = w + 1 < words ? hazard[w + 1] : 0;
+            long n = (x << 8) | (prev >>> 56);      // n[sq] = x[sq - 8], the cell above
+            long s = (x >>> 8) | (next << 56);      // s[sq] = x[sq + 8], the cell below
+
+            // one row of neighbours: the cell to the right / left of x, n and s
+            long e = (x >>> 1) & ~FILE_H, west = (x << 1) & ~FILE_A;
+            long ne = (n >>> 1) & ~FILE_H, nw = (n << 1) & ~FILE_A;
+            long se = (s >>> 1) & ~FILE_H, sw = (s << 1) & ~FILE_A;
+
+            // carry-save: three full adders and a half adder take the 8 ones to 2 ones + 4 twos ...
+            long u1 = n ^ s, a1 = u1 ^ e, c1 = (n & s) | (e & u1);
+            long u2 = west ^ ne, a2 = u2 ^ nw, c2 = (west & ne) | (nw & u2);
+            long u3 = a1 ^ a2, a3 = u3 ^ se, c3 = (a1 & a2) | (se & u3);
+            long bit0 = a3 ^ sw, c4 = a3 & sw;
+            // ... the 4 twos to 1 two + 2 fours, and the 2 fours to a four and an eight
+            long u5 = c1 ^ c2, a5 = u5 ^ c3, c5 = (c1 & c2) | (c3 & u5);
+            long bit1 = a5 ^ c4, c6 = a5 & c4;
+            planes[0][w] = bit0;
+            planes[1][w] = bit1;
+            planes[2][w] = c5 ^ c6;
+            planes[3][w] = c5 & c6;
+        }
+    }
+
+    /** Count of sq as left in planes by compute. */
+    static int countAt(long[][] planes, int sq) {
+        int w = sq >>> 6, b = sq & 63;
+        return (int) ((planes[0][w] >>> b) & 1) | (int) ((planes[1][w] >>> b) & 1) << 1
+                | (int) ((planes[2][w] >>> b) & 1) << 2 | (int) ((planes[3][w] >>> b) & 1) << 3;
+    }
+}
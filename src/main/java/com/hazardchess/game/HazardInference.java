@@ -0,0 +1,176 @@
+package com.hazardchess.game;
+
+/**
+ * Minesweeper logic over the revealed numbers, kept up to date by Board.
+ * - single-cell rule: a number with no hazards left to place clears its unknown neighbours,
+ *   one with as many hazards left as unknown neighbours marks them all
+ * - subset rule: if the unknown neighbours of number B are a subset of those of number A,
+ *   the difference holds exactly need(A) - need(B) hazards (all safe at 0, all hazards when full)
+ * - incremental: only numbers next to a changed cell are queued; a deduction queues the
+ *   numbers around the deduced cell in turn. Propagation runs lazily on the first query.
+ * Flags are player guesses and are ignored; exploded cells count as known hazards.
+ */
+final class HazardInference {
+    static final byte UNKNOWN = 0, SAFE = 1, HAZARD = 2;
+
+    private final Cell[][] cells;
+    private final int width, height;
+    private final byte[] known;
+    private final int[] queue;       // circular, each square at most once (queued[])
+    private final boolean[] queued;
+    private int head, queuedCount;
+    private final int[] unknownA = new int[8];
+    private final int[] unknownB = new int[8];
+    private final int[] diff = new int[8];
+
+    HazardInference(Cell[][] cells, int width, int height) {
+        this.cells = cells;
+        this.width = width;
+        this.height = height;
+        int size = width * height;
+        known = new byte[size];
+        queue = new int[size];
+        queued = new boolean[size];
+        reset();
+    }
+
+    /** Forgets every deduction and re-examines all numbers (board setup, undo). */
+    void reset() {
+        java.util.Arrays.fill(known, UNKNOWN);
+        java.util.Arrays.fill(queued, false);
+        head = 0;
+        queuedCount = 0;
+        for (int sq = 0; sq < known.length; sq++) enqueue(sq);
+    }
+
+    /** Call after cell was revealed: its own number and the numbers around it need a new look. */
+    void revealed(Cell cell) {
+        enqueueAround(cell.getRow() * width + cell.getCol(), true);
+    }
+
+    byte get(int row, int col) {
+        propagate();
+        return known[row * width + col];
+    }
+
+    private void propagate() {
+        while (queuedCount > 0) {
+            int sq = queue[head];
+            head = (head + 1) % queue.length;
+            queuedCount--;
+            queued[sq] = false;
+            examine(sq);
+        }
+    }
+
+    private void examine(int a) {
+        if (!isNumber(a)) return;
+        int na = collectUnknown(a, unknownA);
+        if (na == 0) return;
+        int needA = need(a);
+        if (needA == 0) {
+            settle(unknownA, na, SAFE);
+            return;
+        }
+        if (needA == na) {
+            settle(unknownA, na, HAZARD);
+            return;
+        }
+        int r = a / width, c = a % width;
+        for (int dr = -2; dr <= 2; dr++) for (int dc = -2; dc <= 2; dc++) {
+            int nr = r + dr, nc = c + dc;
+            if ((dr == 0 && dc == 0) || nr < 0 || nr >= height || nc < 0 || nc >= width) continue;
+            int b = nr * width + nc;
+            if (!isNumber(b)) continue;
+            int nb = collectUnknown(b, unknownB);
+            if (nb == 0) continue;
+            int needB = need(b);
+            if (subsetRule(unknownB, nb, needB, unknownA, na, needA)
+                    || subsetRule(unknownA, na, needA, unknownB, nb, needB)) {
+                // the settled cells re-queued the numbers around them, but cells of B \ A are not next
+                // to a: look at a again for the pairs not scanned yet
+                enqueue(a);
+                return;
+            }
+        }
+    }
+
+    // small ⊆ big: the cells of big outside small hold needBig - needSmall hazards
+    private boolean subsetRule(int[] small, int ns, int needSmall, int[] big, int nb, int needBig) {
+        if (ns >= nb) return false;
+        int nd = 0;
+        int matched = 0;
+        for (int i = 0; i < nb; i++) {
+            boolean inSmall = false;
+            for (int j = 0; j < ns; j++) {
+                if (small[j] == big[i]) {
+                    inSmall = true;
+                    break;
+                }
+            }
+            if (inSmall) matched++;
+            else diff[nd++] = big[i];
+        }
+        if (matched != ns) return false;
+        int hazards = needBig - needSmall;
+        if (hazards == 0) settle(diff, nd, SAFE);
+        else if (hazards == nd) settle(diff, nd, HAZARD);
+        else return false;
+        return true;
+    }
+
+    private void settle(int[] squares, int n, byte value) {
+        for (int i = 0; i < n; i++) {
+            int sq = squares[i];
+            if (known[sq] != UNKNOWN) continue;
+            known[sq] = value;
+            enqueueAround(sq, false);
+        }
+    }
+
+    // hidden neighbours not settled yet
+    private int collectUnknown(int sq, int[] out) {
+        int r = sq / width, c = sq % width, n = 0;
+        for (int dr = -1; dr <= 1; dr++) for (int dc = -1; dc <= 1; dc++) {
+            int nr = r + dr, nc = c + dc;
+            if ((dr == 0 && dc == 0) || nr < 0 || nr >= height || nc < 0 || nc >= width) continue;
+            int nsq = nr * width + nc;
+            if (!cells[nr][nc].isRevealed() && known[nsq] == UNKNOWN) out[n++] = nsq;
+        }
+        return n;
+    }
+
+    // hazards still to place around a number
+    private int need(int sq) {
+        int r = sq / width, c = sq % width;
+        int n = cells[r][c].getAdjacentHazardCount();
+        for (int dr = -1; dr <= 1; dr++) for (int dc = -1; dc <= 1; dc++) {
+            int nr = r + dr, nc = c + dc;
+            if ((dr == 0 && dc == 0) || nr < 0 || nr >= height || nc < 0 || nc >= width) continue;
+            Cell cell = cells[nr][nc];
+            if (cell.isExploded() || (!cell.isRevealed() && known[nr * width + nc] == HAZARD)) n--;
+        }
+        return n;
+    }
+
+    private boolean isNumber(int sq) {
+        Cell cell = cells[sq / width][sq % width];
+        return cell.isRevealed() && !cell.isExploded();
+    }
+
+    private void enqueueAround(int sq, boolean includeSelf) {
+        int r = sq / width, c = sq % width;
+        for (int dr = -1; dr <= 1; dr++) for (int dc = -1; dc <= 1; dc++) {
+            int nr = r + dr, nc = c + dc;
+            if ((dr == 0 && dc == 0 && !includeSelf) || nr < 0 || nr >= height || nc < 0 || nc >= width) continue;
+            enqueue(nr * width + nc);
+        }
+    }
+
+    private void enqueue(int sq) {
+        if (queued[sq]) return;
+        queued[sq] = true;
+        queue[(head + queuedCount) % queue.length] = sq;
+        queuedCount++;
+    }
+}
@@ -0,0 +1,20 @@
+package com.hazardchess.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+@Name("com.hazardchess.AIDecision")
+@Label("AI Decision")
+@Category({"Hazard Chess", "Engine"})
+@Description("One AI decision (Board.decideAIMove)")
+public class AIDecisionEvent extends jdk.jfr.Event {
+    @Label("Kind") public String kind;
+    @Label("Candidates") public int candidates;
+    @Label("Nodes") public long nodes;
+    @Label("Depth") public int depth;
+    @Label("Score") public double score;
+    @Label("Latency") @Timespan(Timespan.NANOSECONDS) public long latency;
+}
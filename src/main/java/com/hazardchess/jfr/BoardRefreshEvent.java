@@ -0,0 +1,15 @@
+package com.hazardchess.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("com.hazardchess.BoardRefresh")
+@Label("Board Refresh")
+@Category({"Hazard Chess", "UI"})
+@Description("BoardUI redraw pass on the FX thread")
+public class BoardRefreshEvent extends jdk.jfr.Event {
+    @Label("Cells Redrawn") public int cellsRedrawn;
+    @Label("Rebuild") public boolean rebuild;
+}
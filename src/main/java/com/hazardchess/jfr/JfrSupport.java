@@ -0,0 +1,12 @@
+package com.hazardchess.jfr;
+
+/**
+ * Whether jdk.jfr is in the runtime. The events of this package extend jdk.jfr.Event and cannot load
+ * without it (custom-runtime/ is linked without jdk.jfr), so Board, BoardView and BoardUI create them
+ * only when AVAILABLE and otherwise run the plain path.
+ */
+public final class JfrSupport {
+    public static final boolean AVAILABLE = ModuleLayer.boot().findModule("jdk.jfr").isPresent();
+
+    private JfrSupport() {}
+}
@@ -0,0 +1,22 @@
+package com.hazardchess.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("com.hazardchess.MovePiece")
+@Label("Move Piece")
+@Category({"Hazard Chess", "Game"})
+@Description("Board.movePiece, including the reveal / quick reveal it triggers")
+public class MovePieceEvent extends jdk.jfr.Event {
+    @Label("From Row") public int fromRow;
+    @Label("From Column") public int fromCol;
+    @Label("To Row") public int toRow;
+    @Label("To Column") public int toCol;
+    @Label("Piece") public String piece;
+    @Label("White") public boolean white;
+    @Label("Captured") public String captured;
+    @Label("Accepted") public boolean accepted;
+    @Label("Exploded") public boolean exploded;
+}
@@ -0,0 +1,19 @@
+package com.hazardchess.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("com.hazardchess.QuickReveal")
+@Label("Quick Reveal")
+@Category({"Hazard Chess", "Game"})
+@Description("Board.checkQuickReveal (chord on a number cell)")
+public class QuickRevealEvent extends jdk.jfr.Event {
+    @Label("Row") public int row;
+    @Label("Column") public int col;
+    @Label("Executed") public boolean executed;
+    @Label("Cells Opened") public int cellsOpened;
+    @Label("Explosion") public boolean explosion;
+    @Label("Trigger Piece") public String triggerPiece;
+}
@@ -0,0 +1,17 @@
+package com.hazardchess.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("com.hazardchess.Reveal")
+@Label("Reveal")
+@Category({"Hazard Chess", "Game"})
+@Description("Board.revealCell flood fill")
+public class RevealEvent extends jdk.jfr.Event {
+    @Label("Row") public int row;
+    @Label("Column") public int col;
+    @Label("Cells Opened") public int cellsOpened;
+    @Label("Exploded") public boolean exploded;
+}
@@ -0,0 +1,16 @@
+package com.hazardchess.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("com.hazardchess.Undo")
+@Label("Undo")
+@Category({"Hazard Chess", "Game"})
+@Description("Board.undo restoring the last snapshot")
+public class UndoEvent extends jdk.jfr.Event {
+    @Label("Success") public boolean success;
+    @Label("Cells Restored") public int cellsRestored;
+    @Label("History Left") public int historyLeft;
+}
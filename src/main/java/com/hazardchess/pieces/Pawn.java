@@ -46,6 +46,11 @@ public class Pawn extends Piece {
         return false;
     }
 
+    /** Still allowed its double step (cleared by onMove). */
+    public boolean isFirstMove() {
+        return firstMove;
+    }
+
     @Override
     public void onMove() {
         firstMove = false;
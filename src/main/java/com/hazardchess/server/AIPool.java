@@ -0,0 +1,70 @@
+package com.hazardchess.server;
+
+import com.hazardchess.ai.AIDecision;
+import com.hazardchess.ai.AIProfile;
+import com.hazardchess.ai.Engine;
+import com.hazardchess.game.BoardView;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Shared, bounded pool for AI searches of all games.
+ * - a fixed number of platform threads, each with its own single-threaded engine (engines are not
+ *   thread-safe), reused for all the decisions it runs: the pool's size is all the threads AI uses
+ * - a bounded queue: when it is full decide() fails fast with BusyException instead of piling up
+ * - callers are virtual threads and simply block on the result
+ */
+final class AIPool implements AutoCloseable {
+    static final class BusyException extends Exception {
+        private static final long serialVersionUID = 1L;
+
+        BusyException() {
+            super("AI pool saturated", null, false, false);
+        }
+    }
+
+    private final ThreadPoolExecutor executor;
+    private final ThreadLocal<Engine> engines;
+
+    AIPool(int threads, int queueCapacity, AIProfile profile) {
+        AtomicInteger n = new AtomicInteger();
+        executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                r -> Thread.ofPlatform().daemon().name("ai-" + n.incrementAndGet()).unstarted(r),
+                new ThreadPoolExecutor.AbortPolicy());
+        engines = ThreadLocal.withInitial(() -> profile.createEngine(1));
+    }
+
+    AIDecision decide(BoardView view) throws BusyException {
+        Future<AIDecision> f;
+        try {
+            f = executor.submit(() -> view.decideAIMove(engines.get()));
+        } catch (RejectedExecutionException e) {
+            throw new BusyException();
+        }
+        try {
+            return f.get();
+        } catch (InterruptedException e) {
+            f.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new BusyException();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("AI search failed", e.getCause());
+        }
+    }
+
+    int queued() {
+        return executor.getQueue().size();
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+}
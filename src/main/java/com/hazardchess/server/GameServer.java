@@ -0,0 +1,191 @@
+package com.hazardchess.server;
+
+import com.hazardchess.ai.AIProfile;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.net.InetSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Headless multi-game server (no JavaFX), line protocol over NIO sockets.
+ * - one virtual thread per connection; a connection may drive any number of games
+ * - commands on one game are serialised by the game (GameSession), whatever connection sends them
+ * - AI replies come from one bounded AIPool shared by all games, aiThreads single-threaded engines
+ *
+ * Protocol, one command per line, one reply line each (rows, columns from 0, row 0 = black's side):
+ *   NEW [ai|human] [height]      -> GAME id            (vs AI the client plays white)
+ *   MOVE id fr fc tr tc          -> OK turn result [AI move fr fc tr tc | AI reveal r c | AI none | AI busy]
+ *   REVEAL id r c                -> OK ...             quick reveal around a number
+ *   FLAG id r c | UNDO id | RESIGN id | AI id -> OK ...
+ *   MOVES id                     -> MOVES n fr fc tr tc ...
+ *   BOARD id                     -> BOARD h w rows     (see GameSession.board)
+ *   CLOSE id                     -> OK closed         (the game's spectators are disconnected)
+ *   WATCH id                     -> OK watching, then binary SpectatorFeed frames until the client hangs up
+ *                                   (the connection takes no further commands)
+ *   QUIT
+ * turn is w / b, result is - / white / black; errors are "ERR reason".
+ * Run: java -cp ... com.hazardchess.server.GameServer [port] [aiThreads] [EASY|NORMAL|HARD|ISMCTS]
+ */
+public final class GameServer implements AutoCloseable {
+    public static final int DEFAULT_PORT = 7777;
+    private static final int AI_QUEUE_CAPACITY = 1 << 16;
+
+    private final ServerSocketChannel server;
+    private final AIPool ai;
+    private final SpectatorHub spectators;
+    private final Map<Long, GameSession> games = new ConcurrentHashMap<>();
+    private final AtomicLong nextId = new AtomicLong(1);
+    private final Thread acceptor;
+
+    private GameServer(ServerSocketChannel server, AIPool ai, SpectatorHub spectators) {
+        this.server = server;
+        this.ai = ai;
+        this.spectators = spectators;
+        this.acceptor = Thread.ofVirtual().name("accept").unstarted(this::acceptLoop);
+    }
+
+    /** Binds (port 0 = any free port) and starts accepting. */
+    public static GameServer start(int port, int aiThreads, AIProfile profile) throws IOException {
+        ServerSocketChannel ch = ServerSocketChannel.open();
+        ch.bind(new InetSocketAddress(port), 4096);
+        GameServer gs = new GameServer(ch, new AIPool(aiThreads, AI_QUEUE_CAPACITY, profile), new SpectatorHub());
+        gs.acceptor.start();
+        return gs;
+    }
+
+    public int getPort() throws IOException {
+        return ((InetSocketAddress) server.getLocalAddress()).getPort();
+    }
+
+    public int getGameCount() {
+        return games.size();
+    }
+
+    private void acceptLoop() {
+        while (server.isOpen()) {
+            try {
+                SocketChannel client = server.accept();
+                Thread.ofVirtual().name("conn-" + client.getRemoteAddress()).start(() -> serve(client));
+            } catch (ClosedChannelException e) {
+                return;
+            } catch (IOException e) {
+                System.err.println("accept failed: " + e.getMessage());
+            }
+        }
+    }
+
+    private void serve(SocketChannel client) {
+        boolean handedOff = false;
+        try {
+            BufferedReader in = new BufferedReader(new InputStreamReader(Channels.newInputStream(client), StandardCharsets.US_ASCII));
+            BufferedWriter out = new BufferedWriter(new OutputStreamWriter(Channels.newOutputStream(client), StandardCharsets.US_ASCII));
+            client.socket().setTcpNoDelay(true);
+            String line;
+            while ((line = in.readLine()) != null) {
+                String trimmed = line.trim();
+                if (trimmed.equalsIgnoreCase("QUIT")) break;
+                if (trimmed.isEmpty()) continue;
+                GameSession watched = watchTarget(trimmed);
+                out.write(watched != null ? "OK watching" : handle(trimmed));
+                out.write('\n');
+                out.flush();
+                if (watched != null) {
+                    // the hub owns the socket from here (non-blocking, so the streams above are done)
+                    watched.watch(client);
+                    handedOff = true;
+                    return;
+                }
+            }
+        } catch (IOException e) {
+            // client went away
+        } finally {
+            if (!handedOff) {
+                try {
+                    client.close();
+                } catch (IOException ignored) {
+                    // nothing left to do
+                }
+            }
+        }
+    }
+
+    // the game of a valid "WATCH id" line, else null (errors are then reported by handle())
+    private GameSession watchTarget(String line) {
+        String[] t = line.split("\\s+");
+        if (t.length != 2 || !t[0].equalsIgnoreCase("WATCH")) return null;
+        try {
+            return games.get(Long.parseLong(t[1]));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /** Executes one command line and returns the reply line. */
+    String handle(String line) {
+        String[] t = line.split("\\s+");
+        try {
+            String cmd = t[0].toUpperCase();
+            if (cmd.equals("NEW")) {
+                boolean vsAI = t.length < 2 || !t[1].equalsIgnoreCase("human");
+                int height = t.length > 2 ? Integer.parseInt(t[2]) : 8;
+                if (height < 6 || height > 16) return "ERR height must be 6..16";
+                long id = nextId.getAndIncrement();
+                games.put(id, new GameSession(id, height, vsAI, ai, spectators));
+                return "GAME " + id;
+            }
+            if (t.length < 2) return "ERR missing game id";
+            long id = Long.parseLong(t[1]);
+            GameSession game = games.get(id);
+            if (game == null) return "ERR no game " + id;
+            return switch (cmd) {
+                case "MOVE" -> game.move(arg(t, 2), arg(t, 3), arg(t, 4), arg(t, 5));
+                case "REVEAL" -> game.quickReveal(arg(t, 2), arg(t, 3));
+                case "FLAG" -> game.flag(arg(t, 2), arg(t, 3));
+                case "UNDO" -> game.undo();
+                case "RESIGN" -> game.resign();
+                case "AI" -> game.aiMove();
+                case "MOVES" -> game.moves();
+                case "BOARD" -> game.board();
+                case "WATCH" -> "ERR usage: WATCH id";
+                case "CLOSE" -> {
+                    if (games.remove(id, game)) game.close();
+                    yield "OK closed";
+                }
+                default -> "ERR unknown command " + t[0];
+            };
+        } catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+            return "ERR bad arguments";
+        }
+    }
+
+    private static int arg(String[] t, int i) {
+        return Integer.parseInt(t[i]);
+    }
+
+    @Override
+    public void close() throws IOException {
+        server.close();
+        ai.close();
+        spectators.close();
+    }
+
+    public static void main(String[] args) throws Exception {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        int aiThreads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        AIProfile profile = args.length > 2 ? AIProfile.valueOf(args[2].toUpperCase()) : AIProfile.EASY;
+        GameServer gs = start(port, aiThreads, profile);
+        System.out.println("Hazard Chess server on port " + gs.getPort() + ", " + aiThreads + " AI threads, profile " + profile);
+        Thread.currentThread().join();
+    }
+}
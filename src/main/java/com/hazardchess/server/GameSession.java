@@ -0,0 +1,278 @@
+package com.hazardchess.server;
+
+import com.hazardchess.ai.AIDecision;
+import com.hazardchess.ai.Move;
+import com.hazardchess.ai.Position;
+import com.hazardchess.ai.SelfPlay;
+import com.hazardchess.game.Board;
+import com.hazardchess.game.BoardView;
+import com.hazardchess.game.Cell;
+import com.hazardchess.pieces.Piece;
+
+import java.io.IOException;
+import java.nio.channels.SocketChannel;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * One hosted game.
+ * - every command runs under the game's lock, so commands on one game are serialised
+ *   whichever connection sends them (a ReentrantLock: virtual threads park instead of pinning)
+ * - vs AI: the client plays white; after each accepted white action the AI answers before the
+ *   reply is sent. The search runs on a BoardView in the shared AI pool, outside the lock
+ * - every method returns the protocol reply line (see GameServer)
+ * - spectators (WATCH) get a SpectatorFeed, created with the first one; each accepted action
+ *   publishes its delta while the lock is still held
+ */
+final class GameSession {
+    private static final int MAX_AI_RETRIES = 3;
+
+    final long id;
+    final boolean vsAI;
+    private final Board board;
+    private final AIPool ai;
+    private final SpectatorHub hub;
+    private final ReentrantLock lock = new ReentrantLock();
+    private SpectatorFeed feed;
+    private boolean closed;
+
+    GameSession(long id, int height, boolean vsAI, AIPool ai, SpectatorHub hub) {
+        this.id = id;
+        this.vsAI = vsAI;
+        this.board = new Board(height, 2);
+        this.ai = ai;
+        this.hub = hub;
+    }
+
+    /** Hands ch over to the spectator hub; from now on it only receives frames of this game. */
+    void watch(SocketChannel ch) throws IOException {
+        SpectatorHub.Subscriber s = hub.attach(ch);
+        lock.lock();
+        try {
+            if (closed) {
+                // CLOSE came between WATCH and here
+                s.disconnect();
+                return;
+            }
+            if (feed == null) feed = new SpectatorFeed(hub, board.snapshotView());
+            feed.subscribe(s);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    String move(int fr, int fc, int tr, int tc) {
+        lock.lock();
+        try {
+            String err = checkTurn();
+            if (err != null) return err;
+            Cell from = board.getCell(fr, fc);
+            if (from == null || from.getPiece() == null || from.getPiece().isWhite() != board.isWhiteTurn()) {
+                return "ERR no piece of the side to move at " + fr + " " + fc;
+            }
+            if (!board.movePiece(fr, fc, tr, tc)) return "ERR illegal move";
+            SelfPlay.autoPromote(board, tr, tc);
+            published();
+        } finally {
+            lock.unlock();
+        }
+        return afterHumanAction();
+    }
+
+    String quickReveal(int r, int c) {
+        lock.lock();
+        try {
+            String err = checkTurn();
+            if (err != null) return err;
+            Cell cell = board.getCell(r, c);
+            if (cell == null) return "ERR off the board";
+            Piece p = cell.getPiece();
+            Piece trigger = p != null && p.isWhite() == board.isWhiteTurn() ? p : null;
+            if (!board.checkQuickReveal(cell, trigger, true)) return "ERR no quick reveal at " + r + " " + c;
+            published();
+        } finally {
+            lock.unlock();
+        }
+        return afterHumanAction();
+    }
+
+    String flag(int r, int c) {
+        lock.lock();
+        try {
+            if (board.getCell(r, c) == null) return "ERR off the board";
+            board.toggleFlag(r, c);
+            published();
+            return status("");
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Vs AI: asks black to move again after an "AI busy" reply. */
+    String aiMove() {
+        if (!vsAI) return "ERR not an AI game";
+        return afterHumanAction();
+    }
+
+    /** Vs AI one undo goes back to white's previous turn (the AI reply is undone too). */
+    String undo() {
+        lock.lock();
+        try {
+            if (!board.undo()) return "ERR nothing to undo";
+            while (vsAI && !board.isWhiteTurn() && board.undo()) {
+                // keep undoing to white's turn
+            }
+            published();
+            return status("");
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    String resign() {
+        lock.lock();
+        try {
+            board.resign(vsAI || board.isWhiteTurn());
+            published();
+            return status("");
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Non-chord moves of the side to move: "MOVES n fr fc tr tc ...". */
+    String moves() {
+        BoardView view;
+        lock.lock();
+        try {
+            view = board.snapshotView();
+        } finally {
+            lock.unlock();
+        }
+        Position pos = Position.fromView(view, null);
+        int[] buf = new int[Position.MAX_MOVES];
+        int n = pos.generateMoves(buf, false);
+        int w = view.getWidth(), count = 0;
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < n; i++) {
+            if (Move.isChord(buf[i])) continue;
+            int from = Move.from(buf[i]), to = Move.to(buf[i]);
+            sb.append(' ').append(from / w).append(' ').append(from % w).append(' ').append(to / w).append(' ').append(to % w);
+            count++;
+        }
+        return "MOVES " + count + sb;
+    }
+
+    /**
+     * Visible board: "BOARD h w row/row/...", one char per cell:
+     * piece letter (upper case = white), '#' hidden, 'F' flagged, '*' exploded, '.' or the number when revealed.
+     */
+    String board() {
+        lock.lock();
+        try {
+            StringBuilder sb = new StringBuilder("BOARD ").append(board.getHeight()).append(' ').append(board.getWidth()).append(' ');
+            for (int r = 0; r < board.getHeight(); r++) {
+                if (r > 0) sb.append('/');
+                for (int c = 0; c < board.getWidth(); c++) sb.append(cellChar(board.getCell(r, c)));
+            }
+            return sb.toString();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static char cellChar(Cell cell) {
+        if (cell.getPiece() != null) return pieceLetter(cell.getPiece());
+        if (cell.isFlagged()) return 'F';
+        if (!cell.isRevealed()) return '#';
+        if (cell.isExploded()) return '*';
+        int n = cell.getAdjacentHazardCount();
+        return n == 0 ? '.' : (char) ('0' + n);
+    }
+
+    private static char pieceLetter(Piece p) {
+        char ch = switch (p.getName()) {
+            case "Knight" -> 'N';
+            default -> p.getName().charAt(0);
+        };
+        return p.isWhite() ? ch : Character.toLowerCase(ch);
+    }
+
+    /** The game was closed: its spectators are disconnected, later watchers too. */
+    void close() {
+        lock.lock();
+        try {
+            closed = true;
+            if (feed != null) feed.close();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // caller holds lock
+    private void published() {
+        if (feed != null) feed.publish(board.snapshotView());
+    }
+
+    private String checkTurn() {
+        if (board.isGameOver()) return "ERR game over";
+        if (vsAI && !board.isWhiteTurn()) return "ERR not your turn";
+        return null;
+    }
+
+    // vs AI: let black answer, then report; the lock is not held while the AI searches
+    private String afterHumanAction() {
+        if (!vsAI) return status("");
+        for (int attempt = 0; attempt < MAX_AI_RETRIES; attempt++) {
+            BoardView view;
+            lock.lock();
+            try {
+                if (board.isGameOver() || board.isWhiteTurn()) return status("");
+                view = board.snapshotView();
+            } finally {
+                lock.unlock();
+            }
+            AIDecision decision;
+            try {
+                decision = ai.decide(view);
+            } catch (AIPool.BusyException e) {
+                return status(" AI busy");
+            }
+            lock.lock();
+            try {
+                // a flag or undo from another connection made the answer stale: think again
+                if (board.getVersion() != view.getVersion()) continue;
+                if (!SelfPlay.apply(board, decision)) return status(" AI none");
+                published();
+                return status(describe(decision));
+            } finally {
+                lock.unlock();
+            }
+        }
+        return status(" AI stale");
+    }
+
+    private static String describe(AIDecision d) {
+        return switch (d.getKind()) {
+            case MOVE -> {
+                int[] m = d.getMove();
+                yield " AI move " + m[0] + " " + m[1] + " " + m[2] + " " + m[3];
+            }
+            case QUICK_REVEAL -> {
+                int[] q = d.getQuickRevealCell();
+                yield " AI reveal " + q[0] + " " + q[1];
+            }
+            case NONE -> " AI none";
+        };
+    }
+
+    // "OK <w|b> <-|white|black>" + suffix
+    private String status(String suffix) {
+        lock.lock();
+        try {
+            String result = !board.isGameOver() ? "-" : Boolean.TRUE.equals(board.getWhiteWinner()) ? "white" : "black";
+            return "OK " + (board.isWhiteTurn() ? "w" : "b") + " " + result + suffix;
+        } finally {
+            lock.unlock();
+        }
+    }
+}
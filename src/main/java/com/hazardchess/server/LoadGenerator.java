@@ -0,0 +1,175 @@
+package com.hazardchess.server;
+
+import com.hazardchess.ai.AIProfile;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.net.InetSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Local load generator for GameServer.
+ * - opens all games first (so they are all live at once), spread over a number of connections
+ *   (one virtual thread each), then plays random legal white moves round-robin over them
+ * - a move's latency is MOVE sent -> reply read, so in AI games it includes the AI answer
+ * - prints moves/s and p50 / p90 / p99 / max latency, overall and per game kind
+ * Run: java -cp ... com.hazardchess.server.LoadGenerator [games] [connections] [moves] [ai%] [host:port]
+ * Without host:port an in-process server is started (EASY AI on all cores).
+ */
+public final class LoadGenerator {
+    private LoadGenerator() {}
+
+    private static final class Client implements Runnable {
+        final String host;
+        final int port, games, moves, aiPercent;
+        final SplittableRandom rnd;
+        final LongList aiLatency = new LongList(), humanLatency = new LongList();
+        volatile Throwable failure;
+
+        Client(String host, int port, int games, int moves, int aiPercent, long seed) {
+            this.host = host;
+            this.port = port;
+            this.games = games;
+            this.moves = moves;
+            this.aiPercent = aiPercent;
+            this.rnd = new SplittableRandom(seed);
+        }
+
+        @Override
+        public void run() {
+            try (SocketChannel ch = SocketChannel.open(new InetSocketAddress(host, port));
+                 BufferedReader in = new BufferedReader(new InputStreamReader(Channels.newInputStream(ch), StandardCharsets.US_ASCII));
+                 BufferedWriter out = new BufferedWriter(new OutputStreamWriter(Channels.newOutputStream(ch), StandardCharsets.US_ASCII))) {
+                ch.socket().setTcpNoDelay(true);
+                long[] ids = new long[games];
+                boolean[] vsAI = new boolean[games];
+                int[] played = new int[games];
+                boolean[] done = new boolean[games];
+                for (int g = 0; g < games; g++) {
+                    vsAI[g] = rnd.nextInt(100) < aiPercent;
+                    String reply = call(in, out, "NEW " + (vsAI[g] ? "ai" : "human"));
+                    ids[g] = Long.parseLong(reply.substring(5));
+                }
+                int active = games;
+                while (active > 0) {
+                    for (int g = 0; g < games; g++) {
+                        if (done[g]) continue;
+                        String[] m = call(in, out, "MOVES " + ids[g]).split(" ");
+                        int n = Integer.parseInt(m[1]);
+                        String reply;
+                        if (n == 0) {
+                            reply = call(in, out, "RESIGN " + ids[g]);
+                        } else {
+                            int k = 2 + 4 * rnd.nextInt(n);
+                            String cmd = "MOVE " + ids[g] + " " + m[k] + " " + m[k + 1] + " " + m[k + 2] + " " + m[k + 3];
+                            long t0 = System.nanoTime();
+                            reply = call(in, out, cmd);
+                            long dt = System.nanoTime() - t0;
+                            (vsAI[g] ? aiLatency : humanLatency).add(dt);
+                            if (reply.endsWith("AI busy")) call(in, out, "AI " + ids[g]);
+                        }
+                        played[g]++;
+                        if (!reply.startsWith("OK") || !reply.split(" ")[2].equals("-") || played[g] >= moves) {
+                            done[g] = true;
+                            active--;
+                        }
+                    }
+                }
+                for (long id : ids) call(in, out, "CLOSE " + id);
+                call(in, out, "QUIT");
+            } catch (Throwable e) {
+                failure = e;
+            }
+        }
+
+        private static String call(BufferedReader in, BufferedWriter out, String line) throws IOException {
+            out.write(line);
+            out.write('\n');
+            out.flush();
+            if (line.equals("QUIT")) return "";
+            String reply = in.readLine();
+            if (reply == null) throw new IOException("server closed the connection");
+            return reply;
+        }
+    }
+
+    // growable long array, one per client thread
+    private static final class LongList {
+        long[] data = new long[256];
+        int size;
+
+        void add(long v) {
+            if (size == data.length) data = Arrays.copyOf(data, size * 2);
+            data[size++] = v;
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        int games = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+        int connections = args.length > 1 ? Integer.parseInt(args[1]) : 500;
+        int moves = args.length > 2 ? Integer.parseInt(args[2]) : 20;
+        int aiPercent = args.length > 3 ? Integer.parseInt(args[3]) : 50;
+        String host = "127.0.0.1";
+        int port;
+        GameServer embedded = null;
+        if (args.length > 4) {
+            String[] hp = args[4].split(":");
+            host = hp[0];
+            port = Integer.parseInt(hp[1]);
+        } else {
+            embedded = GameServer.start(0, Runtime.getRuntime().availableProcessors(), AIProfile.EASY);
+            port = embedded.getPort();
+        }
+        connections = Math.max(1, Math.min(connections, games));
+
+        List<Client> clients = new ArrayList<>();
+        List<Thread> threads = new ArrayList<>();
+        long t0 = System.nanoTime();
+        for (int i = 0; i < connections; i++) {
+            int share = games / connections + (i < games % connections ? 1 : 0);
+            Client c = new Client(host, port, share, moves, aiPercent, 1000L + i);
+            clients.add(c);
+            threads.add(Thread.ofVirtual().name("load-" + i).start(c));
+        }
+        for (Thread t : threads) t.join();
+        double seconds = (System.nanoTime() - t0) / 1e9;
+        if (embedded != null) embedded.close();
+
+        LongList all = new LongList(), ai = new LongList(), human = new LongList();
+        int failed = 0;
+        for (Client c : clients) {
+            if (c.failure != null) {
+                if (failed++ == 0) c.failure.printStackTrace();
+                continue;
+            }
+            for (int i = 0; i < c.aiLatency.size; i++) { ai.add(c.aiLatency.data[i]); all.add(c.aiLatency.data[i]); }
+            for (int i = 0; i < c.humanLatency.size; i++) { human.add(c.humanLatency.data[i]); all.add(c.humanLatency.data[i]); }
+        }
+        System.out.printf("%d games over %d connections, %d moves in %.1f s (%.0f moves/s)%s%n",
+                games, connections, all.size, seconds, all.size / seconds, failed > 0 ? ", " + failed + " connections failed" : "");
+        report("all", all);
+        report("vs AI", ai);
+        report("human", human);
+    }
+
+    private static void report(String label, LongList l) {
+        if (l.size == 0) return;
+        long[] v = Arrays.copyOf(l.data, l.size);
+        Arrays.sort(v);
+        System.out.printf("  %-6s n=%-7d p50 %.2f ms  p90 %.2f ms  p99 %.2f ms  max %.2f ms%n", label, v.length,
+                pct(v, 0.50), pct(v, 0.90), pct(v, 0.99), v[v.length - 1] / 1e6);
+    }
+
+    private static double pct(long[] sorted, double p) {
+        return sorted[Math.min(sorted.length - 1, (int) Math.floor(p * sorted.length))] / 1e6;
+    }
+}
@@ -0,0 +1,150 @@
+package com.hazardchess.server;
+
+import com.hazardchess.ai.Position;
+import com.hazardchess.game.BoardView;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Spectator stream of one game: per-action deltas, with a keyframe every KEYFRAME_INTERVAL deltas.
+ * - publish() diffs the visible state against the last one sent and encodes only changed cells
+ *   (revealed, exploded, flagged/unflagged, piece arrived/left); the frame is encoded once and
+ *   handed to every subscriber as the same read-only buffer
+ * - a late joiner gets the last keyframe plus the deltas after it, replayed from the encoded buffers
+ * - called under the game's lock, so frames leave in action order
+ *
+ * Frame, little endian:
+ *   int length (bytes after this field), byte type (1 keyframe, 2 delta), int seq,
+ *   byte status (bit 0 white to move, bit 1 game over, bit 2 white won), byte height, byte width,
+ *   short count, count x (byte square, byte piece, byte state, byte number)
+ * square = row * width + col; piece uses the Position codes (0 empty, +8 black); state the Position
+ * bits REVEALED, EXPLODED, FLAGGED; number is -1 while hidden. A keyframe lists every cell.
+ */
+final class SpectatorFeed {
+    static final byte KEYFRAME = 1, DELTA = 2;
+    static final int KEYFRAME_INTERVAL = 64;
+    private static final int HEADER = 4 + 1 + 4 + 1 + 1 + 1 + 2;
+    private static final int VISIBLE = Position.REVEALED | Position.EXPLODED | Position.FLAGGED;
+
+    private final SpectatorHub hub;
+    private final List<SpectatorHub.Subscriber> subscribers = new CopyOnWriteArrayList<>();
+    private final List<ByteBuffer> sinceKeyframe = new ArrayList<>();
+    private byte[] pieces, states, numbers;
+    private int status;
+    private int seq;
+
+    SpectatorFeed(SpectatorHub hub, BoardView view) {
+        this.hub = hub;
+        keyframe(view);
+    }
+
+    /** Adds a spectator and replays the last keyframe and the deltas after it. */
+    void subscribe(SpectatorHub.Subscriber s) {
+        for (ByteBuffer frame : sinceKeyframe) {
+            if (!s.offer(frame)) return;
+        }
+        subscribers.add(s);
+        s.onClose(() -> subscribers.remove(s));
+    }
+
+    /** The game is gone: disconnects every spectator. */
+    void close() {
+        for (SpectatorHub.Subscriber s : subscribers) s.disconnect();
+        subscribers.clear();
+    }
+
+    int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    /** Sends what changed since the last publish (nothing if nothing visible changed). */
+    void publish(BoardView view) {
+        if (view.getWidth() * view.getHeight() != pieces.length) {
+            broadcast(keyframe(view));
+            return;
+        }
+        int w = view.getWidth(), size = pieces.length, changed = 0;
+        int[] squares = new int[size];
+        for (int sq = 0; sq < size; sq++) {
+            int r = sq / w, c = sq % w;
+            if (pieces[sq] != view.pieceAt(r, c) || states[sq] != (view.stateAt(r, c) & VISIBLE)
+                    || numbers[sq] != view.numberAt(r, c)) {
+                squares[changed++] = sq;
+            }
+        }
+        int st = status(view);
+        if (changed == 0 && st == status) return;
+        ByteBuffer frame = header(DELTA, view, changed);
+        for (int i = 0; i < changed; i++) {
+            int sq = squares[i];
+            take(view, sq);
+            put(frame, sq);
+        }
+        status = st;
+        ByteBuffer shared = seal(frame);
+        if (sinceKeyframe.size() > KEYFRAME_INTERVAL) {
+            // the backlog for late joiners restarts at a fresh keyframe; live subscribers get both
+            broadcast(shared);
+            broadcast(keyframe(view));
+            return;
+        }
+        sinceKeyframe.add(shared);
+        broadcast(shared);
+    }
+
+    private void broadcast(ByteBuffer frame) {
+        for (SpectatorHub.Subscriber s : subscribers) {
+            if (!s.offer(frame)) subscribers.remove(s);
+        }
+    }
+
+    private ByteBuffer keyframe(BoardView view) {
+        int size = view.getWidth() * view.getHeight();
+        pieces = new byte[size];
+        states = new byte[size];
+        numbers = new byte[size];
+        status = status(view);
+        ByteBuffer frame = header(KEYFRAME, view, size);
+        for (int sq = 0; sq < size; sq++) {
+            take(view, sq);
+            put(frame, sq);
+        }
+        ByteBuffer shared = seal(frame);
+        sinceKeyframe.clear();
+        sinceKeyframe.add(shared);
+        return shared;
+    }
+
+    private void take(BoardView view, int sq) {
+        int r = sq / view.getWidth(), c = sq % view.getWidth();
+        pieces[sq] = (byte) view.pieceAt(r, c);
+        states[sq] = (byte) (view.stateAt(r, c) & VISIBLE);
+        numbers[sq] = (byte) view.numberAt(r, c);
+    }
+
+    private void put(ByteBuffer frame, int sq) {
+        frame.put((byte) sq).put(pieces[sq]).put(states[sq]).put(numbers[sq]);
+    }
+
+    private ByteBuffer header(byte type, BoardView view, int count) {
+        ByteBuffer frame = ByteBuffer.allocate(HEADER + 4 * count).order(ByteOrder.LITTLE_ENDIAN);
+        frame.putInt(frame.capacity() - 4).put(type).putInt(seq++).put((byte) status(view))
+                .put((byte) view.getHeight()).put((byte) view.getWidth()).putShort((short) count);
+        return frame;
+    }
+
+    private static ByteBuffer seal(ByteBuffer frame) {
+        return frame.flip().asReadOnlyBuffer();
+    }
+
+    private static int status(BoardView view) {
+        int st = view.isWhiteTurn() ? 1 : 0;
+        if (view.isGameOver()) st |= 2;
+        if (Boolean.TRUE.equals(view.getWhiteWinner())) st |= 4;
+        return st;
+    }
+}
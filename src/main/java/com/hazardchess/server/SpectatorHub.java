@@ -0,0 +1,200 @@
+package com.hazardchess.server;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Non-blocking fan-out of encoded frames to spectator sockets.
+ * - a frame is encoded once; each subscriber queues a duplicate() of the same buffer
+ *   (own position, shared bytes), so nothing is copied or re-encoded per subscriber
+ * - offer() writes straight away while the socket keeps up; leftovers wait for OP_WRITE
+ *   on the hub's selector thread
+ * - a subscriber with more than MAX_PENDING_BYTES queued is a slow consumer: it is dropped
+ */
+final class SpectatorHub implements AutoCloseable {
+    static final int MAX_PENDING_BYTES = 256 * 1024;
+
+    private final Selector selector;
+    private final Thread loop;
+    private final Queue<Subscriber> registrations = new ConcurrentLinkedQueue<>();
+    private final AtomicLong dropped = new AtomicLong();
+    private volatile boolean running = true;
+
+    /** One spectator connection. */
+    final class Subscriber {
+        private final SocketChannel ch;
+        private final ArrayDeque<ByteBuffer> pending = new ArrayDeque<>();
+        private final ReentrantLock lock = new ReentrantLock();
+        private int pendingBytes;
+        private boolean closed;
+        private SelectionKey key;
+        private Runnable onClose;
+
+        private Subscriber(SocketChannel ch) {
+            this.ch = ch;
+        }
+
+        /** Queues a shared frame and writes what the socket accepts now; false once dropped or closed. */
+        boolean offer(ByteBuffer frame) {
+            lock.lock();
+            try {
+                if (closed) return false;
+                ByteBuffer own = frame.duplicate();
+                pending.add(own);
+                pendingBytes += own.remaining();
+                if (pendingBytes > MAX_PENDING_BYTES) {
+                    dropped.incrementAndGet();
+                    close();
+                    return false;
+                }
+                flush();
+                return !closed;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        boolean isClosed() {
+            return closed;
+        }
+
+        void onClose(Runnable r) {
+            onClose = r;
+        }
+
+        /** Closes the connection from outside (its game is gone); the selector forgets the closed channel. */
+        void disconnect() {
+            lock.lock();
+            try {
+                close();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        // caller holds lock
+        private void flush() {
+            try {
+                while (!pending.isEmpty()) {
+                    ByteBuffer head = pending.peek();
+                    int n = ch.write(head);
+                    pendingBytes -= n;
+                    if (head.hasRemaining()) break;
+                    pending.poll();
+                }
+                if (key != null && key.isValid()) {
+                    int ops = SelectionKey.OP_READ | (pending.isEmpty() ? 0 : SelectionKey.OP_WRITE);
+                    if (key.interestOps() != ops) {
+                        key.interestOps(ops);
+                        if (!pending.isEmpty()) selector.wakeup();
+                    }
+                }
+            } catch (IOException e) {
+                close();
+            }
+        }
+
+        // caller holds lock
+        private void close() {
+            if (closed) return;
+            closed = true;
+            pending.clear();
+            pendingBytes = 0;
+            try {
+                ch.close();
+            } catch (IOException ignored) {
+                // already gone
+            }
+            if (onClose != null) onClose.run();
+        }
+
+        private void selected(SelectionKey k) {
+            lock.lock();
+            try {
+                if (k.isReadable()) {
+                    // spectators only listen; anything read is discarded, EOF means they left
+                    ByteBuffer sink = ByteBuffer.allocate(256);
+                    if (ch.read(sink) < 0) {
+                        close();
+                        return;
+                    }
+                }
+                if (k.isValid() && k.isWritable()) flush();
+            } catch (IOException e) {
+                close();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    SpectatorHub() throws IOException {
+        selector = Selector.open();
+        loop = Thread.ofPlatform().daemon().name("spectators").start(this::run);
+    }
+
+    /** Takes over ch (switched to non-blocking); the caller must not use it any more. */
+    Subscriber attach(SocketChannel ch) throws IOException {
+        ch.configureBlocking(false);
+        Subscriber s = new Subscriber(ch);
+        registrations.add(s);
+        selector.wakeup();
+        return s;
+    }
+
+    long getDropped() {
+        return dropped.get();
+    }
+
+    private void run() {
+        while (running) {
+            try {
+                selector.select();
+                Subscriber s;
+                while ((s = registrations.poll()) != null) {
+                    s.lock.lock();
+                    try {
+                        if (s.closed) continue;
+                        int ops = SelectionKey.OP_READ | (s.pending.isEmpty() ? 0 : SelectionKey.OP_WRITE);
+                        s.key = s.ch.register(selector, ops, s);
+                    } catch (ClosedChannelException e) {
+                        s.close();
+                    } finally {
+                        s.lock.unlock();
+                    }
+                }
+                Iterator<SelectionKey> it = selector.selectedKeys().iterator();
+                while (it.hasNext()) {
+                    SelectionKey k = it.next();
+                    it.remove();
+                    if (k.isValid()) ((Subscriber) k.attachment()).selected(k);
+                }
+            } catch (IOException e) {
+                if (running) System.err.println("spectator selector: " + e.getMessage());
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        running = false;
+        selector.wakeup();
+        try {
+            loop.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        for (SelectionKey k : selector.keys()) k.channel().close();
+        selector.close();
+    }
+}
@@ -0,0 +1,266 @@
+package com.hazardchess.uci;
+
+import com.hazardchess.ai.Move;
+import com.hazardchess.ai.Position;
+import com.hazardchess.ai.Search;
+import com.hazardchess.ai.SearchStats;
+import com.hazardchess.ai.SelfPlay;
+import com.hazardchess.game.Board;
+import com.hazardchess.game.Cell;
+import com.hazardchess.pieces.Piece;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * stdin/stdout engine protocol modelled on UCI, for tournament runners and profilers.
+ * Squares are file a-h plus rank 1..height, rank 1 = white's back row.
+ * Actions: e2e4 (move, a pawn reaching the last rank becomes a queen), c:e4 (quick reveal around
+ * the number on e4), f:e4 (toggle the flag on e4, the turn does not pass).
+ *
+ *   uci | isready | ucinewgame | quit      as in UCI
+ *   position seed <n> [height <h>] [moves <action> ...]
+ *                                          new Board(h, 2, n), then the actions; an illegal one
+ *                                          stops the replay with "info string illegal action ..."
+ *   go [depth d] [nodes n] [movetime ms] [infinite]
+ *                                          alpha-beta Search of the side to move; one
+ *                                          "info depth d score cp|mate x nodes n nps n time ms pv ..."
+ *                                          per completed iteration, then "bestmove <action>|(none)"
+ *   stop                                   ends the running go; its last completed iteration stands
+ *   state                                  hazard extension, three lines:
+ *       state turn w|b result -|white|black hazards n revealed n flagged n exploded n
+ *       board row/row/...   (rank height first; piece letter, upper case = white; '#' hidden,
+ *                            'F' flagged, '*' exploded, '.' or the number when revealed)
+ *       flags [square ...]
+ * Run: java -cp ... com.hazardchess.uci.UciEngine
+ */
+public final class UciEngine {
+    private static final Pattern MOVE = Pattern.compile("([a-h])(\\d{1,2})([a-h])(\\d{1,2})q?");
+    private static final Pattern CELL_ACTION = Pattern.compile("([cf]):([a-h])(\\d{1,2})");
+    private static final long INFINITE_NANOS = TimeUnit.DAYS.toNanos(1);
+
+    private final PrintStream out;
+    private Board board = new Board(8, 2, 0);
+    private Search search;
+    private Thread searcher;
+
+    public UciEngine(PrintStream out) {
+        this.out = out;
+    }
+
+    /** Reads commands until quit or end of input. */
+    public void run(BufferedReader in) throws IOException {
+        String line;
+        while ((line = in.readLine()) != null) {
+            String[] t = line.trim().split("\\s+");
+            switch (t[0]) {
+                case "uci" -> {
+                    send("id name Hazard Chess");
+                    send("id author hazard-chess");
+                    send("uciok");
+                }
+                case "isready" -> send("readyok");
+                case "ucinewgame" -> {
+                    stopSearch();
+                    board = new Board(8, 2, 0);
+                }
+                case "position" -> {
+                    stopSearch();
+                    position(t);
+                }
+                case "go" -> go(t);
+                case "stop" -> stopSearch();
+                case "state" -> state();
+                case "quit" -> {
+                    stopSearch();
+                    return;
+                }
+                case "" -> { }
+                default -> send("info string unknown command " + t[0]);
+            }
+        }
+        stopSearch();
+    }
+
+    private void position(String[] t) {
+        long seed = 0;
+        int height = 8, i = 1;
+        try {
+            for (; i < t.length && !t[i].equals("moves"); i += 2) {
+                if (t[i].equals("seed")) seed = Long.parseLong(t[i + 1]);
+                else if (t[i].equals("height")) height = Integer.parseInt(t[i + 1]);
+            }
+        } catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+            send("info string bad position arguments");
+            return;
+        }
+        if (height < 6 || height > 16) {
+            send("info string height must be 6..16");
+            return;
+        }
+        board = new Board(height, 2, seed);
+        for (i++; i < t.length; i++) {
+            if (!apply(t[i])) {
+                send("info string illegal action " + t[i]);
+                return;
+            }
+        }
+    }
+
+    private boolean apply(String action) {
+        if (board.isGameOver()) return false;
+        Matcher m = MOVE.matcher(action);
+        if (m.matches()) {
+            int fr = row(m.group(2)), fc = col(m.group(1)), tr = row(m.group(4)), tc = col(m.group(3));
+            Cell from = board.getCell(fr, fc);
+            if (from == null || from.getPiece() == null || from.getPiece().isWhite() != board.isWhiteTurn()) return false;
+            if (!board.movePiece(fr, fc, tr, tc)) return false;
+            SelfPlay.autoPromote(board, tr, tc);
+            return true;
+        }
+        m = CELL_ACTION.matcher(action);
+        if (!m.matches()) return false;
+        int r = row(m.group(3)), c = col(m.group(2));
+        Cell cell = board.getCell(r, c);
+        if (cell == null) return false;
+        if (m.group(1).equals("f")) {
+            boolean was = cell.isFlagged();
+            board.toggleFlag(r, c);
+            return cell.isFlagged() != was;
+        }
+        Piece p = cell.getPiece();
+        return board.checkQuickReveal(cell, p != null && p.isWhite() == board.isWhiteTurn() ? p : null, true);
+    }
+
+    private void go(String[] t) {
+        if (searcher != null && searcher.isAlive()) {
+            send("info string already searching");
+            return;
+        }
+        int depth = Position.MAX_PLY - 1;
+        long nodes = Long.MAX_VALUE, budget = INFINITE_NANOS;
+        try {
+            for (int i = 1; i < t.length; i++) {
+                switch (t[i]) {
+                    case "depth" -> depth = Integer.parseInt(t[++i]);
+                    case "nodes" -> nodes = Long.parseLong(t[++i]);
+                    case "movetime" -> budget = TimeUnit.MILLISECONDS.toNanos(Long.parseLong(t[++i]));
+                    default -> { } // infinite and unknown limits: search until stop
+                }
+            }
+        } catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+            send("info string bad go arguments");
+            return;
+        }
+        if (board.isGameOver()) {
+            send("bestmove (none)");
+            return;
+        }
+        int width = board.getWidth(), height = board.getHeight();
+        Position pos = Position.fromBoard(board, null);
+        Search s = new Search(depth, budget);
+        s.setNodeLimit(nodes);
+        s.setListener((d, score, n, elapsed, pv, pvLength) -> {
+            StringBuilder sb = new StringBuilder("info depth ").append(d).append(' ').append(score(score))
+                    .append(" nodes ").append(n)
+                    .append(" nps ").append(elapsed > 0 ? n * 1_000_000_000L / elapsed : 0)
+                    .append(" time ").append(TimeUnit.NANOSECONDS.toMillis(elapsed))
+                    .append(" pv");
+            for (int i = 0; i < pvLength; i++) sb.append(' ').append(action(pv[i], width, height));
+            send(sb.toString());
+        });
+        search = s;
+        searcher = Thread.ofPlatform().name("search").start(() -> {
+            int best = s.bestMove(pos, new SearchStats());
+            send("bestmove " + (best == Move.NONE ? "(none)" : action(best, width, height)));
+        });
+    }
+
+    private void stopSearch() {
+        if (searcher == null) return;
+        search.stop();
+        try {
+            searcher.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        searcher = null;
+        search = null;
+    }
+
+    private void state() {
+        int hazards = board.getHazardTotal(), revealed = 0, flagged = 0, exploded = 0;
+        StringBuilder rows = new StringBuilder("board ");
+        StringBuilder flags = new StringBuilder("flags");
+        for (int r = 0; r < board.getHeight(); r++) {
+            if (r > 0) rows.append('/');
+            for (int c = 0; c < board.getWidth(); c++) {
+                Cell cell = board.getCell(r, c);
+                if (cell.isRevealed()) revealed++;
+                if (cell.isExploded()) exploded++;
+                if (cell.isFlagged()) {
+                    flagged++;
+                    flags.append(' ').append(square(r, c, board.getHeight()));
+                }
+                rows.append(cellChar(cell));
+            }
+        }
+        String result = !board.isGameOver() ? "-" : Boolean.TRUE.equals(board.getWhiteWinner()) ? "white" : "black";
+        send("state turn " + (board.isWhiteTurn() ? "w" : "b") + " result " + result + " hazards " + hazards
+                + " revealed " + revealed + " flagged " + flagged + " exploded " + exploded);
+        send(rows.toString());
+        send(flags.toString());
+    }
+
+    private static char cellChar(Cell cell) {
+        Piece p = cell.getPiece();
+        if (p != null) {
+            char ch = p.getName().equals("Knight") ? 'N' : p.getName().charAt(0);
+            return p.isWhite() ? ch : Character.toLowerCase(ch);
+        }
+        if (cell.isFlagged()) return 'F';
+        if (!cell.isRevealed()) return '#';
+        if (cell.isExploded()) return '*';
+        int n = cell.getAdjacentHazardCount();
+        return n == 0 ? '.' : (char) ('0' + n);
+    }
+
+    private static String score(int score) {
+        if (Math.abs(score) < Search.MATE - Position.MAX_PLY) return "score cp " + score;
+        int plies = Search.MATE - Math.abs(score);
+        return "score mate " + (score > 0 ? (plies + 1) / 2 : -(plies / 2));
+    }
+
+    private static String action(int move, int width, int height) {
+        int f = Move.from(move), to = Move.to(move);
+        if (Move.isChord(move)) return "c:" + square(f / width, f % width, height);
+        return square(f / width, f % width, height) + square(to / width, to % width, height);
+    }
+
+    private static String square(int row, int col, int height) {
+        return (char) ('a' + col) + Integer.toString(height - row);
+    }
+
+    private int row(String rank) {
+        return board.getHeight() - Integer.parseInt(rank);
+    }
+
+    private static int col(String file) {
+        return file.charAt(0) - 'a';
+    }
+
+    private synchronized void send(String line) {
+        out.println(line);
+    }
+
+    public static void main(String[] args) throws IOException {
+        PrintStream out = new PrintStream(System.out, true, StandardCharsets.US_ASCII);
+        new UciEngine(out).run(new BufferedReader(new InputStreamReader(System.in, StandardCharsets.US_ASCII)));
+    }
+}
@@ -1,7 +1,14 @@
 package com.hazardchess.ui;
 
+import com.hazardchess.ai.AIDecision;
+import com.hazardchess.ai.AIProfile;
+import com.hazardchess.ai.analysis.GameAnalyser;
+import com.hazardchess.ai.analysis.GameReport;
 import com.hazardchess.game.Board;
+import com.hazardchess.game.BoardView;
 import com.hazardchess.game.Cell;
+import com.hazardchess.jfr.BoardRefreshEvent;
+import com.hazardchess.jfr.JfrSupport;
 import com.hazardchess.pieces.Piece;
 import com.hazardchess.pieces.Queen;
 import com.hazardchess.pieces.Rook;
@@ -26,11 +33,22 @@ import javafx.scene.shape.StrokeType;
 import javafx.scene.control.*;
 import javafx.scene.text.Font;
 import javafx.scene.text.Text;
+import javafx.stage.FileChooser;
 import javafx.stage.Stage;
 import javafx.util.Duration;
 
-import java.util.ArrayList;
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
 import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * Polished BoardUI with:
@@ -44,22 +62,60 @@ import java.util.List;
  */
 public class BoardUI extends Application {
 
+    /** -Dhazardchess.exitAfterFirstFrame=true: print the time to the first frame and quit (startup measurement, CDS training). */
+    private static final boolean EXIT_AFTER_FIRST_FRAME = Boolean.getBoolean("hazardchess.exitAfterFirstFrame");
+    /** Entries kept in the event log view (-Dhazardchess.log.capacity); older ones are dropped. */
+    private static final int LOG_CAPACITY = Integer.getInteger("hazardchess.log.capacity", 500);
+    /** -Dhazardchess.log.file=path: also write the event log to a rolling file (1 MiB, 3 old files kept). */
+    private static final String LOG_FILE = System.getProperty("hazardchess.log.file");
+    private static final long LOG_FILE_MAX_BYTES = 1 << 20;
+    private static final int LOG_FILE_KEEP = 3;
+    /** Time the risk overlay may spend sampling one position (-Dhazardchess.heatmap.budgetMs). */
+    private static final long HEATMAP_BUDGET_NANOS = Integer.getInteger("hazardchess.heatmap.budgetMs", 150) * 1_000_000L;
+
     private final int CELL_SIZE = 64;
     private final int BOARD_PADDING = 18;
     private final double BOARD_RADIUS = 12.0;
 
     private Board board;
+    private AIProfile aiProfile = AIProfile.NORMAL;
     private Cell selectedCell = null;
-    private List<Cell> validMoves = new ArrayList<>();
+    // legal moves of the side to move, rebuilt off the FX thread after every refresh that changed the board
+    private LegalMoveMap moveMap;
+    private Board moveMapBoard;
+    private final ExecutorService moveMapWorker = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "move-map");
+        t.setDaemon(true);
+        return t;
+    });
 
     private StackPane boardContainer;
     private GridPane grid;
     private Pane overlayPane; // for animation layer
     private StackPane[][] nodeCache;
 
+    // risk overlay: one label per cell above the grid, recomputed off the FX thread per board version
+    private boolean showHeatmap = false;
+    private Pane heatPane;
+    private Label[][] heatLabels;
+    private int[][] heatShown;     // percent shown by each label, -1 = hidden
+    private Board heatBoard;
+    private long heatVersion = -1;
+    private Future<?> heatTask;
+    private final ExecutorService heatWorker = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "heatmap");
+        t.setDaemon(true);
+        return t;
+    });
+
     private boolean useAltRevealColors = false;
 
-    private TextArea logArea;
+    private ListView<String> logView;
+    private final LogRing logEntries = new LogRing(LOG_CAPACITY);
+    private RollingLogFile logFile;
+    // simpleLog() may run on any thread: lines queue here and one runLater drains them per pulse
+    private final ConcurrentLinkedQueue<String> pendingLog = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean logDrainScheduled = new AtomicBoolean();
     private Button undoButton;
 
     // numeric log counter
@@ -103,8 +159,13 @@ public class BoardUI extends Application {
         overlayPane.setMouseTransparent(true);
         overlayPane.setPrefSize(board.getWidth() * CELL_SIZE, board.getHeight() * CELL_SIZE);
 
-        boardContainer.getChildren().addAll(bg, grid, overlayPane);
+        heatPane = new Pane();
+        heatPane.setMouseTransparent(true);
+        heatPane.setVisible(showHeatmap);
+
+        boardContainer.getChildren().addAll(bg, grid, heatPane, overlayPane);
         StackPane.setAlignment(grid, Pos.CENTER);
+        StackPane.setAlignment(heatPane, Pos.CENTER);
         StackPane.setAlignment(overlayPane, Pos.CENTER);
 
         initGridCache();
@@ -139,7 +200,6 @@ public class BoardUI extends Application {
         resetBtn.setOnAction(evt -> {
             board = new Board(board.getHeight(), 2);
             selectedCell = null;
-            validMoves.clear();
             initGridCache();
             refreshAllCells();
             animateExplosions();
@@ -152,7 +212,6 @@ public class BoardUI extends Application {
         newGameBtn.setOnAction(evt -> {
             board = new Board(board.getHeight(), 2);
             selectedCell = null;
-            validMoves.clear();
             initGridCache();
             refreshAllCells();
             simpleLog("New Game");
@@ -170,32 +229,79 @@ public class BoardUI extends Application {
             updateToggleStyle(themeToggle);
         });
 
-        HBox controlsBox = new HBox(8, undoButton, resetBtn, newGameBtn);
+        ToggleButton riskToggle = new ToggleButton("Risk");
+        styleToggleSmall(riskToggle);
+        riskToggle.setSelected(showHeatmap);
+        updateToggleStyle(riskToggle);
+        riskToggle.setOnAction(evt -> {
+            showHeatmap = riskToggle.isSelected();
+            heatPane.setVisible(showHeatmap);
+            if (showHeatmap) scheduleHeatmap();
+            else cancelHeatmap();
+            simpleLog("Risk map: " + (showHeatmap ? "ON" : "OFF"));
+            updateToggleStyle(riskToggle);
+        });
+
+        Button saveBtn = new Button("Save");
+        styleSecondarySmall(saveBtn);
+        saveBtn.setOnAction(evt -> saveGame(stage));
+
+        Button loadBtn = new Button("Load");
+        styleSecondarySmall(loadBtn);
+        loadBtn.setOnAction(evt -> loadGame(stage));
+
+        ComboBox<AIProfile> difficultyBox = new ComboBox<>();
+        difficultyBox.getItems().addAll(AIProfile.values());
+        difficultyBox.setValue(aiProfile);
+        difficultyBox.setPrefHeight(30);
+        difficultyBox.setOnAction(evt -> {
+            aiProfile = difficultyBox.getValue();
+            simpleLog("AI: " + aiProfile);
+        });
+
+        HBox controlsBox = new HBox(8, undoButton, resetBtn, newGameBtn, saveBtn, loadBtn, difficultyBox);
         controlsBox.setAlignment(Pos.CENTER_LEFT);
 
         Region spacer = new Region();
         HBox.setHgrow(spacer, Priority.ALWAYS);
 
-        topBar.getChildren().addAll(controlsBox, spacer, themeToggle);
+        topBar.getChildren().addAll(controlsBox, spacer, riskToggle, themeToggle);
+
+        // RIGHT: fixed log panel (virtualized: only the visible rows are cells)
+        logView = new ListView<>(logEntries);
+        logView.setFixedCellSize(20);
+        logView.setCellFactory(v -> new ListCell<>() {
+            private final Tooltip full = new Tooltip();
 
-        // RIGHT: fixed log panel
-        logArea = new TextArea();
-        logArea.setEditable(false);
-        logArea.setWrapText(true);
-        logArea.setPrefWidth(320);
-        logArea.setMinWidth(260);
-        logArea.setMaxWidth(360);
-        logArea.setStyle("-fx-font-family: monospace; -fx-font-size: 12; -fx-focus-color: transparent;");
+            @Override
+            protected void updateItem(String item, boolean empty) {
+                super.updateItem(item, empty);
+                setText(empty ? null : item);
+                full.setText(item);
+                setTooltip(empty ? null : full);
+            }
+        });
+        logView.setPrefWidth(320);
+        logView.setMinWidth(260);
+        logView.setMaxWidth(360);
+        logView.setStyle("-fx-font-family: monospace; -fx-font-size: 12; -fx-focus-color: transparent;");
+        if (LOG_FILE != null) {
+            try {
+                logFile = new RollingLogFile(Path.of(LOG_FILE), LOG_FILE_MAX_BYTES, LOG_FILE_KEEP);
+            } catch (IOException e) {
+                System.err.println("event log file " + LOG_FILE + ": " + e.getMessage());
+            }
+        }
         VBox logBox = new VBox(8);
         Label logLabel = new Label("Event Log");
         logLabel.setFont(Font.font(13));
         logLabel.setStyle("-fx-font-weight:600;");
-        logBox.getChildren().addAll(logLabel, logArea);
+        logBox.getChildren().addAll(logLabel, logView);
         logBox.setPadding(new Insets(12));
         logBox.setPrefWidth(320);
         logBox.setMaxWidth(360);
         logBox.setStyle("-fx-background-color: rgba(250,250,252,0.95); -fx-background-radius:8; -fx-border-color: rgba(0,0,0,0.04); -fx-border-radius:8;");
-        VBox.setVgrow(logArea, Priority.ALWAYS);
+        VBox.setVgrow(logView, Priority.ALWAYS);
 
         // CENTER: container that centers the fixed-size board
         HBox centerBox = new HBox();
@@ -234,6 +340,21 @@ public class BoardUI extends Application {
         Platform.runLater(() -> {
             refreshAllCells();
             animateExplosions();
+            if (EXIT_AFTER_FIRST_FRAME) exitAfterNextPulse(scene);
+        });
+    }
+
+    // the pulse after the initial refresh renders the first complete frame: report ms since process start, then quit
+    private void exitAfterNextPulse(Scene scene) {
+        scene.addPostLayoutPulseListener(new Runnable() {
+            @Override
+            public void run() {
+                scene.removePostLayoutPulseListener(this);
+                long started = ProcessHandle.current().info().startInstant().map(Instant::toEpochMilli)
+                        .orElse(System.currentTimeMillis());
+                System.out.println("first frame " + (System.currentTimeMillis() - started) + " ms");
+                Platform.exit();
+            }
         });
     }
 
@@ -276,6 +397,10 @@ public class BoardUI extends Application {
     }
 
     private void initGridCache() {
+        traceRefresh(board.getHeight() * board.getWidth(), true, this::buildGridCache);
+    }
+
+    private void buildGridCache() {
         int h = board.getHeight();
         int w = board.getWidth();
         nodeCache = new StackPane[h][w];
@@ -300,12 +425,30 @@ public class BoardUI extends Application {
                 grid.add(pane, c, r);
             }
         }
+        initHeatLayer();
 
         for (int r = 0; r < h; r++)
             for (int c = 0; c < w; c++)
                 refreshCell(r, c);
     }
 
+    // runs redraw inside a BoardRefreshEvent when jdk.jfr is there (see JfrSupport)
+    private void traceRefresh(int cells, boolean rebuild, Runnable redraw) {
+        if (!JfrSupport.AVAILABLE) {
+            redraw.run();
+            return;
+        }
+        BoardRefreshEvent event = new BoardRefreshEvent();
+        event.begin();
+        redraw.run();
+        event.end();
+        if (event.shouldCommit()) {
+            event.cellsRedrawn = cells;
+            event.rebuild = rebuild;
+            event.commit();
+        }
+    }
+
     private void refreshCell(int r, int c) {
         StackPane pane = nodeCache[r][c];
         pane.getChildren().clear();
@@ -335,14 +478,14 @@ public class BoardUI extends Application {
         if (cell == selectedCell) {
             rect.setStroke(Color.web("#2563eb"));
             rect.setStrokeWidth(3.0);
-        } else if (validMoves.contains(cell)) {
+        } else if (isTarget(r, c)) {
             rect.setStroke(Color.web("#f59e0b"));
             rect.setStrokeWidth(2.0);
         }
 
         pane.getChildren().add(rect);
 
-        if (validMoves.contains(cell) && !cell.isRevealed()) {
+        if (!cell.isRevealed() && isTarget(r, c)) {
             Circle ring = new Circle(CELL_SIZE * 0.36);
             ring.setFill(Color.color(1.0, 0.94, 0.6, 0.16));
             ring.setStroke(Color.web("#f59e0b"));
@@ -426,7 +569,7 @@ public class BoardUI extends Application {
             if (board.isGameOver()) return;
             if (e.getButton() == MouseButton.SECONDARY) {
                 board.toggleFlag(rr, cc);
-                refreshCell(rr, cc);
+                traceRefresh(1, false, () -> refreshCell(rr, cc));
                 animateExplosions();
                 simpleLog("Flag toggled at " + toChessCoord(rr, cc));
                 undoButton.setDisable(false);
@@ -444,8 +587,7 @@ public class BoardUI extends Application {
                         boolean executed = board.checkQuickReveal(dbl, trigger, true); // double-click consumes turn when valid
                         if (executed) {
                             selectedCell = null;
-                            validMoves.clear();
-                            refreshAllCells();
+                                            refreshAllCells();
                             animateExplosions();
                             simpleLog("Quick reveal at " + toChessCoord(rr, cc));
                             undoButton.setDisable(false);
@@ -499,12 +641,6 @@ public class BoardUI extends Application {
     if (selectedCell == null) {
         if (clicked.getPiece() != null && clicked.getPiece().isWhite()) {
             selectedCell = clicked;
-            validMoves.clear();
-            Piece p = clicked.getPiece();
-            for (int r = 0; r < board.getHeight(); r++)
-                for (int c = 0; c < board.getWidth(); c++)
-                    if (p.canMove(selectedCell.getRow(), selectedCell.getCol(), r, c, board))
-                        validMoves.add(board.getCell(r, c));
         }
         refreshAllCells();
         return;
@@ -512,15 +648,13 @@ public class BoardUI extends Application {
 
     if (clicked == selectedCell) {
         selectedCell = null;
-        validMoves.clear();
         refreshAllCells();
         return;
     }
 
     Piece p = selectedCell.getPiece();
-    if (p == null || !p.canMove(selectedCell.getRow(), selectedCell.getCol(), row, col, board)) {
+    if (p == null || !moveMap().canMove(selectedCell.getRow(), selectedCell.getCol(), row, col)) {
         selectedCell = null;
-        validMoves.clear();
         refreshAllCells();
         return;
     }
@@ -537,12 +671,11 @@ public class BoardUI extends Application {
     if (sourceNode == null || destNode == null) {
         board.movePiece(sr, sc, row, col);
         selectedCell = null;
-        validMoves.clear();
         refreshAllCells();
         animateExplosions();
         simpleLog(moveLogText);
         undoButton.setDisable(false);
-        if (!board.isWhiteTurn()) runAIMoveWithAnimation();
+        afterPlayerMove(row, col);
         return;
     }
 
@@ -578,41 +711,52 @@ public class BoardUI extends Application {
             overlayPane.getChildren().remove(animPiece);
             board.movePiece(sr, sc, row, col);
 
-            // check promotion
-            Cell dest = board.getCell(row, col);
-            if (dest != null && dest.getPiece() != null && "Pawn".equals(dest.getPiece().getName())) {
-                boolean isWhite = dest.getPiece().isWhite();
-                if ((isWhite && row == 0) || (!isWhite && row == board.getHeight()-1)) {
-                    promptPromotion(dest);
-                }
-            }
-
             selectedCell = null;
-            validMoves.clear();
             refreshAllCells();
             animateExplosions();
             simpleLog(moveLogText);
             undoButton.setDisable(false);
-
-            if (!board.isWhiteTurn() && !board.isGameOver()) runAIMoveWithAnimation();
+            afterPlayerMove(row, col);
         });
 
         tt.play();
     });
 }
 
+// a pawn that reached the last rank waits for the player's choice; the AI starts once it is made, so it
+// never searches the position with the pawn still on the board
+private void afterPlayerMove(int row, int col) {
+    if (board.canPromote(row, col) && !board.isGameOver()) promptPromotion(board.getCell(row, col));
+    else if (!board.isWhiteTurn() && !board.isGameOver()) runAIMoveWithAnimation();
+}
+
+// the board the AI searched was replaced or changed (flag, undo, promotion) since its snapshot: think again
+private boolean aiAnswerStale(Board searched, BoardView view) {
+    if (board == searched && board.getVersion() == view.getVersion()) return false;
+    simpleLog("AI: board changed during search, thinking again");
+    if (!board.isWhiteTurn()) runAIMoveWithAnimation();
+    return true;
+}
+
 private void runAIMoveWithAnimation() {
     if (board.isGameOver()) return;
 
-    Task<int[]> task = new Task<>() {
+    // the worker searches a snapshot; flags, undo or reset meanwhile make its answer stale
+    Board searched = board;
+    BoardView view = board.snapshotView();
+    AIProfile profile = aiProfile;
+    Task<AIDecision> task = new Task<>() {
         @Override
-        protected int[] call() { return board.chooseBestAIMove(); }
+        protected AIDecision call() { return view.decideAIMove(profile.createEngine()); }
     };
 
     task.setOnSucceeded(ev -> {
-        int[] mv = task.getValue();
+        AIDecision decision = task.getValue();
+        if (aiAnswerStale(searched, view)) return;
+        simpleLog("AI: " + decision.getStats().summary());
+        int[] mv = decision.getMove();
         if (mv == null) {
-            int[] quick = board.findQuickRevealCandidate();
+            int[] quick = decision.getQuickRevealCell();
             if (quick != null) {
                 Cell numcell = board.getCell(quick[0], quick[1]);
                 Piece trigger = (numcell.getPiece() != null && !numcell.getPiece().isWhite()) ? numcell.getPiece() : null;
@@ -639,14 +783,8 @@ private void runAIMoveWithAnimation() {
         if (sourceNode == null || destNode == null) {
             board.movePiece(fr, fc, tr, tc);
             // auto-promote AI pawn
-            Cell dest = board.getCell(tr, tc);
-            if (dest != null && dest.getPiece() != null && "Pawn".equals(dest.getPiece().getName())) {
-                boolean white = dest.getPiece().isWhite();
-                if ((white && tr == 0) || (!white && tr == board.getHeight()-1)) {
-                    dest.setPiece(new Queen(white));
-                    simpleLog("Black pawn promoted to Queen at " + toChessCoord(tr, tc));
-                }
-            }
+            if (board.promote(tr, tc, new Queen(pieceIsWhite)))
+                simpleLog("Black pawn promoted to Queen at " + toChessCoord(tr, tc));
             refreshAllCells();
             animateExplosions();
             simpleLog(moveLogText);
@@ -682,15 +820,11 @@ private void runAIMoveWithAnimation() {
             tt.setInterpolator(Interpolator.EASE_BOTH);
             tt.setOnFinished(e -> {
                 overlayPane.getChildren().remove(animPiece);
+                // the board can still change during the animation (undo, new game)
+                if (aiAnswerStale(searched, view)) return;
                 board.movePiece(fr, fc, tr, tc);
-                Cell dest = board.getCell(tr, tc);
-                if (dest != null && dest.getPiece() != null && "Pawn".equals(dest.getPiece().getName())) {
-                    boolean white = dest.getPiece().isWhite();
-                    if ((white && tr == 0) || (!white && tr == board.getHeight()-1)) {
-                        dest.setPiece(new Queen(white));
-                        simpleLog("Black pawn promoted to Queen at " + toChessCoord(tr, tc));
-                    }
-                }
+                if (board.promote(tr, tc, new Queen(pieceIsWhite)))
+                    simpleLog("Black pawn promoted to Queen at " + toChessCoord(tr, tc));
                 refreshAllCells();
                 animateExplosions();
                 simpleLog(moveLogText);
@@ -704,28 +838,128 @@ private void runAIMoveWithAnimation() {
 }
 
     private void refreshAllCells() {
-        for (int r = 0; r < board.getHeight(); r++)
-            for (int c = 0; c < board.getWidth(); c++)
-                refreshCell(r, c);
+        traceRefresh(board.getHeight() * board.getWidth(), false, () -> {
+            for (int r = 0; r < board.getHeight(); r++)
+                for (int c = 0; c < board.getWidth(); c++)
+                    refreshCell(r, c);
+        });
 
         // if game ended, show overlay
         if (board.isGameOver()) showGameOverOverlay(board.getWhiteWinner());
+        scheduleMoveMap();
+        scheduleHeatmap();
     }
 
-    private void animateExplosions() {
+    private void initHeatLayer() {
+        cancelHeatmap();
+        int h = board.getHeight(), w = board.getWidth();
+        heatPane.getChildren().clear();
+        heatPane.setPrefSize(w * CELL_SIZE, h * CELL_SIZE);
+        heatPane.setMaxSize(w * CELL_SIZE, h * CELL_SIZE);
+        heatLabels = new Label[h][w];
+        heatShown = new int[h][w];
+        for (int r = 0; r < h; r++) {
+            for (int c = 0; c < w; c++) {
+                Label l = new Label();
+                l.setFont(Font.font(10));
+                l.setTextFill(Color.web("#7f1d1d"));
+                l.setAlignment(Pos.BOTTOM_LEFT);
+                l.setPadding(new Insets(0, 0, 3, 5));
+                l.setPrefSize(CELL_SIZE - 2, CELL_SIZE - 2);
+                l.relocate(c * CELL_SIZE + 1, r * CELL_SIZE + 1);
+                l.setVisible(false);
+                heatLabels[r][c] = l;
+                heatShown[r][c] = -1;
+                heatPane.getChildren().add(l);
+            }
+        }
+    }
+
+    // samples the new position on the worker; the request for the previous one is cancelled
+    private void scheduleHeatmap() {
+        if (!showHeatmap || (heatBoard == board && heatVersion == board.getVersion())) return;
+        // cells revealed by the last action lose their label now, not when the result arrives
+        for (int r = 0; r < board.getHeight(); r++)
+            for (int c = 0; c < board.getWidth(); c++)
+                if (heatShown[r][c] >= 0 && board.getCell(r, c).isRevealed()) showHeat(r, c, -1);
+        cancelHeatmap();
+        Board target = board;
+        BoardView view = board.snapshotView();
+        heatBoard = target;
+        heatVersion = view.getVersion();
+        heatTask = heatWorker.submit(() -> {
+            HazardHeatmap m = HazardHeatmap.build(view, HEATMAP_BUDGET_NANOS);
+            if (m == null) return;
+            Platform.runLater(() -> {
+                if (showHeatmap && board == target && board.getVersion() == m.version) applyHeatmap(m);
+            });
+        });
+    }
+
+    private void cancelHeatmap() {
+        if (heatTask != null) heatTask.cancel(true);
+        heatTask = null;
+        heatBoard = null;
+    }
+
+    // touches only the labels whose rounded percentage changed
+    private void applyHeatmap(HazardHeatmap m) {
         for (int r = 0; r < board.getHeight(); r++) {
             for (int c = 0; c < board.getWidth(); c++) {
-                Cell cc = board.getCell(r, c);
-                try {
-                    if (cc.isExploded() && !cc.isExplosionAnimated()) {
-                        playHazardEffect(r, c);
-                        cc.setExplosionAnimated(true);
-                    }
-                } catch (Throwable ignored) {}
+                float p = m.at(r, c);
+                int pct = Float.isNaN(p) ? -1 : Math.round(p * 100);
+                if (pct != heatShown[r][c]) showHeat(r, c, pct);
             }
         }
     }
 
+    private void showHeat(int r, int c, int pct) {
+        Label l = heatLabels[r][c];
+        heatShown[r][c] = pct;
+        l.setVisible(pct >= 0);
+        if (pct < 0) return;
+        l.setText(pct + "%");
+        l.setBackground(new Background(new BackgroundFill(Color.rgb(220, 38, 38, 0.04 + 0.40 * pct / 100.0),
+                new CornerRadii(8), Insets.EMPTY)));
+    }
+
+    private boolean moveMapCurrent() {
+        return moveMap != null && moveMapBoard == board && moveMap.version == board.getVersion();
+    }
+
+    // builds the next map from a snapshot on the worker; a result is dropped if the board moved on meanwhile
+    private void scheduleMoveMap() {
+        if (moveMapCurrent()) return;
+        Board target = board;
+        BoardView view = board.snapshotView();
+        moveMapWorker.execute(() -> {
+            LegalMoveMap m = LegalMoveMap.build(view);
+            Platform.runLater(() -> {
+                if (board != target || m.version != board.getVersion() || moveMapCurrent()) return;
+                moveMap = m;
+                moveMapBoard = target;
+            });
+        });
+    }
+
+    // the current map; a click that beats the worker builds it here (same result, just on the FX thread)
+    private LegalMoveMap moveMap() {
+        if (!moveMapCurrent()) {
+            moveMap = LegalMoveMap.build(board.snapshotView());
+            moveMapBoard = board;
+        }
+        return moveMap;
+    }
+
+    private boolean isTarget(int r, int c) {
+        return selectedCell != null && moveMap().canMove(selectedCell.getRow(), selectedCell.getCol(), r, c);
+    }
+
+    // plays the effect for the explosions the board reported since the last call
+    private void animateExplosions() {
+        for (int[] e : board.drainExplosions()) playHazardEffect(e[0], e[1]);
+    }
+
     private void playHazardEffect(int row, int col) {
         StackPane node = nodeCache[row][col];
         if (node == null) return;
@@ -790,10 +1024,10 @@ private void runAIMoveWithAnimation() {
         Button b = makePromoteIconButton(bishopSym, "Bishop", isWhite);
         Button n = makePromoteIconButton(knightSym, "Knight", isWhite);
 
-        q.setOnAction(e -> { dest.setPiece(new Queen(isWhite)); closeModal(); refreshAllCells(); simpleLog((isWhite?"White":"Black")+" promoted to Queen at " + toChessCoord(dest.getRow(), dest.getCol())); });
-        r.setOnAction(e -> { dest.setPiece(new Rook(isWhite)); closeModal(); refreshAllCells(); simpleLog((isWhite?"White":"Black")+" promoted to Rook at " + toChessCoord(dest.getRow(), dest.getCol())); });
-        b.setOnAction(e -> { dest.setPiece(new Bishop(isWhite)); closeModal(); refreshAllCells(); simpleLog((isWhite?"White":"Black")+" promoted to Bishop at " + toChessCoord(dest.getRow(), dest.getCol())); });
-        n.setOnAction(e -> { dest.setPiece(new Knight(isWhite)); closeModal(); refreshAllCells(); simpleLog((isWhite?"White":"Black")+" promoted to Knight at " + toChessCoord(dest.getRow(), dest.getCol())); });
+        q.setOnAction(e -> promote(dest, new Queen(isWhite)));
+        r.setOnAction(e -> promote(dest, new Rook(isWhite)));
+        b.setOnAction(e -> promote(dest, new Bishop(isWhite)));
+        n.setOnAction(e -> promote(dest, new Knight(isWhite)));
 
         choices.getChildren().addAll(q, r, b, n);
         box.getChildren().addAll(t, choices);
@@ -823,6 +1057,16 @@ private void runAIMoveWithAnimation() {
         return btn;
     }
 
+    // the player's promotion choice; it completes the move, so the AI answers only now
+    private void promote(Cell dest, Piece piece) {
+        closeModal();
+        // an undo or a new game may have taken the pawn away while the dialog was open
+        if (!board.promote(dest.getRow(), dest.getCol(), piece)) return;
+        refreshAllCells();
+        simpleLog((piece.isWhite() ? "White" : "Black") + " promoted to " + piece.getName() + " at " + toChessCoord(dest.getRow(), dest.getCol()));
+        if (!board.isWhiteTurn() && !board.isGameOver()) runAIMoveWithAnimation();
+    }
+
     private void closeModal() {
         if (modalOverlay != null) {
             boardContainer.getChildren().remove(modalOverlay);
@@ -852,7 +1096,6 @@ private void runAIMoveWithAnimation() {
         ng.setOnAction(e -> {
             board = new Board(board.getHeight(), 2);
             selectedCell = null;
-            validMoves.clear();
             initGridCache();
             refreshAllCells();
             closeModal();
@@ -860,7 +1103,11 @@ private void runAIMoveWithAnimation() {
             undoButton.setDisable(true);
         });
 
-        box.getChildren().addAll(t, ng);
+        Button an = new Button("Analyse");
+        styleSecondarySmall(an);
+        an.setOnAction(e -> analyseGame(an));
+
+        box.getChildren().addAll(t, ng, an);
         box.setLayoutX((modalOverlay.getPrefWidth()-240)/2);
         box.setLayoutY((modalOverlay.getPrefHeight()-120)/2);
         box.setPrefWidth(240);
@@ -869,15 +1116,124 @@ private void runAIMoveWithAnimation() {
         boardContainer.getChildren().add(modalOverlay);
     }
 
-    // numeric simple log lines (1., 2., ...)
+    // ---------------- post-game analysis (GameAnalyser, off the FX thread) ----------------
+    private void analyseGame(Button trigger) {
+        List<GameAnalyser.Ply> plies = GameAnalyser.replay(board);
+        if (plies.isEmpty()) {
+            simpleLog("Analysis: nothing to replay");
+            return;
+        }
+        trigger.setDisable(true);
+        simpleLog("Analysing " + plies.size() + " actions...");
+        Task<GameReport> task = new Task<>() {
+            @Override
+            protected GameReport call() throws Exception {
+                return new GameAnalyser().analyse(plies);
+            }
+        };
+        task.setOnSucceeded(e -> {
+            GameReport report = task.getValue();
+            for (String line : report.summary().split("\n")) simpleLog(line);
+            showReport(report);
+            trigger.setDisable(false);
+        });
+        task.setOnFailed(e -> {
+            simpleLog("Analysis failed: " + task.getException());
+            trigger.setDisable(false);
+        });
+        Thread worker = new Thread(task, "Analysis");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    private void showReport(GameReport report) {
+        TextArea text = new TextArea(report.toText());
+        text.setEditable(false);
+        text.setFont(Font.font("Monospaced", 12));
+        Stage stage = new Stage();
+        Button save = new Button("Save...");
+        styleSecondarySmall(save);
+        save.setOnAction(e -> {
+            FileChooser chooser = new FileChooser();
+            chooser.getExtensionFilters().add(new FileChooser.ExtensionFilter("Text", "*.txt"));
+            File file = chooser.showSaveDialog(stage);
+            if (file == null) return;
+            try {
+                report.writeTo(file.toPath());
+                simpleLog("Saved analysis " + file.getName());
+            } catch (IOException ex) {
+                simpleLog("Save failed: " + ex.getMessage());
+            }
+        });
+        VBox root = new VBox(8, text, save);
+        root.setPadding(new Insets(10));
+        VBox.setVgrow(text, Priority.ALWAYS);
+        stage.setTitle("Game analysis");
+        stage.setScene(new Scene(root, 760, 560));
+        stage.show();
+    }
+
+    // ---------------- save / load (Board.writeTo / readFrom) ----------------
+    private FileChooser saveChooser() {
+        FileChooser chooser = new FileChooser();
+        chooser.getExtensionFilters().add(new FileChooser.ExtensionFilter("Hazard Chess game", "*.hcg"));
+        return chooser;
+    }
+
+    private void saveGame(Stage stage) {
+        File file = saveChooser().showSaveDialog(stage);
+        if (file == null) return;
+        try (FileChannel ch = FileChannel.open(file.toPath(), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            board.writeTo(ch);
+            simpleLog("Saved " + file.getName());
+        } catch (IOException e) {
+            simpleLog("Save failed: " + e.getMessage());
+        }
+    }
+
+    private void loadGame(Stage stage) {
+        File file = saveChooser().showOpenDialog(stage);
+        if (file == null) return;
+        try (FileChannel ch = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            board = Board.readFrom(ch);
+        } catch (IOException e) {
+            simpleLog("Load failed: " + e.getMessage());
+            return;
+        }
+        selectedCell = null;
+        initGridCache();
+        refreshAllCells();
+        simpleLog("Loaded " + file.getName());
+        undoButton.setDisable(false);
+        if (!board.isWhiteTurn() && !board.isGameOver()) runAIMoveWithAnimation();
+    }
+
     private void simpleLog(String msg) {
-        Platform.runLater(() -> {
-            if (logArea == null) return;
+        pendingLog.add(msg);
+        if (logDrainScheduled.compareAndSet(false, true)) Platform.runLater(this::drainLog);
+    }
+
+    private void drainLog() {
+        logDrainScheduled.set(false);
+        if (logView == null) return;
+        String msg;
+        boolean added = false;
+        while ((msg = pendingLog.poll()) != null) {
             logCounter++;
-            String prefix = logCounter + ". ";
-            logArea.appendText(prefix + msg + "\n");
-            logArea.setScrollTop(Double.MAX_VALUE);
-        });
+            String line = logCounter + ". " + msg;
+            logEntries.add(line);
+            if (logFile != null) logFile.append(line);
+            added = true;
+        }
+        if (added) logView.scrollTo(logEntries.size() - 1);
+    }
+
+    @Override
+    public void stop() {
+        if (logFile != null) logFile.close();
+        moveMapWorker.shutdownNow();
+        heatWorker.shutdownNow();
     }
 
     public static void main(String[] args) { launch(); }
@@ -0,0 +1,65 @@
+package com.hazardchess.ui;
+
+import com.hazardchess.ai.FrontierSampler;
+import com.hazardchess.ai.Position;
+import com.hazardchess.game.BoardView;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * Hazard probability of every hidden cell, for the BoardUI risk overlay.
+ * - Monte Carlo over layouts drawn by FrontierSampler (exact, uniform) until the time budget or
+ *   MAX_SAMPLES runs out; cells proven safe / hazardous are exactly 0 / 1
+ * - when no consistent layout was drawn in time, the Position.risk heuristic is shown instead
+ * - built from a BoardView, so it runs off the FX thread; an interrupt cancels it (build returns null)
+ */
+final class HazardHeatmap {
+    static final int MAX_SAMPLES = 20_000;
+
+    final long version;
+    final int samples;
+    private final int width;
+    private final float[] p;   // NaN for cells that are not hidden
+
+    private HazardHeatmap(long version, int samples, int width, float[] p) {
+        this.version = version;
+        this.samples = samples;
+        this.width = width;
+        this.p = p;
+    }
+
+    static HazardHeatmap build(BoardView view, long budgetNanos) {
+        long deadline = System.nanoTime() + budgetNanos;
+        Position pos = Position.fromView(view, null);
+        int size = pos.size();
+        FrontierSampler sampler = new FrontierSampler();
+        SplittableRandom rnd = new SplittableRandom(view.getVersion());
+        boolean[] layout = new boolean[size];
+        int[] hits = new int[size];
+        int samples = 0;
+        while (samples < MAX_SAMPLES && System.nanoTime() < deadline) {
+            if (Thread.currentThread().isInterrupted()) return null;
+            if (!sampler.sample(pos, layout, rnd)) break;
+            for (int sq = 0; sq < size; sq++) if (layout[sq]) hits[sq]++;
+            samples++;
+        }
+        if (Thread.currentThread().isInterrupted()) return null;
+
+        float[] p = new float[size];
+        Arrays.fill(p, Float.NaN);
+        for (int sq = 0; sq < size; sq++) {
+            if (!pos.isHidden(sq)) continue;
+            int st = pos.stateAt(sq);
+            if ((st & Position.PROVEN_SAFE) != 0) p[sq] = 0f;
+            else if ((st & Position.PROVEN_HAZARD) != 0) p[sq] = 1f;
+            else p[sq] = samples > 0 ? (float) hits[sq] / samples : (float) pos.risk(sq);
+        }
+        return new HazardHeatmap(view.getVersion(), samples, view.getWidth(), p);
+    }
+
+    /** Hazard probability of a hidden cell, NaN for revealed ones. */
+    float at(int row, int col) {
+        return p[row * width + col];
+    }
+}
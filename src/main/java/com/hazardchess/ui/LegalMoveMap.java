@@ -0,0 +1,49 @@
+package com.hazardchess.ui;
+
+import com.hazardchess.ai.Move;
+import com.hazardchess.ai.Position;
+import com.hazardchess.game.BoardView;
+
+/**
+ * Moves of the side to move (quick reveals excluded), as one bitmask of target squares per source square.
+ * - built from a BoardView, so it can be computed off the FX thread; Position generates the same
+ *   moves as Piece.canMove
+ * - lookups are O(1): bit (to % 64) of targets[from * words + to / 64], any board height
+ * - version is the Board version it was built for
+ */
+final class LegalMoveMap {
+    final long version;
+    private final int width, height, words;
+    private final long[] targets;
+
+    private LegalMoveMap(BoardView view) {
+        version = view.getVersion();
+        width = view.getWidth();
+        height = view.getHeight();
+        int squares = width * height;
+        words = (squares + 63) >>> 6;
+        targets = new long[squares * words];
+        if (view.isGameOver()) return;
+        int[] buf = new int[Position.MAX_MOVES];
+        int n = Position.fromView(view, null).generateMoves(buf, false);
+        for (int i = 0; i < n; i++) {
+            if (Move.isChord(buf[i])) continue;
+            int to = Move.to(buf[i]);
+            targets[Move.from(buf[i]) * words + (to >>> 6)] |= 1L << to;
+        }
+    }
+
+    static LegalMoveMap build(BoardView view) {
+        return new LegalMoveMap(view);
+    }
+
+    boolean canMove(int fr, int fc, int tr, int tc) {
+        if (!inBounds(fr, fc) || !inBounds(tr, tc)) return false;
+        int to = tr * width + tc;
+        return (targets[(fr * width + fc) * words + (to >>> 6)] & (1L << to)) != 0;
+    }
+
+    private boolean inBounds(int r, int c) {
+        return r >= 0 && r < height && c >= 0 && c < width;
+    }
+}
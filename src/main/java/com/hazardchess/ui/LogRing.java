@@ -0,0 +1,50 @@
+package com.hazardchess.ui;
+
+import javafx.collections.ObservableListBase;
+
+import java.util.Objects;
+
+/**
+ * Fixed-capacity observable list for the event log (FX thread only).
+ * - a circular array: once full, add() overwrites the oldest entry, so memory stays bounded
+ * - every add fires one small change (oldest removed at 0, new one added at the end), which a
+ *   ListView turns into updates of its visible cells only
+ */
+final class LogRing extends ObservableListBase<String> {
+    private final String[] ring;
+    private int head;
+    private int size;
+
+    LogRing(int capacity) {
+        ring = new String[Math.max(1, capacity)];
+    }
+
+    @Override
+    public String get(int index) {
+        Objects.checkIndex(index, size);
+        return ring[(head + index) % ring.length];
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean add(String entry) {
+        beginChange();
+        if (size == ring.length) {
+            String oldest = ring[head];
+            ring[head] = entry;
+            head = (head + 1) % ring.length;
+            nextRemove(0, oldest);
+            nextAdd(size - 1, size);
+        } else {
+            ring[(head + size) % ring.length] = entry;
+            size++;
+            nextAdd(size - 1, size);
+        }
+        endChange();
+        return true;
+    }
+}
@@ -0,0 +1,114 @@
+package com.hazardchess.ui;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Event log lines to a rolling file, written by a background thread.
+ * - append() only offers to a bounded queue: it never blocks the FX thread, a full queue drops the
+ *   line (the count is written to the file later)
+ * - the writer drains up to BATCH lines at a time and flushes once per batch
+ * - when the file would pass maxBytes it is rolled: log -> log.1 -> ... -> log.keep (oldest deleted)
+ */
+final class RollingLogFile implements AutoCloseable {
+    private static final int QUEUE_CAPACITY = 8192;
+    private static final int BATCH = 256;
+
+    private final Path path;
+    private final long maxBytes;
+    private final int keep;
+    private final BlockingQueue<String> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+    private final AtomicLong dropped = new AtomicLong();
+    private final Thread writer;
+    private volatile boolean closed;
+    private BufferedWriter out;
+    private long written;
+
+    RollingLogFile(Path path, long maxBytes, int keep) throws IOException {
+        this.path = path;
+        this.maxBytes = maxBytes;
+        this.keep = Math.max(1, keep);
+        open();
+        writer = Thread.ofPlatform().daemon().name("event-log-writer").start(this::run);
+    }
+
+    void append(String line) {
+        if (closed || !queue.offer(line)) dropped.incrementAndGet();
+    }
+
+    private void run() {
+        List<String> batch = new ArrayList<>(BATCH);
+        try {
+            while (!closed || !queue.isEmpty()) {
+                String first = queue.poll(200, TimeUnit.MILLISECONDS);
+                if (first == null) continue;
+                batch.add(first);
+                queue.drainTo(batch, BATCH - 1);
+                long lost = dropped.getAndSet(0);
+                if (lost > 0) write("(" + lost + " log lines dropped)");
+                for (String line : batch) write(line);
+                out.flush();
+                batch.clear();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            System.err.println("event log file " + path + ": " + e.getMessage());
+        } finally {
+            try {
+                out.close();
+            } catch (IOException ignored) {
+                // nothing more to write to
+            }
+        }
+    }
+
+    private void write(String line) throws IOException {
+        long bytes = line.length() + 1L;
+        if (written > 0 && written + bytes > maxBytes) roll();
+        out.write(line);
+        out.newLine();
+        written += bytes;
+    }
+
+    private void roll() throws IOException {
+        out.close();
+        for (int i = keep - 1; i >= 1; i--) {
+            Path older = sibling(i);
+            if (Files.exists(older)) Files.move(older, sibling(i + 1), StandardCopyOption.REPLACE_EXISTING);
+        }
+        Files.move(path, sibling(1), StandardCopyOption.REPLACE_EXISTING);
+        open();
+    }
+
+    private Path sibling(int n) {
+        return path.resolveSibling(path.getFileName() + "." + n);
+    }
+
+    private void open() throws IOException {
+        out = Files.newBufferedWriter(path, StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        written = Files.size(path);
+    }
+
+    /** Writes what is queued, then stops the writer (waits at most a second). */
+    @Override
+    public void close() {
+        closed = true;
+        try {
+            writer.join(1000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.hazardchess.ai;
+
+import com.hazardchess.game.Board;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BoardBatchTest {
+    private static final int BOARDS = 37;   // not a multiple of PAD: the vector loops also run over padding slots
+
+    @Test
+    void vectorPathIsTested() {
+        // surefire adds jdk.incubator.vector (pom.xml); without it the tests below would compare scalar with scalar
+        assertTrue(BoardBatch.VECTOR_AVAILABLE, "run with --add-modules jdk.incubator.vector");
+        assertTrue(new BoardBatch(8, BOARDS, true).isVectorized());
+        assertFalse(new BoardBatch(8, BOARDS, false).isVectorized());
+    }
+
+    @Test
+    void countsMatch() {
+        for (int height : new int[]{6, 8, 11, 16}) {
+            BoardBatch start = seeded(height, height);
+            BoardBatch scalar = copy(start, false), vector = copy(start, true);
+            scalar.computeCounts();
+            vector.computeCounts();
+            for (int b = 0; b < BOARDS; b++)
+                for (int sq = 0; sq < height * BoardBatch.WIDTH; sq++)
+                    assertEquals(scalar.count(b, sq), vector.count(b, sq), "height " + height + " board " + b + " sq " + sq);
+        }
+    }
+
+    @Test
+    void revealAndTerminalMatch() {
+        for (int height : new int[]{6, 8, 11, 16}) {
+            BoardBatch start = seeded(height, 100 + height);
+            BoardBatch scalar = copy(start, false), vector = copy(start, true);
+            Random rnd = new Random(height);
+            boolean[] scalarOver = new boolean[BOARDS], vectorOver = new boolean[BOARDS];
+            // a few squares in a row on the same boards, so later reveals start from earlier flood fills
+            for (int step = 0; step < 12; step++) {
+                int sq = rnd.nextInt(height * BoardBatch.WIDTH);
+                scalar.reveal(sq);
+                vector.reveal(sq);
+                scalar.terminal(scalarOver);
+                vector.terminal(vectorOver);
+                String at = "height " + height + " step " + step + " sq " + sq;
+                assertArrayEquals(scalarOver, vectorOver, at);
+                assertSameBoards(scalar, vector, at);
+            }
+        }
+    }
+
+    @Test
+    void everySquareRevealMatches() {
+        BoardBatch start = seeded(16, 7);
+        BoardBatch scalar = copy(start, false), vector = copy(start, true);
+        for (int sq = 0; sq < 16 * BoardBatch.WIDTH; sq++) {
+            scalar.copyFrom(start);
+            vector.copyFrom(start);
+            scalar.reveal(sq);
+            vector.reveal(sq);
+            assertSameBoards(scalar, vector, "sq " + sq);
+        }
+    }
+
+    // game boards (hazards as placed, some already revealed by random plies), as BoardBatchBench builds them
+    private static BoardBatch seeded(int height, long seed) {
+        BoardBatch batch = new BoardBatch(height, BOARDS, false);
+        Random moves = new Random(seed);
+        for (int b = 0; b < BOARDS; b++) {
+            Board board = new Board(height, 2, seed * 1000 + b);
+            for (int i = 4 + moves.nextInt(16); i > 0 && !board.isGameOver(); i--)
+                if (!SelfPlay.playRandomMove(board, moves)) break;
+            batch.set(b, board);
+        }
+        return batch;
+    }
+
+    private static BoardBatch copy(BoardBatch src, boolean vector) {
+        BoardBatch batch = new BoardBatch(src.getHeight(), src.getBoards(), vector);
+        batch.copyFrom(src);
+        return batch;
+    }
+
+    private static void assertSameBoards(BoardBatch expected, BoardBatch actual, String at) {
+        for (int b = 0; b < BOARDS; b++)
+            for (int sq = 0; sq < expected.getHeight() * BoardBatch.WIDTH; sq++) {
+                assertEquals(expected.isRevealed(b, sq), actual.isRevealed(b, sq), at + " board " + b + " square " + sq);
+                assertEquals(expected.isHazard(b, sq), actual.isHazard(b, sq), at + " board " + b + " square " + sq);
+            }
+    }
+}
@@ -0,0 +1,119 @@
+package com.hazardchess.game;
+
+import com.hazardchess.ai.SelfPlay;
+import com.hazardchess.pieces.Pawn;
+import com.hazardchess.pieces.Piece;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.Channels;
+import java.util.Random;
+import java.util.zip.CRC32;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BoardSaveTest {
+    private static final int HEADER = 10;
+
+    @Test
+    void roundTripKeepsBoardHistoryAndPawnState() throws IOException {
+        for (int height : new int[]{6, 8, 11, 16}) {
+            Board board = played(height, height);
+            Board loaded = load(save(board));
+            // walk the whole undo history on both: every earlier position must match too
+            do {
+                assertSameGame(board, loaded);
+            } while (board.undo() & loaded.undo());
+            assertSameGame(board, loaded);
+        }
+    }
+
+    @Test
+    void rejectsOtherWidths() throws IOException {
+        byte[] bytes = save(played(8, 1));
+        bytes[HEADER] = 7;
+        resign(bytes);
+        IOException e = assertThrows(IOException.class, () -> load(bytes));
+        assertTrue(e.getMessage().contains("board size"), e.getMessage());
+    }
+
+    @Test
+    void rejectsHeightsOutOfRange() throws IOException {
+        for (byte height : new byte[]{5, 17, -8}) {
+            byte[] bytes = save(played(8, 2));
+            bytes[HEADER + 1] = height;
+            resign(bytes);
+            assertThrows(IOException.class, () -> load(bytes));
+        }
+    }
+
+    @Test
+    void rejectsCorruptBytes() throws IOException {
+        byte[] bytes = save(played(8, 3));
+        bytes[bytes.length / 2] ^= 1;
+        IOException e = assertThrows(IOException.class, () -> load(bytes));
+        assertEquals("checksum mismatch", e.getMessage());
+    }
+
+    // a game with moves, reveals, flags and pawn moves in its history
+    private static Board played(int height, long seed) {
+        Board board = new Board(height, 2, seed);
+        Random rnd = new Random(seed);
+        for (int ply = 0; ply < 40 && !board.isGameOver(); ply++) {
+            if (ply % 7 == 3) board.toggleFlag(rnd.nextInt(height), rnd.nextInt(board.getWidth()));
+            else if (!SelfPlay.playRandomMove(board, rnd)) break;
+        }
+        return board;
+    }
+
+    private static void assertSameGame(Board expected, Board actual) {
+        assertEquals(expected.getHeight(), actual.getHeight());
+        assertEquals(expected.getWidth(), actual.getWidth());
+        assertEquals(expected.isWhiteTurn(), actual.isWhiteTurn());
+        assertEquals(expected.isGameOver(), actual.isGameOver());
+        assertEquals(expected.getWhiteWinner(), actual.getWhiteWinner());
+        assertEquals(expected.getHazardTotal(), actual.getHazardTotal());
+        assertEquals(expected.getActions().size(), actual.getActions().size());
+        for (int i = 0; i < expected.getActions().size(); i++)
+            assertArrayEquals(expected.getActions().get(i), actual.getActions().get(i), "action " + i);
+        for (int r = 0; r < expected.getHeight(); r++) {
+            for (int c = 0; c < expected.getWidth(); c++) {
+                Cell e = expected.getCell(r, c), a = actual.getCell(r, c);
+                String at = r + "," + c;
+                assertEquals(e.isRevealed(), a.isRevealed(), at);
+                assertEquals(e.isExploded(), a.isExploded(), at);
+                assertEquals(e.hasHazard(), a.hasHazard(), at);
+                assertEquals(e.isFlagged(), a.isFlagged(), at);
+                assertEquals(e.getAdjacentHazardCount(), a.getAdjacentHazardCount(), at);
+                Piece ep = e.getPiece(), ap = a.getPiece();
+                assertEquals(ep == null, ap == null, at);
+                if (ep == null) continue;
+                assertEquals(ep.getName(), ap.getName(), at);
+                assertEquals(ep.isWhite(), ap.isWhite(), at);
+                if (ep instanceof Pawn pawn) assertEquals(pawn.isFirstMove(), ((Pawn) ap).isFirstMove(), at);
+            }
+        }
+    }
+
+    private static byte[] save(Board board) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        board.writeTo(Channels.newChannel(out));
+        return out.toByteArray();
+    }
+
+    private static Board load(byte[] bytes) throws IOException {
+        return Board.readFrom(Channels.newChannel(new ByteArrayInputStream(bytes)));
+    }
+
+    // recomputes the checksum after an edit, so only the content checks can reject it
+    private static void resign(byte[] bytes) {
+        int payload = ByteBuffer.wrap(bytes, 6, 4).order(ByteOrder.LITTLE_ENDIAN).getInt();
+        CRC32 crc = new CRC32();
+        crc.update(bytes, HEADER, payload);
+        ByteBuffer.wrap(bytes, HEADER + payload, 4).order(ByteOrder.LITTLE_ENDIAN).putInt((int) crc.getValue());
+    }
+}
@@ -0,0 +1,56 @@
+package com.hazardchess.game;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class HazardCountsTest {
+    private static final int WIDTH = 8;
+
+    @Test
+    void seededBoardsMatchPerCellCount() {
+        for (int height = 6; height <= 16; height++) {
+            for (long seed = 1; seed <= 20; seed++) {
+                Board board = new Board(height, 2, seed);
+                for (int r = 0; r < height; r++)
+                    for (int c = 0; c < WIDTH; c++)
+                        assertEquals(board.countAdjacentHazards(r, c), board.getCell(r, c).getAdjacentHazardCount(),
+                                "height " + height + " seed " + seed + " at " + r + "," + c);
+            }
+        }
+    }
+
+    // denser layouts than the game places, up to every cell, so all counts 0..8 and every edge show up
+    @Test
+    void randomLayersMatchNaiveCount() {
+        Random rnd = new Random(48);
+        for (int height = 6; height <= 16; height++) {
+            for (int density = 0; density <= 8; density++) {
+                boolean[][] hazard = new boolean[height][WIDTH];
+                long[] packed = new long[(height * WIDTH + 63) >>> 6];
+                for (int r = 0; r < height; r++) {
+                    for (int c = 0; c < WIDTH; c++) {
+                        hazard[r][c] = rnd.nextInt(8) < density;
+                        if (hazard[r][c]) packed[(r * WIDTH + c) >>> 6] |= 1L << (r * WIDTH + c);
+                    }
+                }
+                long[][] planes = new long[HazardCounts.PLANES][packed.length];
+                HazardCounts.compute(packed, planes);
+                for (int r = 0; r < height; r++)
+                    for (int c = 0; c < WIDTH; c++)
+                        assertEquals(naive(hazard, r, c), HazardCounts.countAt(planes, r * WIDTH + c),
+                                "height " + height + " density " + density + " at " + r + "," + c);
+            }
+        }
+    }
+
+    private static int naive(boolean[][] hazard, int row, int col) {
+        int n = 0;
+        for (int r = row - 1; r <= row + 1; r++)
+            for (int c = col - 1; c <= col + 1; c++)
+                if ((r != row || c != col) && r >= 0 && r < hazard.length && c >= 0 && c < WIDTH && hazard[r][c]) n++;
+        return n;
+    }
+}